@@ -0,0 +1,78 @@
+package com.niuge.learning;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtering with a filter rule of many clauses declared in a poor order: clause {@code i} of
+ * {@code n} costs {@code n - i} units and rejects one value in {@code n - i + 1}, so the cheapest
+ * and most selective clause comes last. {@code Predicates.and} keeps that order;
+ * {@link AdaptivePredicate} learns a better one.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdaptivePredicateBenchmark {
+  @Param({"10000"})
+  public int size;
+
+  @Param({"10", "30"})
+  public int clauses;
+
+  // Blackhole.consumeCPU tokens per unit of clause cost
+  @Param({"10"})
+  public long unit;
+
+  private List<Integer> numbers;
+  private Predicate<Integer> declared;
+  private Predicate<Integer> adaptive;
+
+  @Setup
+  public void setUp() {
+    numbers = BenchmarkData.randomIntegers(size);
+    List<Predicate<Integer>> rules = Lists.newArrayList();
+    for (int i = 0; i < clauses; i++) {
+      final long cost = (clauses - i) * unit;
+      final int modulus = clauses - i + 1;
+      rules.add(new Predicate<Integer>() {
+        @Override
+        public boolean apply(Integer number) {
+          Blackhole.consumeCPU(cost);
+          return Math.floorMod(number, modulus) != 0;
+        }
+      });
+    }
+    declared = Predicates.and(rules);
+    adaptive = AdaptivePredicate.and(rules);
+  }
+
+  @Benchmark
+  public int predicatesAnd() {
+    return Iterables.size(Iterables.filter(numbers, declared));
+  }
+
+  @Benchmark
+  public int adaptiveAnd() {
+    return Iterables.size(Iterables.filter(numbers, adaptive));
+  }
+}
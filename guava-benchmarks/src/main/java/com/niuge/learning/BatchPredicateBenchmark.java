@@ -0,0 +1,86 @@
+package com.niuge.learning;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.Iterables;
+import com.google.common.primitives.Ints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+/**
+ * Counting the values that are even and not below zero: Guava predicates over boxed integers, an
+ * {@link IntPredicate} per element over an {@code int[]}, and {@link IntBatchPredicate} bitmasks.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchPredicateBenchmark {
+  @Param({"1000", "1000000"})
+  public int size;
+
+  private List<Integer> boxed;
+  private int[] values;
+  private Predicate<Integer> guavaPredicate;
+  private IntPredicate intPredicate;
+  private IntBatchPredicate batchPredicate;
+
+  @Setup
+  public void setUp() {
+    boxed = BenchmarkData.randomIntegers(size);
+    values = Ints.toArray(boxed);
+    Predicate<Integer> acceptEven = new Predicate<Integer>() {
+      @Override
+      public boolean apply(Integer number) {
+        return (number % 2) == 0;
+      }
+    };
+    Predicate<Integer> negative = new Predicate<Integer>() {
+      @Override
+      public boolean apply(Integer number) {
+        return number < 0;
+      }
+    };
+    guavaPredicate = Predicates.and(acceptEven, Predicates.not(negative));
+    IntPredicate even = value -> value % 2 == 0;
+    IntPredicate isNegative = value -> value < 0;
+    intPredicate = even.and(isNegative.negate());
+    batchPredicate = IntBatchPredicate.even().and(IntBatchPredicate.lessThan(0).not());
+  }
+
+  @Benchmark
+  public int guavaPredicates() {
+    return Iterables.size(Iterables.filter(boxed, guavaPredicate));
+  }
+
+  @Benchmark
+  public int intPredicatePerElement() {
+    int count = 0;
+    for (int value : values) {
+      if (intPredicate.test(value)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int batchPredicate() {
+    return batchPredicate.count(values);
+  }
+}
@@ -0,0 +1,59 @@
+package com.niuge.learning;
+
+import com.google.common.collect.Lists;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic inputs shared by the benchmarks, so every run measures the same data.
+ */
+final class BenchmarkData {
+  static final long SEED = 42L;
+
+  private BenchmarkData() {
+  }
+
+  static List<Integer> randomIntegers(int size) {
+    Random random = new Random(SEED);
+    List<Integer> numbers = Lists.newArrayListWithCapacity(size);
+    for (int i = 0; i < size; i++) {
+      numbers.add(random.nextInt(size));
+    }
+    return numbers;
+  }
+
+  // roughly one null every 16 elements, like the nullsFirst/nullsLast tests
+  static List<Integer> randomIntegersWithNulls(int size) {
+    Random random = new Random(SEED);
+    List<Integer> numbers = Lists.newArrayListWithCapacity(size);
+    for (int i = 0; i < size; i++) {
+      numbers.add(random.nextInt(16) == 0 ? null : random.nextInt(size));
+    }
+    return numbers;
+  }
+
+  static List<String> randomStrings(int size) {
+    Random random = new Random(SEED);
+    List<String> strings = Lists.newArrayListWithCapacity(size);
+    for (int i = 0; i < size; i++) {
+      char[] chars = new char[1 + random.nextInt(8)];
+      for (int j = 0; j < chars.length; j++) {
+        chars[j] = (char) ('a' + random.nextInt(26));
+      }
+      strings.add(new String(chars));
+    }
+    return strings;
+  }
+
+  static List<String> randomStringsWithNulls(int size) {
+    List<String> strings = randomStrings(size);
+    Random random = new Random(SEED + 1);
+    for (int i = 0; i < size; i++) {
+      if (random.nextInt(16) == 0) {
+        strings.set(i, null);
+      }
+    }
+    return strings;
+  }
+}
@@ -0,0 +1,40 @@
+package com.niuge.learning;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. Accepts the usual JMH command line, but always attaches the gc
+ * profiler (bytes allocated per op) and writes JSON results unless -rf/-rff say otherwise.
+ *
+ * <pre>
+ *   mvn -pl guava-benchmarks -am package
+ *   java -jar guava-benchmarks/target/benchmarks.jar FunctionalBenchmark -p size=1000
+ * </pre>
+ */
+public final class BenchmarkRunner {
+  static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+  private BenchmarkRunner() {
+  }
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    CommandLineOptions commandLine = new CommandLineOptions(args);
+    ChainedOptionsBuilder options = new OptionsBuilder()
+        .parent(commandLine)
+        .addProfiler(GCProfiler.class);
+    if (!commandLine.getResultFormat().hasValue()) {
+      options.resultFormat(ResultFormatType.JSON);
+    }
+    if (!commandLine.getResult().hasValue()) {
+      options.result(DEFAULT_RESULT_FILE);
+    }
+    new Runner(options.build()).run();
+  }
+}
@@ -0,0 +1,87 @@
+package com.niuge.learning;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merging many small batches: one {@code Iterables.addAll} per batch against
+ * {@link BulkTransfer#concat}; and draining a queue into a fresh list per batch against a reused
+ * {@link DrainBuffer}. The GC profiler's {@code alloc.rate.norm} is the number to watch.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkTransferBenchmark {
+  @Param({"1000"})
+  public int batches;
+
+  @Param({"16", "256"})
+  public int batchSize;
+
+  private List<List<Integer>> input;
+  private ArrayBlockingQueue<Integer> queue;
+  private DrainBuffer<Integer> drainBuffer;
+
+  @Setup
+  public void setUp() {
+    List<Integer> values = BenchmarkData.randomIntegers(batches * batchSize);
+    input = Lists.partition(values, batchSize);
+    queue = new ArrayBlockingQueue<>(batchSize);
+    drainBuffer = new DrainBuffer<>(batchSize);
+  }
+
+  @Benchmark
+  public List<Integer> iterablesAddAll() {
+    List<Integer> merged = Lists.newArrayList();
+    for (List<Integer> batch : input) {
+      Iterables.addAll(merged, batch);
+    }
+    return merged;
+  }
+
+  @Benchmark
+  public List<Integer> bulkConcat() {
+    return BulkTransfer.concat(input);
+  }
+
+  @Benchmark
+  public long drainIntoNewList() {
+    long sum = 0;
+    for (List<Integer> batch : input) {
+      queue.addAll(batch);
+      List<Integer> drained = new ArrayList<>();
+      queue.drainTo(drained);
+      sum += drained.size();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long drainIntoBuffer() {
+    long sum = 0;
+    for (List<Integer> batch : input) {
+      queue.addAll(batch);
+      sum += drainBuffer.drainFrom(queue);
+    }
+    return sum;
+  }
+}
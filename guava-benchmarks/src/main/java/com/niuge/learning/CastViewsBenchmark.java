@@ -0,0 +1,76 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summing a {@code List<Object>} of integers through {@code Lists.transform} with a cast function,
+ * through {@link CastViews#checkedCast} (including its one validating pass) and through
+ * {@link CastViews#lazyCast}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CastViewsBenchmark {
+  @Param({"1000", "1000000"})
+  public int size;
+
+  // Each element is read this many times after the cast.
+  @Param({"1", "10"})
+  public int passes;
+
+  private List<Object> objects;
+
+  @Setup
+  public void setUp() {
+    objects = new ArrayList<Object>(BenchmarkData.randomIntegers(size));
+  }
+
+  @Benchmark
+  public long transformWithCastFunction() {
+    return sum(Lists.transform(objects, new Function<Object, Integer>() {
+      @Override
+      public Integer apply(Object input) {
+        return (Integer) input;
+      }
+    }));
+  }
+
+  @Benchmark
+  public long checkedCast() {
+    return sum(CastViews.checkedCast(objects, Integer.class));
+  }
+
+  @Benchmark
+  public long lazyCast() {
+    return sum(CastViews.lazyCast(objects, Integer.class));
+  }
+
+  private long sum(List<Integer> numbers) {
+    long sum = 0;
+    for (int pass = 0; pass < passes; pass++) {
+      for (int i = 0, n = numbers.size(); i < n; i++) {
+        sum += numbers.get(i);
+      }
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,72 @@
+package com.niuge.learning;
+
+import com.google.common.collect.Lists;
+import org.hamcrest.Matcher;
+import org.hamcrest.Matchers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checking that a shuffled list holds the same integers as another, and that every item is in
+ * range, with Hamcrest's matchers against {@link LargeCollectionMatchers}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CollectionMatchersBenchmark {
+  @Param({"1000", "10000"})
+  public int size;
+
+  private List<Integer> actual;
+  private Matcher<Iterable<? extends Integer>> hamcrestContains;
+  private Matcher<Iterable<? extends Integer>> hashContains;
+  private Matcher<Iterable<? extends Integer>> hamcrestEveryItem;
+  private Matcher<Iterable<? extends Integer>> parallelEveryItem;
+
+  @Setup
+  public void setUp() {
+    List<Integer> expected = BenchmarkData.randomIntegers(size);
+    actual = Lists.newArrayList(expected);
+    Collections.reverse(actual);
+    hamcrestContains = Matchers.containsInAnyOrder(expected.toArray(new Integer[0]));
+    hashContains = LargeCollectionMatchers.containsInAnyOrder(expected);
+    hamcrestEveryItem = Matchers.everyItem(Matchers.notNullValue(Integer.class));
+    parallelEveryItem = LargeCollectionMatchers.everyItem(Matchers.notNullValue(Integer.class));
+  }
+
+  @Benchmark
+  public boolean hamcrestContainsInAnyOrder() {
+    return hamcrestContains.matches(actual);
+  }
+
+  @Benchmark
+  public boolean hashContainsInAnyOrder() {
+    return hashContains.matches(actual);
+  }
+
+  @Benchmark
+  public boolean hamcrestEveryItem() {
+    return hamcrestEveryItem.matches(actual);
+  }
+
+  @Benchmark
+  public boolean parallelEveryItem() {
+    return parallelEveryItem.matches(actual);
+  }
+}
@@ -0,0 +1,203 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.collect.Collections2;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The idioms of TestGuavaCollections next to their JDK 8 equivalents.
+ * Lazy views are always consumed, otherwise only the view construction would be measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CollectionsBenchmark {
+  static class CastFunction<F, T extends F> implements Function<F, T> {
+    @SuppressWarnings("unchecked")
+    public final T apply(final F from) {
+      return (T) from;
+    }
+  }
+
+  static final Predicate<String> LENGTH_ONE = new Predicate<String>() {
+    @Override
+    public boolean apply(final String input) {
+      return input.length() == 1;
+    }
+  };
+
+  @Param({"10", "1000", "100000", "10000000"})
+  public int size;
+
+  private List<Object> objects;
+  private List<String> strings;
+  private Set<String> stringSet;
+  private Map<String, String> stringMap;
+
+  @Setup
+  public void setUp() {
+    objects = new ArrayList<Object>(BenchmarkData.randomIntegers(size));
+    strings = BenchmarkData.randomStrings(size);
+    stringSet = Sets.newHashSet(strings);
+    stringMap = Maps.newHashMap();
+    for (String s : strings) {
+      stringMap.put(s, s);
+    }
+  }
+
+  // givenList_testTransform_thenOk
+
+  @Benchmark
+  public void listsTransformCast(Blackhole bh) {
+    List<Integer> theList = Lists.transform(objects, new CastFunction<Object, Integer>());
+    for (Integer value : theList) {
+      bh.consume(value);
+    }
+  }
+
+  @Benchmark
+  public List<Integer> streamMapCast() {
+    return objects.stream().map(v -> (Integer) v).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  @SuppressWarnings("unchecked")
+  public void doubleCast(Blackhole bh) {
+    List<Integer> theList = (List<Integer>) (List<? extends Object>) objects;
+    for (Integer value : theList) {
+      bh.consume(value);
+    }
+  }
+
+  // givenIterables_testAddAll_thenOk
+
+  @Benchmark
+  public Collection<String> iterablesAddAll() {
+    Collection<String> collector = Lists.newArrayList();
+    Iterables.addAll(collector, strings);
+    return collector;
+  }
+
+  @Benchmark
+  public Collection<String> collectionAddAll() {
+    Collection<String> collector = new ArrayList<String>();
+    collector.addAll(strings);
+    return collector;
+  }
+
+  // givenIterables_testAny_thenOk, givenIterables_testFind_thenOk
+
+  @Benchmark
+  public boolean iterablesAny() {
+    return Iterables.any(strings, LENGTH_ONE);
+  }
+
+  @Benchmark
+  public boolean streamAnyMatch() {
+    return strings.stream().anyMatch(input -> input.length() == 1);
+  }
+
+  @Benchmark
+  public String iterablesFindWithDefault() {
+    return Iterables.find(stringSet, LENGTH_ONE, "default");
+  }
+
+  @Benchmark
+  public String streamFindFirst() {
+    return stringSet.stream().filter(input -> input.length() == 1).findFirst().orElse("default");
+  }
+
+  // givenSets_testFilter_thenOk
+
+  @Benchmark
+  public void setsFilter(Blackhole bh) {
+    for (String s : Sets.filter(stringSet, LENGTH_ONE)) {
+      bh.consume(s);
+    }
+  }
+
+  @Benchmark
+  public int setsFilterSize() {
+    return Sets.filter(stringSet, LENGTH_ONE).size();
+  }
+
+  @Benchmark
+  public void collections2Filter(Blackhole bh) {
+    for (String s : Collections2.filter(strings, LENGTH_ONE)) {
+      bh.consume(s);
+    }
+  }
+
+  @Benchmark
+  public int collections2FilterSize() {
+    return Collections2.filter(strings, LENGTH_ONE).size();
+  }
+
+  @Benchmark
+  public Set<String> streamFilterToSet() {
+    return stringSet.stream().filter(input -> input.length() == 1).collect(Collectors.toSet());
+  }
+
+  // givenStandardCollection_testCreateImmutableCollections*
+
+  @Benchmark
+  public ImmutableList<String> immutableListCopyOf() {
+    return ImmutableList.copyOf(strings);
+  }
+
+  @Benchmark
+  public ImmutableList<String> immutableListBuilder() {
+    return ImmutableList.<String>builder().addAll(strings).build();
+  }
+
+  @Benchmark
+  public List<String> unmodifiableListCopy() {
+    return Collections.unmodifiableList(new ArrayList<String>(strings));
+  }
+
+  @Benchmark
+  public ImmutableSet<String> immutableSetCopyOf() {
+    return ImmutableSet.copyOf(stringSet);
+  }
+
+  @Benchmark
+  public ImmutableMap<String, String> immutableMapCopyOf() {
+    return ImmutableMap.copyOf(stringMap);
+  }
+
+  @Benchmark
+  public ImmutableMap<String, String> immutableMapBuilder() {
+    return ImmutableMap.<String, String>builder().putAll(stringMap).build();
+  }
+}
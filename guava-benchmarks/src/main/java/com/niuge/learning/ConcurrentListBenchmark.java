@@ -0,0 +1,65 @@
+package com.niuge.learning;
+
+import com.google.common.collect.Lists;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mixed random get/set traffic on a shared list: {@code Collections.synchronizedList}, copy-on-write
+ * and {@link StripedArrayList}. Thread count comes from the command line, e.g.
+ * {@code for t in 1 2 4 8 16 32 64; do java -jar benchmarks.jar ConcurrentList -t $t; done}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentListBenchmark {
+  @Param({"synchronized", "copyOnWrite", "striped"})
+  public String list;
+
+  @Param({"50", "90", "99"})
+  public int readPercent;
+
+  @Param({"10000"})
+  public int size;
+
+  private List<Integer> shared;
+
+  @Setup
+  public void setUp() {
+    List<Integer> initial = BenchmarkData.randomIntegers(size);
+    if ("synchronized".equals(list)) {
+      shared = Collections.synchronizedList(Lists.newArrayList(initial));
+    } else if ("copyOnWrite".equals(list)) {
+      shared = ConcurrentLists.newCopyOnWriteArrayList(initial);
+    } else {
+      shared = ConcurrentLists.newStripedArrayList(initial);
+    }
+  }
+
+  @Benchmark
+  public Integer mixed() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int index = random.nextInt(size);
+    if (random.nextInt(100) < readPercent) {
+      return shared.get(index);
+    }
+    return shared.set(index, index);
+  }
+}
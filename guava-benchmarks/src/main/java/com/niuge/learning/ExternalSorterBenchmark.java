@@ -0,0 +1,65 @@
+package com.niuge.learning;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Ordering;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorting strings in memory with {@code Ordering.sortedCopy} against {@link ExternalSorter} with a
+ * memory budget that holds a fraction of them, so the data is spilled to runs and merged. Compare
+ * the {@code gc.alloc.rate.norm} and heap size needed as well as the time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExternalSorterBenchmark {
+  @Param({"1000000"})
+  public int size;
+
+  // runs the data is split into
+  @Param({"4", "64"})
+  public int runs;
+
+  private List<String> strings;
+  private ExternalSorter<String> sorter;
+
+  @Setup
+  public void setUp() {
+    strings = BenchmarkData.randomStrings(size);
+    long bytes = 0;
+    for (String string : strings) {
+      bytes += Codecs.utf8().encodedSize(string) + ExternalSorter.ELEMENT_OVERHEAD;
+    }
+    sorter = ExternalSorter.builder(Ordering.<String>natural(), Codecs.utf8())
+        .memoryBudget(bytes / runs + 1)
+        .build();
+  }
+
+  @Benchmark
+  public List<String> sortedCopy() {
+    return Ordering.natural().sortedCopy(strings);
+  }
+
+  @Benchmark
+  public int externalSort() {
+    try (ExternalSorter.SortedIterator<String> sorted = sorter.sort(strings)) {
+      return Iterators.size(sorted);
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.Collections2;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.Sets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The idioms of TestGuavaFunctional next to their JDK 8 equivalents.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FunctionalBenchmark {
+  static final Predicate<Integer> ACCEPT_EVEN = new Predicate<Integer>() {
+    @Override
+    public boolean apply(Integer number) {
+      return (number % 2) == 0;
+    }
+  };
+
+  static final Predicate<Integer> ACCEPT_ODD = new Predicate<Integer>() {
+    @Override
+    public boolean apply(Integer number) {
+      return (number % 2) != 0;
+    }
+  };
+
+  static final Function<Integer, Integer> POWER_OF_TWO = new Function<Integer, Integer>() {
+    @Override
+    public Integer apply(Integer input) {
+      return (int) Math.pow(input, 2);
+    }
+  };
+
+  @Param({"10", "1000", "100000", "10000000"})
+  public int size;
+
+  private List<Integer> numbers;
+  private List<Integer> evenNumbers;
+  private Set<Integer> numberSet;
+
+  @Setup
+  public void setUp() {
+    numbers = BenchmarkData.randomIntegers(size);
+    evenNumbers = Lists.newArrayList(Collections2.transform(numbers, n -> n * 2));
+    numberSet = Sets.newHashSet(numbers);
+  }
+
+  // givenComplexFunction_testTransform_thenOk
+
+  @Benchmark
+  public void fluentIterableFilterTransform(Blackhole bh) {
+    for (Integer value : FluentIterable.from(numbers).filter(ACCEPT_EVEN).transform(POWER_OF_TWO)) {
+      bh.consume(value);
+    }
+  }
+
+  @Benchmark
+  public void streamFilterMap(Blackhole bh) {
+    numbers.stream().filter(n -> n % 2 == 0).map(POWER_OF_TWO::apply).forEach(bh::consume);
+  }
+
+  // givenFunction_testTransform_thenOk
+
+  @Benchmark
+  public void listsTransformCompose(Blackhole bh) {
+    for (Integer value : Lists.transform(numbers, Functions.compose(POWER_OF_TWO, POWER_OF_TWO))) {
+      bh.consume(value);
+    }
+  }
+
+  @Benchmark
+  public List<Integer> streamMapCompose() {
+    java.util.function.Function<Integer, Integer> square = POWER_OF_TWO::apply;
+    return numbers.stream().map(square.andThen(square)).collect(Collectors.toList());
+  }
+
+  // givenPredicate_testFilter_thenOk
+
+  @Benchmark
+  public List<Integer> collections2FilterCopy() {
+    return Lists.newArrayList(Collections2.filter(numbers, ACCEPT_EVEN));
+  }
+
+  @Benchmark
+  public List<Integer> streamFilterCollect() {
+    return numbers.stream().filter(n -> n % 2 == 0).collect(Collectors.toList());
+  }
+
+  // givenPredicateAcceptEven_testIterablesAllthenOk, givenPredicateAcceptOld_testIterablesAll_thenOk
+
+  @Benchmark
+  public boolean iterablesAll() {
+    return Iterables.all(evenNumbers, ACCEPT_EVEN);
+  }
+
+  @Benchmark
+  public boolean iterablesAllNot() {
+    return Iterables.all(evenNumbers, Predicates.not(ACCEPT_ODD));
+  }
+
+  @Benchmark
+  public boolean streamAllMatch() {
+    return evenNumbers.stream().allMatch(n -> n % 2 == 0);
+  }
+
+  // givenPredicate_testFunctions_thenOk
+
+  @Benchmark
+  public void listsTransformForPredicate(Blackhole bh) {
+    for (Boolean value : Lists.transform(numbers, Functions.forPredicate(ACCEPT_EVEN))) {
+      bh.consume(value);
+    }
+  }
+
+  // givenPowerOfTwo_testAsMap_thenOk
+
+  @Benchmark
+  public void mapsAsMapGetAll(Blackhole bh) {
+    Map<Integer, Integer> view = Maps.asMap(numberSet, POWER_OF_TWO);
+    for (Integer key : numberSet) {
+      bh.consume(view.get(key));
+    }
+  }
+
+  @Benchmark
+  public Map<Integer, Integer> mapsToMap() {
+    return Maps.toMap(numberSet, POWER_OF_TWO);
+  }
+
+  @Benchmark
+  public Map<Integer, Integer> streamToMap() {
+    return numberSet.stream().collect(Collectors.toMap(n -> n, POWER_OF_TWO::apply));
+  }
+
+  // givenOrdering_testSortedCopy_thenOk
+
+  @Benchmark
+  public List<Integer> orderingOnResultOfToString() {
+    return Ordering.natural().onResultOf(Functions.toStringFunction()).sortedCopy(numbers);
+  }
+}
@@ -0,0 +1,93 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A filtered and transformed view read several times, the way a dashboard reads it within one
+ * request: Guava's lazy views against a memoized {@link FusedList}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FusedListBenchmark {
+  static final Predicate<Integer> ACCEPT_EVEN = new Predicate<Integer>() {
+    @Override
+    public boolean apply(Integer number) {
+      return (number % 2) == 0;
+    }
+  };
+
+  static final Function<Integer, Integer> POWER_OF_TWO = new Function<Integer, Integer>() {
+    @Override
+    public Integer apply(Integer input) {
+      return (int) Math.pow(input, 2);
+    }
+  };
+
+  @Param({"1000", "100000"})
+  public int size;
+
+  @Param({"1", "4"})
+  public int passes;
+
+  private List<Integer> numbers;
+
+  @Setup
+  public void setUp() {
+    numbers = ImmutableList.copyOf(BenchmarkData.randomIntegers(size));
+  }
+
+  @Benchmark
+  public void fluentIterable(Blackhole bh) {
+    FluentIterable<Integer> view = FluentIterable.from(numbers).filter(ACCEPT_EVEN).transform(POWER_OF_TWO);
+    for (int pass = 0; pass < passes; pass++) {
+      bh.consume(view.size());
+      for (Integer value : view) {
+        bh.consume(value);
+      }
+    }
+  }
+
+  @Benchmark
+  public void fusedList(Blackhole bh) {
+    List<Integer> view = FusedList.from(numbers).filter(ACCEPT_EVEN).transform(POWER_OF_TWO);
+    for (int pass = 0; pass < passes; pass++) {
+      bh.consume(view.size());
+      for (Integer value : view) {
+        bh.consume(value);
+      }
+    }
+  }
+
+  @Benchmark
+  public void fusedListMemoized(Blackhole bh) {
+    List<Integer> view = FusedList.from(numbers).filter(ACCEPT_EVEN).transform(POWER_OF_TWO).memoized();
+    for (int pass = 0; pass < passes; pass++) {
+      bh.consume(view.size());
+      for (Integer value : view) {
+        bh.consume(value);
+      }
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package com.niuge.learning;
+
+import com.google.common.base.Predicate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Predicate calls per second through {@link Instrumentation}: the predicate itself, the predicate
+ * wrapped while instrumentation is off (which must match it), and wrapped while on. Run with
+ * {@code -t} to see contention on the shared counters.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InstrumentationBenchmark {
+  static final int SIZE = 10000;
+
+  private List<Integer> numbers;
+  private Predicate<Integer> raw;
+  private Predicate<Integer> disabled;
+  private Predicate<Integer> enabled;
+
+  @Setup
+  public void setUp() {
+    numbers = BenchmarkData.randomIntegers(SIZE);
+    raw = new Predicate<Integer>() {
+      @Override
+      public boolean apply(Integer number) {
+        return (number % 2) == 0;
+      }
+    };
+    Instrumentation.setEnabled(false);
+    disabled = Instrumentation.predicate("benchmark.disabled", raw);
+    Instrumentation.setEnabled(true);
+    enabled = Instrumentation.predicate("benchmark.enabled", raw);
+  }
+
+  @TearDown
+  public void tearDown() {
+    Instrumentation.setEnabled(false);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public int raw() {
+    return count(raw);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public int disabled() {
+    return count(disabled);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public int enabled() {
+    return count(enabled);
+  }
+
+  private int count(Predicate<Integer> predicate) {
+    int count = 0;
+    for (Integer number : numbers) {
+      if (predicate.apply(number)) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
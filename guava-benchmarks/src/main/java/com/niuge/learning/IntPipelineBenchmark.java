@@ -0,0 +1,92 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Boxed FluentIterable filter/transform against {@link IntPipeline}. Compare gc.alloc.rate.norm
+ * divided by size: the boxed pipeline pays per element, IntPipeline only for the result array.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IntPipelineBenchmark {
+  @Param({"1000", "1000000", "10000000"})
+  public int size;
+
+  private List<Integer> boxed;
+  private int[] primitive;
+
+  @Setup
+  public void setUp() {
+    boxed = ImmutableList.copyOf(BenchmarkData.randomIntegers(size));
+    primitive = Ints.toArray(boxed);
+  }
+
+  @Benchmark
+  public long fluentIterableSum() {
+    long sum = 0;
+    for (Integer value : FluentIterable.from(boxed)
+        .filter(new Predicate<Integer>() {
+          @Override
+          public boolean apply(Integer number) {
+            return (number % 2) == 0;
+          }
+        })
+        .transform(new Function<Integer, Integer>() {
+          @Override
+          public Integer apply(Integer input) {
+            return input * input;
+          }
+        })) {
+      sum += value;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long intPipelineSum() {
+    return IntPipeline.from(primitive).filter(n -> n % 2 == 0).transform(n -> n * n).sum();
+  }
+
+  @Benchmark
+  public long intStreamSum() {
+    return IntStream.of(primitive).filter(n -> n % 2 == 0).map(n -> n * n).asLongStream().sum();
+  }
+
+  @Benchmark
+  public int[] intPipelineToArray() {
+    return IntPipeline.from(primitive).filter(n -> n % 2 == 0).transform(n -> n * n).toArray();
+  }
+
+  @Benchmark
+  public boolean intPipelineAllMatch() {
+    return IntPipeline.from(primitive).transform(n -> n * 2).allMatch(n -> n % 2 == 0);
+  }
+
+  @Benchmark
+  public long intPipelineFromBoxed() {
+    return IntPipeline.from(boxed).filter(n -> n % 2 == 0).transform(n -> n * n).sum();
+  }
+}
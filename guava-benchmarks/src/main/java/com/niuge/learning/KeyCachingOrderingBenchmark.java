@@ -0,0 +1,70 @@
+package com.niuge.learning;
+
+import com.google.common.base.Functions;
+import com.google.common.collect.Ordering;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ordering.onResultOf / usingToString, which recompute keys in every comparison, against
+ * {@link KeyCachingOrdering}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeyCachingOrderingBenchmark {
+  @Param({"1000", "100000", "1000000"})
+  public int size;
+
+  private List<Integer> numbers;
+
+  @Setup
+  public void setUp() {
+    numbers = BenchmarkData.randomIntegers(size);
+  }
+
+  @Benchmark
+  public List<Integer> usingToString() {
+    return Ordering.usingToString().sortedCopy(numbers);
+  }
+
+  @Benchmark
+  public List<Integer> onResultOfToString() {
+    return Ordering.natural().onResultOf(Functions.toStringFunction()).sortedCopy(numbers);
+  }
+
+  @Benchmark
+  public List<Integer> keyCachingUsingToString() {
+    return KeyCachingOrdering.usingToString().sortedCopy(numbers);
+  }
+
+  @Benchmark
+  public List<Integer> onResultOfIntKey() {
+    return Ordering.natural().onResultOf((Integer n) -> n % 1000).sortedCopy(numbers);
+  }
+
+  @Benchmark
+  public List<Integer> keyCachingIntKey() {
+    return KeyCachingOrdering.<Integer>onIntKey(n -> n % 1000).sortedCopy(numbers);
+  }
+
+  @Benchmark
+  public List<Integer> keyCachingDoubleKey() {
+    return KeyCachingOrdering.<Integer>onDoubleKey(n -> Math.sqrt(n)).sortedCopy(numbers);
+  }
+}
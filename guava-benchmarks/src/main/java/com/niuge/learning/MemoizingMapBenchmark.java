@@ -0,0 +1,91 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ContiguousSet;
+import com.google.common.collect.DiscreteDomain;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Range;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups per second in {@code Maps.asMap} against {@link MemoizingMap} for an expensive function
+ * and skewed keys: key {@code k} is drawn with probability roughly proportional to {@code 1/k}.
+ * Run with {@code -t} to add threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MemoizingMapBenchmark {
+  static final int PROBES = 1024;
+
+  @Param({"1000000"})
+  public int keys;
+
+  @Param({"1000", "100000"})
+  public long cacheSize;
+
+  // Blackhole.consumeCPU tokens per call of the function
+  @Param({"10000"})
+  public long cost;
+
+  private Map<Integer, Integer> asMap;
+  private MemoizingMap<Integer, Integer> memoizing;
+  private int[] probes;
+
+  @Setup
+  public void setUp() {
+    Set<Integer> keySet = ContiguousSet.create(Range.closedOpen(0, keys), DiscreteDomain.integers());
+    Function<Integer, Integer> expensive = new Function<Integer, Integer>() {
+      @Override
+      public Integer apply(Integer input) {
+        Blackhole.consumeCPU(cost);
+        return input * 31;
+      }
+    };
+    asMap = Maps.asMap(keySet, expensive);
+    memoizing = MemoizingMap.asMap(keySet, expensive, cacheSize);
+    Random random = new Random(BenchmarkData.SEED);
+    probes = new int[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      probes[i] = (int) Math.pow(keys, random.nextDouble()) - 1;
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PROBES)
+  public void mapsAsMap(Blackhole bh) {
+    get(asMap, bh);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PROBES)
+  public void memoizingMap(Blackhole bh) {
+    get(memoizing, bh);
+  }
+
+  private void get(Map<Integer, Integer> map, Blackhole bh) {
+    for (int probe : probes) {
+      bh.consume(map.get(probe));
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package com.niuge.learning;
+
+import com.google.common.collect.ImmutableMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ImmutableMap} against {@link OffHeapMap}: building a string-to-long table, and point
+ * lookups in it. The GC profiler's allocation and pause numbers are the interesting part.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OffHeapCollectionsBenchmark {
+  static final int PROBES = 1024;
+
+  @Param({"1000", "1000000", "10000000"})
+  public int size;
+
+  private String[] keys;
+  private ImmutableMap<String, Long> immutableMap;
+  private OffHeapMap<String, Long> offHeapMap;
+  private String[] probes;
+
+  @Setup
+  public void setUp() {
+    keys = new String[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = "key-" + i;
+    }
+    immutableMap = buildImmutableMap();
+    offHeapMap = buildOffHeapMap();
+    Random random = new Random(BenchmarkData.SEED);
+    probes = new String[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      probes[i] = keys[random.nextInt(size)];
+    }
+  }
+
+  @Benchmark
+  public ImmutableMap<String, Long> buildImmutableMap() {
+    ImmutableMap.Builder<String, Long> builder = ImmutableMap.builder();
+    for (int i = 0; i < keys.length; i++) {
+      builder.put(keys[i], (long) i);
+    }
+    return builder.build();
+  }
+
+  @Benchmark
+  public OffHeapMap<String, Long> buildOffHeapMap() {
+    OffHeapMap.Builder<String, Long> builder = OffHeapMap.builder(Codecs.utf8(), Codecs.int64());
+    for (int i = 0; i < keys.length; i++) {
+      builder.put(keys[i], (long) i);
+    }
+    return builder.build();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PROBES)
+  public void immutableMapGet(Blackhole bh) {
+    get(immutableMap, bh);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PROBES)
+  public void offHeapMapGet(Blackhole bh) {
+    get(offHeapMap, bh);
+  }
+
+  private void get(Map<String, Long> map, Blackhole bh) {
+    for (String probe : probes) {
+      bh.consume(map.get(probe));
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package com.niuge.learning;
+
+import com.google.common.collect.Ordering;
+import com.google.common.primitives.Ints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The idioms of TestGuavaOrdering next to their JDK 8 equivalents.
+ * In-place sorts work on a fresh copy each time; {@link #copyOnly()} is the cost of that copy.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderingBenchmark {
+  static class OrderingByLength extends Ordering<String> {
+    @Override
+    public int compare(String s1, String s2) {
+      return Ints.compare(s1.length(), s2.length());
+    }
+  }
+
+  @Param({"10", "1000", "100000", "10000000"})
+  public int size;
+
+  private List<Integer> numbers;
+  private List<Integer> numbersWithNulls;
+  private List<Integer> sortedNumbers;
+  private List<String> strings;
+  private List<String> stringsWithNulls;
+
+  @Setup
+  public void setUp() {
+    numbers = BenchmarkData.randomIntegers(size);
+    numbersWithNulls = BenchmarkData.randomIntegersWithNulls(size);
+    sortedNumbers = Ordering.natural().sortedCopy(numbers);
+    strings = BenchmarkData.randomStrings(size);
+    stringsWithNulls = BenchmarkData.randomStringsWithNulls(size);
+  }
+
+  @Benchmark
+  public List<Integer> copyOnly() {
+    return new ArrayList<Integer>(numbers);
+  }
+
+  // givenNatural_testSort_thenOk, givenReverse_testSort_thenOk
+
+  @Benchmark
+  public List<Integer> collectionsSortNatural() {
+    List<Integer> toSort = new ArrayList<Integer>(numbers);
+    Collections.sort(toSort, Ordering.natural());
+    return toSort;
+  }
+
+  @Benchmark
+  public List<Integer> listSortNaturalOrder() {
+    List<Integer> toSort = new ArrayList<Integer>(numbers);
+    toSort.sort(Comparator.naturalOrder());
+    return toSort;
+  }
+
+  @Benchmark
+  public List<Integer> collectionsSortReverse() {
+    List<Integer> toSort = new ArrayList<Integer>(numbers);
+    Collections.sort(toSort, Ordering.natural().reverse());
+    return toSort;
+  }
+
+  @Benchmark
+  public List<Integer> listSortReverseOrder() {
+    List<Integer> toSort = new ArrayList<Integer>(numbers);
+    toSort.sort(Comparator.reverseOrder());
+    return toSort;
+  }
+
+  // givenNullsFirst_testSort_thenOk, givenNullsLast_testSort_thenOk, givenNullsLastReverse_testSort_thenOk
+
+  @Benchmark
+  public List<Integer> collectionsSortNullsFirst() {
+    List<Integer> toSort = new ArrayList<Integer>(numbersWithNulls);
+    Collections.sort(toSort, Ordering.natural().nullsFirst());
+    return toSort;
+  }
+
+  @Benchmark
+  public List<Integer> listSortNullsFirst() {
+    List<Integer> toSort = new ArrayList<Integer>(numbersWithNulls);
+    toSort.sort(Comparator.nullsFirst(Comparator.<Integer>naturalOrder()));
+    return toSort;
+  }
+
+  @Benchmark
+  public List<Integer> collectionsSortNullsLastReverse() {
+    List<Integer> toSort = new ArrayList<Integer>(numbersWithNulls);
+    Collections.sort(toSort, Ordering.natural().nullsLast().reverse());
+    return toSort;
+  }
+
+  // givenSecondaryOrdering_testSort_thenOk, givenCompound_testSort_thenOk
+
+  @Benchmark
+  public List<String> collectionsSortCompound() {
+    List<String> toSort = new ArrayList<String>(strings);
+    Collections.sort(toSort, new OrderingByLength().compound(Ordering.natural()));
+    return toSort;
+  }
+
+  @Benchmark
+  public List<String> listSortThenComparing() {
+    List<String> toSort = new ArrayList<String>(strings);
+    toSort.sort(Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder()));
+    return toSort;
+  }
+
+  @Benchmark
+  public List<String> collectionsSortCompoundReverseNullsLast() {
+    List<String> toSort = new ArrayList<String>(stringsWithNulls);
+    Collections.sort(toSort, new OrderingByLength().reverse().compound(Ordering.natural()).nullsLast());
+    return toSort;
+  }
+
+  @Benchmark
+  public List<String> listSortReverseThenComparingNullsLast() {
+    List<String> toSort = new ArrayList<String>(stringsWithNulls);
+    toSort.sort(Comparator.nullsLast(Comparator.comparingInt(String::length).reversed()
+        .thenComparing(Comparator.naturalOrder())));
+    return toSort;
+  }
+
+  // givenSortedCopy_testSort_thenOk
+
+  @Benchmark
+  public List<String> orderingSortedCopy() {
+    return new OrderingByLength().sortedCopy(strings);
+  }
+
+  @Benchmark
+  public List<String> streamSorted() {
+    return strings.stream().sorted(Comparator.comparingInt(String::length)).collect(Collectors.toList());
+  }
+
+  // givenLeastOf_testSort_thenOk
+
+  @Benchmark
+  public List<Integer> orderingLeastOf() {
+    return Ordering.natural().leastOf(numbers, 3);
+  }
+
+  @Benchmark
+  public List<Integer> streamSortedLimit() {
+    return numbers.stream().sorted().limit(3).collect(Collectors.toList());
+  }
+
+  // givenUsingToString_testSort_thenOk, givenToStringFunction_testSort_thenOk
+
+  @Benchmark
+  public Integer orderingUsingToStringMin() {
+    return Ordering.usingToString().min(numbers);
+  }
+
+  @Benchmark
+  public List<Integer> orderingUsingToStringSortedCopy() {
+    return Ordering.usingToString().sortedCopy(numbers);
+  }
+
+  // givenBinarySearch_testSort_thenOk, givenNaturalAndInteger_testSort_thenOk
+
+  @Benchmark
+  public int orderingBinarySearch() {
+    return Collections.binarySearch(sortedNumbers, size / 2, Ordering.natural());
+  }
+
+  @Benchmark
+  public int collectionsBinarySearch() {
+    return Collections.binarySearch(sortedNumbers, size / 2);
+  }
+
+  @Benchmark
+  public boolean orderingIsOrdered() {
+    return Ordering.natural().isOrdered(sortedNumbers);
+  }
+
+  @Benchmark
+  public boolean orderingIsStrictlyOrdered() {
+    return Ordering.natural().isStrictlyOrdered(sortedNumbers);
+  }
+}
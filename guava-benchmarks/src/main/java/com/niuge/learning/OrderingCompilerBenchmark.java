@@ -0,0 +1,123 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Ordering;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multi-key sorts with the wrapped Guava ordering chain against the same chain flattened by
+ * {@link OrderingCompiler}. Keys have few distinct values so most comparisons reach the deeper
+ * levels.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderingCompilerBenchmark {
+  static final class Row {
+    final int region;
+    final int category;
+    final String owner;
+    final long score;
+    final String name;
+    final Integer rank;
+
+    Row(int region, int category, String owner, long score, String name, Integer rank) {
+      this.region = region;
+      this.category = category;
+      this.owner = owner;
+      this.score = score;
+      this.name = name;
+      this.rank = rank;
+    }
+  }
+
+  static final Ordering<Row> FOUR_LEVELS = Ordering.natural().onResultOf(new Function<Row, Integer>() {
+    @Override
+    public Integer apply(Row row) {
+      return row.region;
+    }
+  }).compound(Ordering.natural().reverse().onResultOf(new Function<Row, Integer>() {
+    @Override
+    public Integer apply(Row row) {
+      return row.category;
+    }
+  })).compound(Ordering.natural().nullsLast().onResultOf(new Function<Row, String>() {
+    @Override
+    public String apply(Row row) {
+      return row.owner;
+    }
+  })).compound(Ordering.natural().onResultOf(new Function<Row, Long>() {
+    @Override
+    public Long apply(Row row) {
+      return row.score;
+    }
+  }));
+
+  static final Ordering<Row> SIX_LEVELS = FOUR_LEVELS.compound(Ordering.natural().onResultOf(new Function<Row, String>() {
+    @Override
+    public String apply(Row row) {
+      return row.name;
+    }
+  })).compound(Ordering.natural().nullsFirst().onResultOf(new Function<Row, Integer>() {
+    @Override
+    public Integer apply(Row row) {
+      return row.rank;
+    }
+  }).reverse()).nullsLast();
+
+  @Param({"1000", "100000", "1000000"})
+  public int size;
+
+  @Param({"4", "6"})
+  public int levels;
+
+  private List<Row> rows;
+  private Ordering<Row> wrapped;
+  private Ordering<Row> compiled;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(BenchmarkData.SEED);
+    rows = new ArrayList<Row>(size);
+    for (int i = 0; i < size; i++) {
+      rows.add(new Row(random.nextInt(4), random.nextInt(4),
+          random.nextInt(8) == 0 ? null : "owner" + random.nextInt(4), random.nextInt(4),
+          "name" + random.nextInt(100), random.nextInt(8) == 0 ? null : random.nextInt(size)));
+    }
+    wrapped = levels == 4 ? FOUR_LEVELS : SIX_LEVELS;
+    compiled = OrderingCompiler.compile(wrapped);
+  }
+
+  @Benchmark
+  public List<Row> wrapped() {
+    List<Row> toSort = new ArrayList<Row>(rows);
+    Collections.sort(toSort, wrapped);
+    return toSort;
+  }
+
+  @Benchmark
+  public List<Row> compiled() {
+    List<Row> toSort = new ArrayList<Row>(rows);
+    Collections.sort(toSort, compiled);
+    return toSort;
+  }
+}
@@ -0,0 +1,81 @@
+package com.niuge.learning;
+
+import com.google.common.collect.Ordering;
+import com.google.common.primitives.Ints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OrderingSorter} against the single-threaded Collections.sort / Ordering.leastOf on a
+ * compound, null-aware ordering.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderingSorterBenchmark {
+  static final Ordering<String> ORDERING = new Ordering<String>() {
+    @Override
+    public int compare(String s1, String s2) {
+      return Ints.compare(s1.length(), s2.length());
+    }
+  }.reverse().compound(Ordering.natural()).nullsLast();
+
+  @Param({"100000", "1000000", "10000000"})
+  public int size;
+
+  @Param({"10", "1000"})
+  public int k;
+
+  private List<String> strings;
+
+  @Setup
+  public void setUp() {
+    strings = BenchmarkData.randomStringsWithNulls(size);
+  }
+
+  @Benchmark
+  public List<String> collectionsSort() {
+    List<String> toSort = new ArrayList<String>(strings);
+    Collections.sort(toSort, ORDERING);
+    return toSort;
+  }
+
+  @Benchmark
+  public List<String> parallelSort() {
+    List<String> toSort = new ArrayList<String>(strings);
+    OrderingSorter.parallelSort(toSort, ORDERING);
+    return toSort;
+  }
+
+  @Benchmark
+  public List<String> orderingLeastOf() {
+    return ORDERING.leastOf(strings, k);
+  }
+
+  @Benchmark
+  public List<String> parallelLeastOf() {
+    return OrderingSorter.parallelLeastOf(strings, k, ORDERING);
+  }
+
+  @Benchmark
+  public List<String> streamingLeastOf() {
+    return OrderingSorter.leastOf(strings.iterator(), k, ORDERING);
+  }
+}
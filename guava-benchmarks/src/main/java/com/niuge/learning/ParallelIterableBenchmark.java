@@ -0,0 +1,80 @@
+package com.niuge.learning;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of {@link ParallelIterable} with the pool size, for a predicate that costs more than
+ * the iteration around it. Compare each {@code threads} value with {@link #sequential()}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelIterableBenchmark {
+  // a few hundred nanoseconds per element, like a rule evaluated against a record
+  static final Predicate<Integer> EXPENSIVE = new Predicate<Integer>() {
+    @Override
+    public boolean apply(Integer number) {
+      int x = number;
+      for (int i = 0; i < 64; i++) {
+        x = x * 1103515245 + 12345;
+      }
+      return (x & 1) == 0;
+    }
+  };
+
+  @Param({"1000000", "5000000"})
+  public int size;
+
+  @Param({"1", "2", "4", "8", "16", "32"})
+  public int threads;
+
+  private List<Integer> numbers;
+  private ForkJoinPool pool;
+
+  @Setup
+  public void setUp() {
+    numbers = ImmutableList.copyOf(BenchmarkData.randomIntegers(size));
+    pool = new ForkJoinPool(threads);
+  }
+
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public ImmutableList<Integer> sequential() {
+    return FluentIterable.from(numbers).filter(EXPENSIVE).toList();
+  }
+
+  @Benchmark
+  public ImmutableList<Integer> parallelFilter() {
+    return ParallelIterable.from(numbers).withPool(pool).filter(EXPENSIVE).toList();
+  }
+
+  @Benchmark
+  public boolean parallelAllMatch() {
+    return ParallelIterable.from(numbers).withPool(pool).allMatch(n -> EXPENSIVE.apply(n) || !EXPENSIVE.apply(n));
+  }
+}
@@ -0,0 +1,81 @@
+package com.niuge.learning;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups per second of present string keys in a static dictionary: {@link ImmutableMap} against
+ * {@link PerfectHashMap}. The large size doesn't fit in cache, where the probe chains and entry
+ * objects of {@code ImmutableMap} cost the most.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PerfectHashMapBenchmark {
+  static final int PROBES = 1024;
+
+  @Param({"1000", "1000000"})
+  public int size;
+
+  private Map<String, Integer> immutableMap;
+  private Map<String, Integer> perfectHashMap;
+  private String[] probes;
+
+  @Setup
+  public void setUp() {
+    List<String> keys = BenchmarkData.randomStrings(size);
+    ImmutableMap.Builder<String, Integer> builder = ImmutableMap.builder();
+    for (String key : ImmutableSet.copyOf(keys)) {
+      builder.put(key, key.length());
+    }
+    ImmutableMap<String, Integer> dictionary = builder.build();
+    immutableMap = dictionary;
+    perfectHashMap = PerfectHashMap.copyOf(dictionary);
+    List<String> distinct = dictionary.keySet().asList();
+    Random random = new Random(BenchmarkData.SEED);
+    probes = new String[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      // copies, so equals can't short-circuit on identity
+      probes[i] = new String(distinct.get(random.nextInt(distinct.size())));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PROBES)
+  public void immutableMap(Blackhole bh) {
+    get(immutableMap, bh);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PROBES)
+  public void perfectHashMap(Blackhole bh) {
+    get(perfectHashMap, bh);
+  }
+
+  private void get(Map<String, Integer> map, Blackhole bh) {
+    for (String probe : probes) {
+      bh.consume(map.get(probe));
+    }
+  }
+}
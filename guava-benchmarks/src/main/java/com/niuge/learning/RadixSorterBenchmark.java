@@ -0,0 +1,73 @@
+package com.niuge.learning;
+
+import com.google.common.collect.Ordering;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RadixSorter} against Collections.sort on the null-aware natural orderings of
+ * TestGuavaOrdering, for integer IDs and short strings.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RadixSorterBenchmark {
+  static final Ordering<Comparable<?>> ORDERING = Ordering.natural().reverse().nullsLast();
+
+  @Param({"100000", "1000000", "10000000"})
+  public int size;
+
+  private List<Integer> integers;
+  private List<String> strings;
+
+  @Setup
+  public void setUp() {
+    integers = BenchmarkData.randomIntegersWithNulls(size);
+    strings = BenchmarkData.randomStringsWithNulls(size);
+  }
+
+  @Benchmark
+  public List<Integer> collectionsSortIntegers() {
+    List<Integer> toSort = new ArrayList<Integer>(integers);
+    Collections.sort(toSort, ORDERING);
+    return toSort;
+  }
+
+  @Benchmark
+  public List<Integer> radixSortIntegers() {
+    List<Integer> toSort = new ArrayList<Integer>(integers);
+    RadixSorter.sort(toSort, ORDERING);
+    return toSort;
+  }
+
+  @Benchmark
+  public List<String> collectionsSortStrings() {
+    List<String> toSort = new ArrayList<String>(strings);
+    Collections.sort(toSort, ORDERING);
+    return toSort;
+  }
+
+  @Benchmark
+  public List<String> radixSortStrings() {
+    List<String> toSort = new ArrayList<String>(strings);
+    RadixSorter.sort(toSort, ORDERING);
+    return toSort;
+  }
+}
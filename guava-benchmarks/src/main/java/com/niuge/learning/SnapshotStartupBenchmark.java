@@ -0,0 +1,78 @@
+package com.niuge.learning;
+
+import com.google.common.collect.ImmutableMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from nothing to a first successful lookup: rebuilding an {@link ImmutableMap} from source
+ * data against opening an {@link OffHeapSnapshot}. Setup writes the snapshot to the temp
+ * directory; at 100M entries that takes several gigabytes of disk, and the rebuild needs a large
+ * heap, e.g. {@code -jvmArgs -Xmx24g}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnapshotStartupBenchmark {
+  @Param({"1000000", "100000000"})
+  public int size;
+
+  private Path file;
+
+  @Setup
+  public void setUp() throws IOException {
+    file = Files.createTempFile("startup", ".snapshot");
+    OffHeapMap.Builder<String, Long> builder = OffHeapMap.builder(Codecs.utf8(), Codecs.int64());
+    for (int i = 0; i < size; i++) {
+      builder.put(key(i), (long) i);
+    }
+    OffHeapSnapshot.write(builder.build(), file);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.delete(file);
+  }
+
+  // Stands in for reading the source data.
+  private static String key(int i) {
+    return "key-" + i;
+  }
+
+  @Benchmark
+  public Long rebuildImmutableMap() {
+    ImmutableMap.Builder<String, Long> builder = ImmutableMap.builder();
+    for (int i = 0; i < size; i++) {
+      builder.put(key(i), (long) i);
+    }
+    return lookup(builder.build());
+  }
+
+  @Benchmark
+  public Long openSnapshot() throws IOException {
+    return lookup(OffHeapSnapshot.openMap(file, Codecs.utf8(), Codecs.int64()));
+  }
+
+  private Long lookup(Map<String, Long> map) {
+    return map.get(key(size / 2));
+  }
+}
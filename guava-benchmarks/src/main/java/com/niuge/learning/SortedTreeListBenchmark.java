@@ -0,0 +1,60 @@
+package com.niuge.learning;
+
+import com.google.common.collect.Ordering;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A leaderboard update: replace one random score and read the top 10, by re-sorting an
+ * {@code ArrayList} after the change against a {@link SortedTreeList} kept sorted.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SortedTreeListBenchmark {
+  @Param({"10000", "1000000"})
+  public int size;
+
+  private final Ordering<Integer> byScoreDescending = Ordering.<Integer>natural().reverse();
+  private final Random random = new Random(BenchmarkData.SEED);
+  private List<Integer> resorted;
+  private SortedTreeList<Integer> tree;
+
+  @Setup
+  public void setUp() {
+    List<Integer> scores = BenchmarkData.randomIntegers(size);
+    resorted = byScoreDescending.sortedCopy(scores);
+    tree = SortedTreeList.copyOf(scores, byScoreDescending);
+  }
+
+  @Benchmark
+  public List<Integer> resort() {
+    resorted.set(random.nextInt(size), random.nextInt());
+    Collections.sort(resorted, byScoreDescending);
+    return resorted.subList(0, 10);
+  }
+
+  @Benchmark
+  public List<Integer> sortedTreeList() {
+    tree.remove(random.nextInt(size));
+    tree.add(random.nextInt());
+    return tree.leastOf(10);
+  }
+}
@@ -0,0 +1,107 @@
+package com.niuge.learning;
+
+import com.google.common.collect.Ordering;
+import com.google.common.primitives.Ints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point lookups per second: Collections.binarySearch with and without an Ordering,
+ * {@link SortedView}, {@link SortedIntView}'s Eytzinger search and its batched merge pass.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SortedViewBenchmark {
+  static final int PROBES = 1024;
+
+  @Param({"1000", "1000000", "10000000"})
+  public int size;
+
+  private List<Integer> sorted;
+  private int[] sortedInts;
+  private SortedView<Integer> view;
+  private SortedIntView intView;
+  private int[] probes;
+  private List<Integer> boxedProbes;
+
+  @Setup
+  public void setUp() {
+    sorted = Ordering.natural().sortedCopy(BenchmarkData.randomIntegers(size));
+    sortedInts = Ints.toArray(sorted);
+    view = SortedView.of(sorted, Ordering.natural());
+    intView = SortedIntView.of(sortedInts);
+    Random random = new Random(BenchmarkData.SEED);
+    probes = new int[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      probes[i] = random.nextInt(size);
+    }
+    boxedProbes = Ints.asList(probes);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PROBES)
+  public void collectionsBinarySearch(Blackhole bh) {
+    for (Integer probe : boxedProbes) {
+      bh.consume(Collections.binarySearch(sorted, probe));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PROBES)
+  public void orderingBinarySearch(Blackhole bh) {
+    for (Integer probe : boxedProbes) {
+      bh.consume(Collections.binarySearch(sorted, probe, Ordering.natural()));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PROBES)
+  public void sortedViewFloor(Blackhole bh) {
+    for (Integer probe : boxedProbes) {
+      bh.consume(view.floorIndex(probe));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PROBES)
+  public void arraysBinarySearch(Blackhole bh) {
+    for (int probe : probes) {
+      bh.consume(Arrays.binarySearch(sortedInts, probe));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PROBES)
+  public void eytzingerFloor(Blackhole bh) {
+    for (int probe : probes) {
+      bh.consume(intView.floorIndex(probe));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PROBES)
+  public int[] batchedFloor() {
+    return intView.floorIndexes(probes);
+  }
+}
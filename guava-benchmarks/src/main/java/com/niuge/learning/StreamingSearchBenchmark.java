@@ -0,0 +1,79 @@
+package com.niuge.learning;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.Iterables;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code Iterables.any} over a log file: loading it with {@code Files.readAllLines} first, against
+ * {@link StreamingSearch}. The matching line sits at {@code matchPercent} of the file; 100 means
+ * there is none and the whole file is read either way.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StreamingSearchBenchmark {
+  static final String MATCH = "ERROR something broke";
+
+  @Param({"1000000"})
+  public int lines;
+
+  @Param({"1", "50", "100"})
+  public int matchPercent;
+
+  private Path file;
+  private final Predicate<String> isError = new Predicate<String>() {
+    @Override
+    public boolean apply(String input) {
+      return input.startsWith("ERROR");
+    }
+  };
+
+  @Setup
+  public void setUp() throws IOException {
+    file = Files.createTempFile("search", ".log");
+    long matchAt = (long) lines * matchPercent / 100;
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      for (int i = 0; i < lines; i++) {
+        writer.write(i == matchAt ? MATCH : "INFO request " + i + " served");
+        writer.newLine();
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.delete(file);
+  }
+
+  @Benchmark
+  public boolean readAllLinesThenAny() throws IOException {
+    return Iterables.any(Files.readAllLines(file, StandardCharsets.UTF_8), isError);
+  }
+
+  @Benchmark
+  public boolean streamingAny() {
+    return StreamingSearch.lines(file).any(isError);
+  }
+}
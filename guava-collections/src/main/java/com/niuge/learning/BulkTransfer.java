@@ -0,0 +1,107 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Bulk versions of {@code Iterables.addAll} for merging many batches. Collection sources are
+ * sized up front and copied with {@code toArray}/{@code System.arraycopy} instead of element by
+ * element, and a merge of several batches grows its target once instead of once per doubling.
+ *
+ * <pre>
+ *   // Iterables.addAll(collector, batch) for each batch, without the repeated regrowth
+ *   ArrayList&lt;String&gt; merged = BulkTransfer.concat(batches);
+ * </pre>
+ *
+ * <p>For the consumer side of a queue see {@link DrainBuffer}.
+ */
+public final class BulkTransfer {
+  private BulkTransfer() {
+  }
+
+  /**
+   * Like {@code Iterables.addAll}, but an {@link ArrayList} target is grown once to fit a
+   * collection source.
+   */
+  public static <T> boolean addAll(Collection<T> target, Iterable<? extends T> source) {
+    Preconditions.checkNotNull(target);
+    if (source instanceof Collection) {
+      Collection<? extends T> collection = (Collection<? extends T>) source;
+      ensureRoom(target, collection.size());
+      return target.addAll(collection);
+    }
+    return Iterators.addAll(target, source.iterator());
+  }
+
+  @SafeVarargs
+  public static <T> boolean addAll(Collection<T> target, T... elements) {
+    Preconditions.checkNotNull(target);
+    ensureRoom(target, elements.length);
+    return target.addAll(Arrays.asList(elements));
+  }
+
+  /**
+   * All elements of {@code batches}, in order, in a list allocated at exactly the total size.
+   */
+  public static <T> ArrayList<T> concat(Iterable<? extends Collection<? extends T>> batches) {
+    ArrayList<T> result = new ArrayList<T>(totalSize(batches));
+    for (Collection<? extends T> batch : batches) {
+      result.addAll(batch);
+    }
+    return result;
+  }
+
+  /**
+   * Appends all elements of {@code batches} to {@code target}, growing it at most once.
+   */
+  public static <T> void concatInto(ArrayList<T> target, Iterable<? extends Collection<? extends T>> batches) {
+    target.ensureCapacity(target.size() + totalSize(batches));
+    for (Collection<? extends T> batch : batches) {
+      target.addAll(batch);
+    }
+  }
+
+  /**
+   * Copies {@code source} into {@code target} starting at {@code offset}, without the temporary
+   * array of {@code toArray}. Random-access lists are read by index, others iterated.
+   *
+   * @return the offset after the last copied element
+   * @throws IndexOutOfBoundsException if {@code target} has no room for them
+   */
+  public static int copyInto(Collection<?> source, Object[] target, int offset) {
+    int size = source.size();
+    Preconditions.checkPositionIndexes(offset, offset + size, target.length);
+    if (source instanceof List && source instanceof RandomAccess) {
+      List<?> list = (List<?>) source;
+      for (int i = 0; i < size; i++) {
+        target[offset + i] = list.get(i);
+      }
+      return offset + size;
+    }
+    for (Object element : source) {
+      target[offset++] = element;
+    }
+    return offset;
+  }
+
+  private static int totalSize(Iterable<? extends Collection<?>> batches) {
+    long total = 0;
+    for (Collection<?> batch : batches) {
+      total += batch.size();
+    }
+    Preconditions.checkArgument(total <= Integer.MAX_VALUE, "too many elements: %s", total);
+    return (int) total;
+  }
+
+  private static void ensureRoom(Collection<?> target, int additional) {
+    if (target instanceof ArrayList) {
+      ((ArrayList<?>) target).ensureCapacity(target.size() + additional);
+    }
+  }
+}
@@ -0,0 +1,204 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Retyping collections without {@code Lists.transform(list, castFunction)}, which pays a function
+ * call on every access only to change the static type, and without the unchecked
+ * {@code (List<Integer>) (List<?>) list} double cast, which checks nothing.
+ *
+ * <pre>
+ *   List&lt;Integer&gt; numbers = CastViews.checkedCast(deserialized, Integer.class);
+ * </pre>
+ *
+ * <ul>
+ *   <li>{@code checkedCast} checks every element once, then returns the same instance under the
+ *   new type, so later reads cost nothing extra. Later writes through the original reference are
+ *   not checked.
+ *   <li>{@link #lazyCast} checks each element when it is read, and fails on the first bad one;
+ *   for lists too large to scan up front, or only partly read.
+ *   <li>{@link #castStream} does the same for a stream.
+ * </ul>
+ *
+ * <p>Nulls pass every check, as they do for a cast.
+ */
+public final class CastViews {
+  private CastViews() {
+  }
+
+  /**
+   * @throws ClassCastException naming the first element that is not a {@code type}
+   */
+  public static <T> List<T> checkedCast(List<?> list, Class<T> type) {
+    checkElements(list, type);
+    @SuppressWarnings("unchecked")
+    List<T> cast = (List<T>) list;
+    return cast;
+  }
+
+  /**
+   * @throws ClassCastException naming the first element that is not a {@code type}
+   */
+  public static <T> Set<T> checkedCast(Set<?> set, Class<T> type) {
+    checkElements(set, type);
+    @SuppressWarnings("unchecked")
+    Set<T> cast = (Set<T>) set;
+    return cast;
+  }
+
+  /**
+   * @throws ClassCastException naming the first element that is not a {@code type}
+   */
+  public static <T> Collection<T> checkedCast(Collection<?> collection, Class<T> type) {
+    checkElements(collection, type);
+    @SuppressWarnings("unchecked")
+    Collection<T> cast = (Collection<T>) collection;
+    return cast;
+  }
+
+  /**
+   * A read-only view of {@code list} that checks each element as it is read.
+   */
+  public static <T> List<T> lazyCast(List<?> list, Class<T> type) {
+    Preconditions.checkNotNull(list);
+    Preconditions.checkNotNull(type);
+    return list instanceof RandomAccess
+        ? new RandomAccessLazyCastList<T>(list, type)
+        : new LazyCastList<T>(list, type);
+  }
+
+  /**
+   * {@code stream} retyped, with each element checked as it passes.
+   */
+  public static <T> Stream<T> castStream(Stream<?> stream, final Class<T> type) {
+    Preconditions.checkNotNull(type);
+    @SuppressWarnings("unchecked")
+    Stream<T> cast = (Stream<T>) stream.peek(element -> check(element, type, -1));
+    return cast;
+  }
+
+  private static void checkElements(Collection<?> elements, Class<?> type) {
+    Preconditions.checkNotNull(type);
+    if (type == Object.class) {
+      return;
+    }
+    if (elements instanceof List && elements instanceof RandomAccess) {
+      List<?> list = (List<?>) elements;
+      for (int i = 0, size = list.size(); i < size; i++) {
+        check(list.get(i), type, i);
+      }
+      return;
+    }
+    int index = 0;
+    for (Object element : elements) {
+      check(element, type, index++);
+    }
+  }
+
+  private static void check(Object element, Class<?> type, int index) {
+    if (element != null && !type.isInstance(element)) {
+      throw new ClassCastException((index >= 0 ? "element " + index + " is a " : "")
+          + element.getClass().getName() + (index >= 0 ? ", not a " : " is not a ") + type.getName());
+    }
+  }
+
+  private static class LazyCastList<T> extends AbstractList<T> {
+    private final List<?> list;
+    private final Class<T> type;
+
+    LazyCastList(List<?> list, Class<T> type) {
+      this.list = list;
+      this.type = type;
+    }
+
+    @Override
+    public T get(int index) {
+      Object element = list.get(index);
+      check(element, type, index);
+      return type.cast(element);
+    }
+
+    @Override
+    public int size() {
+      return list.size();
+    }
+
+    // AbstractList's iterators call get(i), which is O(i) on a LinkedList
+    @Override
+    public Iterator<T> iterator() {
+      return listIterator();
+    }
+
+    @Override
+    public ListIterator<T> listIterator(int index) {
+      final ListIterator<?> it = list.listIterator(index);
+      return new ListIterator<T>() {
+        @Override
+        public boolean hasNext() {
+          return it.hasNext();
+        }
+
+        @Override
+        public T next() {
+          int index = it.nextIndex();
+          Object element = it.next();
+          check(element, type, index);
+          return type.cast(element);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+          return it.hasPrevious();
+        }
+
+        @Override
+        public T previous() {
+          int index = it.previousIndex();
+          Object element = it.previous();
+          check(element, type, index);
+          return type.cast(element);
+        }
+
+        @Override
+        public int nextIndex() {
+          return it.nextIndex();
+        }
+
+        @Override
+        public int previousIndex() {
+          return it.previousIndex();
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void set(T element) {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add(T element) {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+  }
+
+  private static final class RandomAccessLazyCastList<T> extends LazyCastList<T> implements RandomAccess {
+    RandomAccessLazyCastList(List<?> list, Class<T> type) {
+      super(list, type);
+    }
+  }
+}
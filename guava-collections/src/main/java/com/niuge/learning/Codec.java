@@ -0,0 +1,26 @@
+package com.niuge.learning;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Turns values into bytes and back, for collections that keep their contents outside the Java
+ * heap. Equal values must encode to equal bytes, since off-heap maps compare keys by their
+ * encoding. See {@link Codecs} for the common ones.
+ */
+public interface Codec<T> {
+  /**
+   * Number of bytes {@link #encode} writes for {@code value}.
+   */
+  int encodedSize(T value);
+
+  /**
+   * Writes {@code value} at the position of {@code target}, advancing it by
+   * {@link #encodedSize} bytes.
+   */
+  void encode(T value, ByteBuffer target);
+
+  /**
+   * Reads a value from {@code source}, whose remaining bytes are exactly one encoded value.
+   */
+  T decode(ByteBuffer source);
+}
@@ -0,0 +1,89 @@
+package com.niuge.learning;
+
+import com.google.common.base.Utf8;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link Codec}s for strings and boxed integers.
+ */
+public final class Codecs {
+  private Codecs() {
+  }
+
+  public static Codec<String> utf8() {
+    return Utf8Codec.INSTANCE;
+  }
+
+  public static Codec<Integer> int32() {
+    return Int32Codec.INSTANCE;
+  }
+
+  public static Codec<Long> int64() {
+    return Int64Codec.INSTANCE;
+  }
+
+  private enum Utf8Codec implements Codec<String> {
+    INSTANCE;
+
+    @Override
+    public int encodedSize(String value) {
+      return Utf8.encodedLength(value);
+    }
+
+    @Override
+    public void encode(String value, ByteBuffer target) {
+      target.put(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String decode(ByteBuffer source) {
+      if (source.hasArray()) {
+        return new String(source.array(), source.arrayOffset() + source.position(), source.remaining(),
+            StandardCharsets.UTF_8);
+      }
+      byte[] bytes = new byte[source.remaining()];
+      source.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  }
+
+  private enum Int32Codec implements Codec<Integer> {
+    INSTANCE;
+
+    @Override
+    public int encodedSize(Integer value) {
+      return 4;
+    }
+
+    @Override
+    public void encode(Integer value, ByteBuffer target) {
+      target.putInt(value);
+    }
+
+    @Override
+    public Integer decode(ByteBuffer source) {
+      return source.getInt(source.position());
+    }
+  }
+
+  private enum Int64Codec implements Codec<Long> {
+    INSTANCE;
+
+    @Override
+    public int encodedSize(Long value) {
+      return 8;
+    }
+
+    @Override
+    public void encode(Long value, ByteBuffer target) {
+      target.putLong(value);
+    }
+
+    @Override
+    public Long decode(ByteBuffer source) {
+      return source.getLong(source.position());
+    }
+  }
+}
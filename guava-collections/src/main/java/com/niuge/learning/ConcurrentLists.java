@@ -0,0 +1,58 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+
+import java.util.Collection;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Thread-safe counterparts of {@code Lists.newArrayList()}, for lists that are shared between
+ * threads instead of wrapped in {@code Collections.synchronizedList}.
+ *
+ * <ul>
+ *   <li>{@link #newStripedArrayList} for lists that are written often: lock-free reads, striped
+ *   element writes, appends under one tail lock.
+ *   <li>{@link #newCopyOnWriteArrayList} for lists that are almost never written: every read and
+ *   iteration works on an immutable snapshot, and every write copies the array.
+ * </ul>
+ */
+public final class ConcurrentLists {
+  static final int DEFAULT_STRIPES = 16;
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private ConcurrentLists() {
+  }
+
+  public static <E> StripedArrayList<E> newStripedArrayList() {
+    return new StripedArrayList<E>(DEFAULT_STRIPES, DEFAULT_CAPACITY);
+  }
+
+  public static <E> StripedArrayList<E> newStripedArrayList(Iterable<? extends E> elements) {
+    StripedArrayList<E> list = newStripedArrayList();
+    Iterables.addAll(list, elements);
+    return list;
+  }
+
+  /**
+   * @param stripes how many independent locks {@code set} is spread over; more allow more
+   *                concurrent writers, at the cost of slower appends that grow the array
+   */
+  public static <E> StripedArrayList<E> newStripedArrayListWithCapacity(int initialCapacity, int stripes) {
+    Preconditions.checkArgument(initialCapacity >= 0, "negative initialCapacity: %s", initialCapacity);
+    Preconditions.checkArgument(stripes > 0, "stripes must be positive: %s", stripes);
+    return new StripedArrayList<E>(stripes, initialCapacity);
+  }
+
+  public static <E> CopyOnWriteArrayList<E> newCopyOnWriteArrayList() {
+    return new CopyOnWriteArrayList<E>();
+  }
+
+  public static <E> CopyOnWriteArrayList<E> newCopyOnWriteArrayList(Iterable<? extends E> elements) {
+    Collection<? extends E> collection = elements instanceof Collection
+        ? (Collection<? extends E>) elements
+        : Lists.newArrayList(elements);
+    return new CopyOnWriteArrayList<E>(collection);
+  }
+}
@@ -0,0 +1,32 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe counterparts of {@code Maps.newHashMap()}, backed by {@link ConcurrentHashMap}: reads
+ * don't lock and writes lock only the hash bin they touch.
+ */
+public final class ConcurrentMaps {
+  private ConcurrentMaps() {
+  }
+
+  public static <K, V> ConcurrentHashMap<K, V> newConcurrentHashMap() {
+    return new ConcurrentHashMap<K, V>();
+  }
+
+  public static <K, V> ConcurrentHashMap<K, V> newConcurrentHashMap(Map<? extends K, ? extends V> map) {
+    return new ConcurrentHashMap<K, V>(map);
+  }
+
+  /**
+   * @param concurrencyLevel how many threads are expected to write at once; a sizing hint
+   */
+  public static <K, V> ConcurrentHashMap<K, V> newConcurrentHashMapWithExpectedSize(int expectedSize,
+                                                                                    int concurrencyLevel) {
+    Preconditions.checkArgument(expectedSize >= 0, "negative expectedSize: %s", expectedSize);
+    return new ConcurrentHashMap<K, V>(expectedSize, 0.75f, concurrencyLevel);
+  }
+}
@@ -0,0 +1,36 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe counterparts of {@code Sets.newHashSet()}. They are key sets of a
+ * {@link ConcurrentHashMap}, whose reads don't lock and whose writes lock only the hash bin they
+ * touch, which is finer than any fixed number of stripes.
+ */
+public final class ConcurrentSets {
+  private ConcurrentSets() {
+  }
+
+  public static <E> Set<E> newConcurrentHashSet() {
+    return Collections.newSetFromMap(new ConcurrentHashMap<E, Boolean>());
+  }
+
+  public static <E> Set<E> newConcurrentHashSet(Iterable<? extends E> elements) {
+    Set<E> set = newConcurrentHashSet();
+    Iterables.addAll(set, elements);
+    return set;
+  }
+
+  /**
+   * @param concurrencyLevel how many threads are expected to write at once; a sizing hint
+   */
+  public static <E> Set<E> newConcurrentHashSetWithExpectedSize(int expectedSize, int concurrencyLevel) {
+    Preconditions.checkArgument(expectedSize >= 0, "negative expectedSize: %s", expectedSize);
+    return Collections.newSetFromMap(new ConcurrentHashMap<E, Boolean>(expectedSize, 0.75f, concurrencyLevel));
+  }
+}
@@ -0,0 +1,108 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Queues;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.RandomAccess;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A fixed-capacity batch that a consumer drains a queue into over and over, reusing one array
+ * instead of allocating a list per batch. Between drains it reads as a list of the current batch.
+ *
+ * <pre>
+ *   DrainBuffer&lt;Event&gt; batch = new DrainBuffer&lt;Event&gt;(512);
+ *   while (running) {
+ *     if (batch.drainFrom(queue, 10, TimeUnit.MILLISECONDS) &gt; 0) {
+ *       process(batch);
+ *     }
+ *   }
+ * </pre>
+ *
+ * <p>Each drain replaces the previous batch. Not thread-safe: one consumer per buffer.
+ */
+public final class DrainBuffer<E> extends AbstractList<E> implements RandomAccess {
+  private final Object[] elements;
+  private int size;
+
+  public DrainBuffer(int capacity) {
+    Preconditions.checkArgument(capacity > 0, "capacity must be positive: %s", capacity);
+    this.elements = new Object[capacity];
+  }
+
+  public int capacity() {
+    return elements.length;
+  }
+
+  /**
+   * Replaces the batch with whatever {@code queue} holds right now, up to the capacity.
+   *
+   * @return the batch size
+   */
+  public int drainFrom(BlockingQueue<? extends E> queue) {
+    clear();
+    return queue.drainTo(this, elements.length);
+  }
+
+  /**
+   * Replaces the batch with up to a capacity's worth of elements, waiting up to {@code timeout}
+   * for them to arrive, like {@link Queues#drain}.
+   *
+   * @return the batch size
+   */
+  public int drainFrom(BlockingQueue<E> queue, long timeout, TimeUnit unit) throws InterruptedException {
+    clear();
+    return Queues.drain(queue, this, elements.length, timeout, unit);
+  }
+
+  /**
+   * Replaces the batch by polling a non-blocking queue until it is empty or the batch is full.
+   *
+   * @return the batch size
+   */
+  public int drainFrom(Queue<? extends E> queue) {
+    clear();
+    E element;
+    while (size < elements.length && (element = queue.poll()) != null) {
+      elements[size++] = element;
+    }
+    return size;
+  }
+
+  /**
+   * Used by the queues while draining.
+   *
+   * @throws IllegalStateException if the buffer is full
+   */
+  @Override
+  public boolean add(E element) {
+    Preconditions.checkState(size < elements.length, "buffer is full");
+    elements[size++] = element;
+    return true;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E get(int index) {
+    Preconditions.checkElementIndex(index, size);
+    return (E) elements[index];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Empties the batch, dropping references to its elements.
+   */
+  @Override
+  public void clear() {
+    Arrays.fill(elements, 0, size, null);
+    size = 0;
+  }
+}
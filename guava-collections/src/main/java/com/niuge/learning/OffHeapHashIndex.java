@@ -0,0 +1,115 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+import com.google.common.math.IntMath;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Open-addressing hash index from encoded keys to ordinals, for {@link OffHeapMap} and
+ * {@link OffHeapSet}. Each slot is a long holding the key's hash in the high 32 bits and
+ * {@code ordinal + 1} in the low 32, so most probes are settled without touching the key bytes;
+ * zero marks an empty slot. Probing is linear and the table is at most half full.
+ */
+final class OffHeapHashIndex {
+  static final int MAX_ENTRIES = 1 << 29;
+
+  private final OffHeapLongArray table;
+  private final int mask;
+  private final OffHeapStore store;
+  private final OffHeapLongArray keys;
+
+  private OffHeapHashIndex(OffHeapLongArray table, OffHeapStore store, OffHeapLongArray keys) {
+    this.table = table;
+    this.mask = table.length() - 1;
+    this.store = store;
+    this.keys = keys;
+  }
+
+  /**
+   * An empty index over {@code keys}, the store addresses of the key records by ordinal. Fill it
+   * with {@link #insert}.
+   */
+  static OffHeapHashIndex create(OffHeapStore store, OffHeapLongArray keys, OffHeapStore.Allocator allocator) {
+    Preconditions.checkArgument(keys.length() <= MAX_ENTRIES, "too many entries: %s", keys.length());
+    int capacity = IntMath.ceilingPowerOfTwo(Math.max(2, keys.length() * 2));
+    return new OffHeapHashIndex(OffHeapLongArray.allocate(capacity, allocator), store, keys);
+  }
+
+  /**
+   * Reopens an index whose table was written by another process.
+   */
+  static OffHeapHashIndex wrap(OffHeapLongArray table, OffHeapStore store, OffHeapLongArray keys) {
+    Preconditions.checkArgument(Integer.bitCount(table.length()) == 1, "table length %s is not a power of two",
+        table.length());
+    return new OffHeapHashIndex(table, store, keys);
+  }
+
+  OffHeapLongArray table() {
+    return table;
+  }
+
+  /**
+   * Adds the key with the given ordinal.
+   *
+   * @return -1, or the ordinal of an equal key already in the index, in which case nothing is added
+   */
+  int insert(int ordinal) {
+    ByteBuffer key = store.record(keys.get(ordinal));
+    int hash = OffHeapStore.hash(key);
+    for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+      long entry = table.get(slot);
+      if (entry == 0) {
+        table.set(slot, (long) hash << 32 | (ordinal + 1));
+        return -1;
+      }
+      int other = matching(entry, hash, key);
+      if (other >= 0) {
+        return other;
+      }
+    }
+  }
+
+  /**
+   * The ordinal of the key whose encoding is the remaining bytes of {@code key}, or -1.
+   */
+  int find(ByteBuffer key) {
+    int hash = OffHeapStore.hash(key);
+    for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+      long entry = table.get(slot);
+      if (entry == 0) {
+        return -1;
+      }
+      int ordinal = matching(entry, hash, key);
+      if (ordinal >= 0) {
+        return ordinal;
+      }
+    }
+  }
+
+  /**
+   * The ordinal of {@code key}, or -1 if it is absent, null, or not something the codec can encode.
+   */
+  <K> int find(Object key, Codec<K> codec) {
+    if (key == null) {
+      return -1;
+    }
+    ByteBuffer encoded;
+    try {
+      @SuppressWarnings("unchecked")
+      K k = (K) key;
+      encoded = OffHeapStore.encodeOnHeap(k, codec);
+    } catch (ClassCastException e) {
+      return -1;
+    }
+    return find(encoded);
+  }
+
+  private int matching(long entry, int hash, ByteBuffer key) {
+    if ((int) (entry >>> 32) != hash) {
+      return -1;
+    }
+    int ordinal = (int) entry - 1;
+    return store.recordEquals(keys.get(ordinal), key) ? ordinal : -1;
+  }
+}
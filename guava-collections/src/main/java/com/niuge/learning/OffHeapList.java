@@ -0,0 +1,117 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list whose elements live outside the Java heap, encoded by a {@link Codec}. The
+ * heap holds only a few buffer handles whatever the size, so a multi-gigabyte table adds nothing
+ * to garbage collection pauses. Elements are decoded on every {@link #get}, which makes this a
+ * good fit for large, rarely-touched data and a poor one for hot loops.
+ *
+ * <pre>
+ *   OffHeapList&lt;String&gt; names = OffHeapList.builder(Codecs.utf8())
+ *       .add("a")
+ *       .addAll(moreNames)
+ *       .build();
+ * </pre>
+ *
+ * <p>Null elements are not allowed. The memory is released when the list is garbage collected.
+ */
+public final class OffHeapList<E> extends AbstractList<E> implements RandomAccess {
+  private final Codec<E> codec;
+  private final OffHeapStore store;
+  private final OffHeapLongArray addresses;
+
+  OffHeapList(Codec<E> codec, OffHeapStore store, OffHeapLongArray addresses) {
+    this.codec = codec;
+    this.store = store;
+    this.addresses = addresses;
+  }
+
+  public static <E> OffHeapList<E> copyOf(Iterable<? extends E> elements, Codec<E> codec) {
+    return builder(codec).addAll(elements).build();
+  }
+
+  /**
+   * A builder that stores elements in direct memory.
+   */
+  public static <E> Builder<E> builder(Codec<E> codec) {
+    return new Builder<E>(codec, OffHeapStore.directAllocator());
+  }
+
+  /**
+   * A builder that stores elements in {@code file}, mapped into memory, so the operating system
+   * can page them out. The file is overwritten, and must outlive the lists built from it.
+   */
+  public static <E> Builder<E> builder(Codec<E> codec, Path file) {
+    return new Builder<E>(codec, OffHeapStore.mappedAllocator(file));
+  }
+
+  @Override
+  public E get(int index) {
+    Preconditions.checkElementIndex(index, addresses.length());
+    return codec.decode(store.record(addresses.get(index)));
+  }
+
+  @Override
+  public int size() {
+    return addresses.length();
+  }
+
+  public static final class Builder<E> {
+    private final Codec<E> codec;
+    private final OffHeapStore.Allocator allocator;
+    private final OffHeapStore store;
+    private int size;
+
+    Builder(Codec<E> codec, OffHeapStore.Allocator allocator) {
+      this.codec = Preconditions.checkNotNull(codec);
+      this.allocator = allocator;
+      this.store = new OffHeapStore(allocator);
+    }
+
+    public Builder<E> add(E element) {
+      Preconditions.checkNotNull(element);
+      store.append(element, codec);
+      size++;
+      return this;
+    }
+
+    @SafeVarargs
+    public final Builder<E> add(E... elements) {
+      for (E element : elements) {
+        add(element);
+      }
+      return this;
+    }
+
+    public Builder<E> addAll(Iterable<? extends E> elements) {
+      return addAll(elements.iterator());
+    }
+
+    public Builder<E> addAll(Iterator<? extends E> elements) {
+      while (elements.hasNext()) {
+        add(elements.next());
+      }
+      return this;
+    }
+
+    /**
+     * A list of the elements added so far. The builder can keep being used afterwards.
+     */
+    public OffHeapList<E> build() {
+      OffHeapStore snapshot = store.snapshot();
+      OffHeapLongArray addresses = OffHeapLongArray.allocate(size, allocator);
+      long address = snapshot.first();
+      for (int i = 0; i < size; i++, address = snapshot.next(address)) {
+        addresses.set(i, address);
+      }
+      return new OffHeapList<E>(codec, snapshot, addresses);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fixed-length {@code long[]} kept outside the Java heap, split into 1 GB segments so it can
+ * outgrow the 2 GB limit of a single {@link ByteBuffer}. New arrays are zero-filled.
+ */
+final class OffHeapLongArray {
+  private static final int SEGMENT_SHIFT = 27;
+  private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+  private final ByteBuffer[] segments;
+  private final int length;
+
+  private OffHeapLongArray(ByteBuffer[] segments, int length) {
+    this.segments = segments;
+    this.length = length;
+  }
+
+  static OffHeapLongArray allocate(int length, OffHeapStore.Allocator allocator) {
+    Preconditions.checkArgument(length >= 0, "negative length: %s", length);
+    int count = (int) (((long) length + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+    ByteBuffer[] segments = new ByteBuffer[count];
+    for (int i = 0; i < count; i++) {
+      int longs = Math.min(length - (i << SEGMENT_SHIFT), 1 << SEGMENT_SHIFT);
+      segments[i] = allocator.allocate(longs * 8);
+    }
+    return new OffHeapLongArray(segments, length);
+  }
+
+  /**
+   * Wraps segments laid out by {@link #segments()}, read-only.
+   */
+  static OffHeapLongArray readOnly(List<ByteBuffer> segments, int length) {
+    ByteBuffer[] readOnly = new ByteBuffer[segments.size()];
+    for (int i = 0; i < readOnly.length; i++) {
+      readOnly[i] = segments.get(i).asReadOnlyBuffer();
+    }
+    return new OffHeapLongArray(readOnly, length);
+  }
+
+  int length() {
+    return length;
+  }
+
+  long get(int index) {
+    return segments[index >>> SEGMENT_SHIFT].getLong((index & SEGMENT_MASK) << 3);
+  }
+
+  void set(int index, long value) {
+    segments[index >>> SEGMENT_SHIFT].putLong((index & SEGMENT_MASK) << 3, value);
+  }
+
+  List<ByteBuffer> segments() {
+    List<ByteBuffer> result = new ArrayList<ByteBuffer>(segments.length);
+    for (ByteBuffer segment : segments) {
+      result.add(segment.duplicate());
+    }
+    return result;
+  }
+}
@@ -0,0 +1,193 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable map whose entries live outside the Java heap, encoded by a key and a value
+ * {@link Codec}. Lookups hash the encoded key into an off-heap open-addressing index and compare
+ * key bytes, so nothing is decoded except the value that is found. Iteration follows insertion
+ * order, like {@link com.google.common.collect.ImmutableMap}.
+ *
+ * <pre>
+ *   OffHeapMap&lt;String, Long&gt; ids = OffHeapMap.builder(Codecs.utf8(), Codecs.int64())
+ *       .put("a", 1L)
+ *       .putAll(moreIds)
+ *       .build();
+ * </pre>
+ *
+ * <p>Null keys and values are not allowed, and duplicate keys are rejected by {@link Builder#build}.
+ */
+public final class OffHeapMap<K, V> extends AbstractMap<K, V> {
+  private final Codec<K> keyCodec;
+  private final Codec<V> valueCodec;
+  private final OffHeapStore store;
+  // Address of each entry's key record; its value record follows it.
+  private final OffHeapLongArray entries;
+  private final OffHeapHashIndex index;
+
+  OffHeapMap(Codec<K> keyCodec, Codec<V> valueCodec, OffHeapStore store, OffHeapLongArray entries,
+             OffHeapHashIndex index) {
+    this.keyCodec = keyCodec;
+    this.valueCodec = valueCodec;
+    this.store = store;
+    this.entries = entries;
+    this.index = index;
+  }
+
+  public static <K, V> OffHeapMap<K, V> copyOf(Map<? extends K, ? extends V> map, Codec<K> keyCodec,
+                                               Codec<V> valueCodec) {
+    return builder(keyCodec, valueCodec).putAll(map).build();
+  }
+
+  /**
+   * A builder that stores entries in direct memory.
+   */
+  public static <K, V> Builder<K, V> builder(Codec<K> keyCodec, Codec<V> valueCodec) {
+    return new Builder<K, V>(keyCodec, valueCodec, OffHeapStore.directAllocator());
+  }
+
+  /**
+   * A builder that stores entries and the hash index in {@code file}, mapped into memory. The file
+   * is overwritten, and must outlive the maps built from it.
+   */
+  public static <K, V> Builder<K, V> builder(Codec<K> keyCodec, Codec<V> valueCodec, Path file) {
+    return new Builder<K, V>(keyCodec, valueCodec, OffHeapStore.mappedAllocator(file));
+  }
+
+  @Override
+  public V get(Object key) {
+    int ordinal = find(key);
+    return ordinal < 0 ? null : value(ordinal);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return find(key) >= 0;
+  }
+
+  @Override
+  public int size() {
+    return entries.length();
+  }
+
+  private int find(Object key) {
+    return index.find(key, keyCodec);
+  }
+
+  OffHeapStore store() {
+    return store;
+  }
+
+  OffHeapLongArray entries() {
+    return entries;
+  }
+
+  OffHeapHashIndex index() {
+    return index;
+  }
+
+  private K key(int ordinal) {
+    return keyCodec.decode(store.record(entries.get(ordinal)));
+  }
+
+  private V value(int ordinal) {
+    return valueCodec.decode(store.record(store.next(entries.get(ordinal))));
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new AbstractSet<Entry<K, V>>() {
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        return new Iterator<Entry<K, V>>() {
+          private int next;
+
+          @Override
+          public boolean hasNext() {
+            return next < entries.length();
+          }
+
+          @Override
+          public Entry<K, V> next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            int ordinal = next++;
+            return Maps.immutableEntry(key(ordinal), value(ordinal));
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return entries.length();
+      }
+    };
+  }
+
+  public static final class Builder<K, V> {
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final OffHeapStore.Allocator allocator;
+    private final OffHeapStore store;
+    private int size;
+
+    Builder(Codec<K> keyCodec, Codec<V> valueCodec, OffHeapStore.Allocator allocator) {
+      this.keyCodec = Preconditions.checkNotNull(keyCodec);
+      this.valueCodec = Preconditions.checkNotNull(valueCodec);
+      this.allocator = allocator;
+      this.store = new OffHeapStore(allocator);
+    }
+
+    public Builder<K, V> put(K key, V value) {
+      Preconditions.checkNotNull(key);
+      Preconditions.checkNotNull(value);
+      Preconditions.checkState(size < OffHeapHashIndex.MAX_ENTRIES, "too many entries");
+      store.append(key, keyCodec, value, valueCodec);
+      size++;
+      return this;
+    }
+
+    public Builder<K, V> put(Entry<? extends K, ? extends V> entry) {
+      return put(entry.getKey(), entry.getValue());
+    }
+
+    public Builder<K, V> putAll(Map<? extends K, ? extends V> map) {
+      for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
+        put(entry);
+      }
+      return this;
+    }
+
+    /**
+     * A map of the entries put so far. The builder can keep being used afterwards.
+     *
+     * @throws IllegalArgumentException if two keys are equal
+     */
+    public OffHeapMap<K, V> build() {
+      OffHeapStore snapshot = store.snapshot();
+      OffHeapLongArray entries = OffHeapLongArray.allocate(size, allocator);
+      long address = snapshot.first();
+      for (int i = 0; i < size; i++, address = snapshot.next(snapshot.next(address))) {
+        entries.set(i, address);
+      }
+      OffHeapHashIndex index = OffHeapHashIndex.create(snapshot, entries, allocator);
+      for (int i = 0; i < size; i++) {
+        if (index.insert(i) >= 0) {
+          throw new IllegalArgumentException("Multiple entries with same key: "
+              + keyCodec.decode(snapshot.record(entries.get(i))));
+        }
+      }
+      return new OffHeapMap<K, V>(keyCodec, valueCodec, snapshot, entries, index);
+    }
+  }
+}
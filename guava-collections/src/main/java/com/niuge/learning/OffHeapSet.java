@@ -0,0 +1,147 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.file.Path;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable set whose elements live outside the Java heap, encoded by a {@link Codec}; the set
+ * counterpart of {@link OffHeapMap}. Iteration follows insertion order, and the builder ignores
+ * duplicates, like {@link com.google.common.collect.ImmutableSet.Builder}.
+ *
+ * <p>Null elements are not allowed.
+ */
+public final class OffHeapSet<E> extends AbstractSet<E> {
+  private final Codec<E> codec;
+  private final OffHeapStore store;
+  // Address of each element's record; may be longer than size.
+  private final OffHeapLongArray elements;
+  private final int size;
+  private final OffHeapHashIndex index;
+
+  OffHeapSet(Codec<E> codec, OffHeapStore store, OffHeapLongArray elements, int size, OffHeapHashIndex index) {
+    this.codec = codec;
+    this.store = store;
+    this.elements = elements;
+    this.size = size;
+    this.index = index;
+  }
+
+  public static <E> OffHeapSet<E> copyOf(Iterable<? extends E> elements, Codec<E> codec) {
+    return builder(codec).addAll(elements).build();
+  }
+
+  /**
+   * A builder that stores elements in direct memory.
+   */
+  public static <E> Builder<E> builder(Codec<E> codec) {
+    return new Builder<E>(codec, OffHeapStore.directAllocator());
+  }
+
+  /**
+   * A builder that stores elements and the hash index in {@code file}, mapped into memory. The
+   * file is overwritten, and must outlive the sets built from it.
+   */
+  public static <E> Builder<E> builder(Codec<E> codec, Path file) {
+    return new Builder<E>(codec, OffHeapStore.mappedAllocator(file));
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return index.find(o, codec) >= 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new Iterator<E>() {
+      private int next;
+
+      @Override
+      public boolean hasNext() {
+        return next < size;
+      }
+
+      @Override
+      public E next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return codec.decode(store.record(elements.get(next++)));
+      }
+    };
+  }
+
+  OffHeapStore store() {
+    return store;
+  }
+
+  OffHeapLongArray elements() {
+    return elements;
+  }
+
+  OffHeapHashIndex index() {
+    return index;
+  }
+
+  public static final class Builder<E> {
+    private final Codec<E> codec;
+    private final OffHeapStore.Allocator allocator;
+    private final OffHeapStore store;
+    private int added;
+
+    Builder(Codec<E> codec, OffHeapStore.Allocator allocator) {
+      this.codec = Preconditions.checkNotNull(codec);
+      this.allocator = allocator;
+      this.store = new OffHeapStore(allocator);
+    }
+
+    public Builder<E> add(E element) {
+      Preconditions.checkNotNull(element);
+      Preconditions.checkState(added < OffHeapHashIndex.MAX_ENTRIES, "too many elements");
+      store.append(element, codec);
+      added++;
+      return this;
+    }
+
+    @SafeVarargs
+    public final Builder<E> add(E... elements) {
+      for (E element : elements) {
+        add(element);
+      }
+      return this;
+    }
+
+    public Builder<E> addAll(Iterable<? extends E> elements) {
+      for (E element : elements) {
+        add(element);
+      }
+      return this;
+    }
+
+    /**
+     * A set of the distinct elements added so far. The builder can keep being used afterwards.
+     */
+    public OffHeapSet<E> build() {
+      OffHeapStore snapshot = store.snapshot();
+      OffHeapLongArray elements = OffHeapLongArray.allocate(added, allocator);
+      OffHeapHashIndex index = OffHeapHashIndex.create(snapshot, elements, allocator);
+      int size = 0;
+      long address = snapshot.first();
+      for (int i = 0; i < added; i++, address = snapshot.next(address)) {
+        elements.set(size, address);
+        if (index.insert(size) < 0) {
+          size++;
+        }
+      }
+      return new OffHeapSet<E>(codec, snapshot, elements, size, index);
+    }
+  }
+}
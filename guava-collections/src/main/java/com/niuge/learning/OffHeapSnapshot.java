@@ -0,0 +1,286 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Writes an {@link OffHeapMap} or {@link OffHeapSet} to a file once, and reopens it later with
+ * {@link FileChannel#map}, so a process gets its lookup table back in milliseconds instead of
+ * rebuilding it. Nothing is deserialized on open: the records, the entry addresses and the hash
+ * index are used in place, and the operating system pages them in as lookups touch them.
+ *
+ * <pre>
+ *   OffHeapSnapshot.write(OffHeapMap.copyOf(source, Codecs.utf8(), Codecs.int64()), path);
+ *   ...
+ *   Map&lt;String, Long&gt; ids = OffHeapSnapshot.openMap(path, Codecs.utf8(), Codecs.int64());
+ * </pre>
+ *
+ * <p>The file starts with a header naming the format version, the collection kind and every
+ * section's offset, length and CRC32. Opening checks the header's own checksum and the file
+ * length, so a truncated or foreign file is rejected at once; {@link #verify} also checks the
+ * section checksums, which means reading the whole file. The codecs are not recorded, and must be
+ * the ones the snapshot was written with.
+ */
+public final class OffHeapSnapshot {
+  static final long MAGIC = 0x4e474f4646485031L; // "NGOFFHP1"
+  static final int VERSION = 1;
+  static final int MAP = 1;
+  static final int SET = 2;
+  private static final int FIXED_HEADER_BYTES = 48;
+  private static final int SECTION_BYTES = 24;
+
+  private OffHeapSnapshot() {
+  }
+
+  public static void write(OffHeapMap<?, ?> map, Path file) throws IOException {
+    write(file, MAP, map.size(), map.store(), map.entries(), map.index().table());
+  }
+
+  public static void write(OffHeapSet<?> set, Path file) throws IOException {
+    write(file, SET, set.size(), set.store(), set.elements(), set.index().table());
+  }
+
+  /**
+   * @throws IOException if the file is truncated, corrupt, of another version, or not a map
+   */
+  public static <K, V> OffHeapMap<K, V> openMap(Path file, Codec<K> keyCodec, Codec<V> valueCodec)
+      throws IOException {
+    Preconditions.checkNotNull(keyCodec);
+    Preconditions.checkNotNull(valueCodec);
+    Contents contents = open(file, MAP);
+    return new OffHeapMap<K, V>(keyCodec, valueCodec, contents.store, contents.entries, contents.index);
+  }
+
+  /**
+   * @throws IOException if the file is truncated, corrupt, of another version, or not a set
+   */
+  public static <E> OffHeapSet<E> openSet(Path file, Codec<E> codec) throws IOException {
+    Preconditions.checkNotNull(codec);
+    Contents contents = open(file, SET);
+    return new OffHeapSet<E>(codec, contents.store, contents.entries, contents.size, contents.index);
+  }
+
+  /**
+   * Checks the header and the checksum of every section.
+   *
+   * @throws IOException describing the first problem found
+   */
+  public static void verify(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      Header header = readHeader(channel, file);
+      for (int i = 0; i < header.sections.size(); i++) {
+        Section section = header.sections.get(i);
+        if (crc(map(channel, section)) != section.crc) {
+          throw new IOException(file + ": checksum mismatch in section " + i);
+        }
+      }
+    }
+  }
+
+  private static void write(Path file, int kind, int size, OffHeapStore store, OffHeapLongArray entries,
+                            OffHeapLongArray table) throws IOException {
+    List<ByteBuffer> storeSegments = store.segments();
+    List<ByteBuffer> entrySegments = entries.segments();
+    List<ByteBuffer> tableSegments = table.segments();
+    List<ByteBuffer> data = new ArrayList<ByteBuffer>();
+    data.addAll(storeSegments);
+    data.addAll(entrySegments);
+    data.addAll(tableSegments);
+
+    int headerBytes = FIXED_HEADER_BYTES + data.size() * SECTION_BYTES;
+    ByteBuffer header = ByteBuffer.allocate(headerBytes);
+    header.position(FIXED_HEADER_BYTES);
+    long offset = align(headerBytes);
+    for (ByteBuffer section : data) {
+      header.putLong(offset).putLong(section.remaining()).putInt(crc(section)).putInt(0);
+      offset = align(offset + section.remaining());
+    }
+    header.putLong(0, MAGIC)
+        .putInt(8, VERSION)
+        .putInt(12, kind)
+        .putInt(16, size)
+        .putInt(20, storeSegments.size())
+        .putInt(24, entrySegments.size())
+        .putInt(28, tableSegments.size())
+        .putInt(32, table.length())
+        .putLong(36, offset);
+    header.putInt(44, headerCrc(header));
+    header.clear();
+
+    // Written beside the target and moved over it, so readers never see half a snapshot.
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      writeFully(channel, header, 0);
+      long position = align(headerBytes);
+      for (ByteBuffer section : data) {
+        writeFully(channel, section.duplicate(), position);
+        position = align(position + section.remaining());
+      }
+      if (channel.size() < offset) {
+        writeFully(channel, ByteBuffer.allocate((int) (offset - channel.size())), channel.size());
+      }
+      channel.force(true);
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer bytes, long position) throws IOException {
+    while (bytes.hasRemaining()) {
+      position += channel.write(bytes, position);
+    }
+  }
+
+  private static long align(long offset) {
+    return (offset + 7) & ~7L;
+  }
+
+  private static int crc(ByteBuffer bytes) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes.duplicate());
+    return (int) crc.getValue();
+  }
+
+  /**
+   * CRC32 of the whole header except the checksum field itself.
+   */
+  private static int headerCrc(ByteBuffer header) {
+    ByteBuffer bytes = header.duplicate();
+    bytes.clear();
+    CRC32 crc = new CRC32();
+    bytes.limit(44);
+    crc.update(bytes);
+    bytes.limit(header.capacity()).position(FIXED_HEADER_BYTES);
+    crc.update(bytes);
+    return (int) crc.getValue();
+  }
+
+  private static Contents open(Path file, int kind) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      Header header = readHeader(channel, file);
+      if (header.kind != kind) {
+        throw new IOException(file + ": snapshot holds a " + (header.kind == MAP ? "map" : "set"));
+      }
+      List<ByteBuffer> sections = new ArrayList<ByteBuffer>(header.sections.size());
+      for (Section section : header.sections) {
+        sections.add(map(channel, section));
+      }
+      // A mapping stays valid after its channel is closed.
+      int storeEnd = header.storeSections;
+      int entriesEnd = storeEnd + header.entrySections;
+      OffHeapStore store = OffHeapStore.readOnly(sections.subList(0, storeEnd));
+      OffHeapLongArray entries = OffHeapLongArray.readOnly(sections.subList(storeEnd, entriesEnd), header.size);
+      OffHeapLongArray table = OffHeapLongArray.readOnly(sections.subList(entriesEnd, sections.size()),
+          header.tableLength);
+      return new Contents(header.size, store, entries, OffHeapHashIndex.wrap(table, store, entries));
+    }
+  }
+
+  private static ByteBuffer map(FileChannel channel, Section section) throws IOException {
+    return channel.map(FileChannel.MapMode.READ_ONLY, section.offset, section.length);
+  }
+
+  private static Header readHeader(FileChannel channel, Path file) throws IOException {
+    long fileLength = channel.size();
+    if (fileLength < FIXED_HEADER_BYTES) {
+      throw new IOException(file + ": truncated snapshot, " + fileLength + " bytes");
+    }
+    ByteBuffer fixed = read(channel, 0, FIXED_HEADER_BYTES);
+    if (fixed.getLong(0) != MAGIC) {
+      throw new IOException(file + ": not a snapshot");
+    }
+    if (fixed.getInt(8) != VERSION) {
+      throw new IOException(file + ": unsupported snapshot version " + fixed.getInt(8));
+    }
+    int storeSections = fixed.getInt(20);
+    int entrySections = fixed.getInt(24);
+    int tableSections = fixed.getInt(28);
+    long sectionCount = (long) storeSections + entrySections + tableSections;
+    long headerBytes = FIXED_HEADER_BYTES + sectionCount * SECTION_BYTES;
+    if (storeSections < 0 || entrySections < 0 || tableSections < 0 || headerBytes > fileLength) {
+      throw new IOException(file + ": truncated or corrupt snapshot header");
+    }
+    ByteBuffer header = read(channel, 0, (int) headerBytes);
+    if (headerCrc(header) != header.getInt(44)) {
+      throw new IOException(file + ": snapshot header checksum mismatch");
+    }
+    long expectedLength = header.getLong(36);
+    if (fileLength != expectedLength) {
+      throw new IOException(file + ": snapshot is " + fileLength + " bytes, expected " + expectedLength
+          + (fileLength < expectedLength ? " (truncated)" : ""));
+    }
+    List<Section> sections = new ArrayList<Section>((int) sectionCount);
+    header.position(FIXED_HEADER_BYTES);
+    for (int i = 0; i < sectionCount; i++) {
+      sections.add(new Section(header.getLong(), header.getLong(), header.getInt()));
+      header.getInt();
+    }
+    return new Header(header.getInt(12), header.getInt(16), storeSections, entrySections, header.getInt(32),
+        sections);
+  }
+
+  private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+    ByteBuffer bytes = ByteBuffer.allocate(length);
+    while (bytes.hasRemaining()) {
+      if (channel.read(bytes, position + bytes.position()) < 0) {
+        throw new IOException("unexpected end of file");
+      }
+    }
+    bytes.flip();
+    return bytes;
+  }
+
+  private static final class Section {
+    final long offset;
+    final long length;
+    final int crc;
+
+    Section(long offset, long length, int crc) {
+      this.offset = offset;
+      this.length = length;
+      this.crc = crc;
+    }
+  }
+
+  private static final class Header {
+    final int kind;
+    final int size;
+    final int storeSections;
+    final int entrySections;
+    final int tableLength;
+    final List<Section> sections;
+
+    Header(int kind, int size, int storeSections, int entrySections, int tableLength, List<Section> sections) {
+      this.kind = kind;
+      this.size = size;
+      this.storeSections = storeSections;
+      this.entrySections = entrySections;
+      this.tableLength = tableLength;
+      this.sections = sections;
+    }
+  }
+
+  private static final class Contents {
+    final int size;
+    final OffHeapStore store;
+    final OffHeapLongArray entries;
+    final OffHeapHashIndex index;
+
+    Contents(int size, OffHeapStore store, OffHeapLongArray entries, OffHeapHashIndex index) {
+      this.size = size;
+      this.store = store;
+      this.entries = entries;
+      this.index = index;
+    }
+  }
+}
@@ -0,0 +1,274 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Append-only record storage outside the Java heap. Each record is an int length followed by the
+ * encoded bytes, and is addressed by a long: segment number in the high 32 bits, offset of the
+ * length in the low 32 bits. Segments grow geometrically and are never copied, so an address stays
+ * valid for the life of the store.
+ *
+ * <p>{@link #snapshot} returns a read-only store over what has been written so far; the builders
+ * hand that to the collections they build and keep appending to this one.
+ */
+final class OffHeapStore {
+  static final int MIN_SEGMENT_SIZE = 1 << 16;
+  static final int MAX_SEGMENT_SIZE = 1 << 30;
+  private static final int LENGTH_BYTES = 4;
+
+  /**
+   * Source of segment memory.
+   */
+  interface Allocator {
+    ByteBuffer allocate(int capacity);
+  }
+
+  static Allocator directAllocator() {
+    return new Allocator() {
+      @Override
+      public ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity);
+      }
+    };
+  }
+
+  /**
+   * Maps each new segment onto the end of {@code file}, which is created or truncated on first use.
+   * The pages are then backed by the file rather than by swap; deleting it is up to the caller.
+   */
+  static Allocator mappedAllocator(final Path file) {
+    Preconditions.checkNotNull(file);
+    return new Allocator() {
+      private long end;
+
+      @Override
+      public ByteBuffer allocate(int capacity) {
+        Set<StandardOpenOption> options = EnumSet.of(
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (end == 0) {
+          options.add(StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        try (FileChannel channel = FileChannel.open(file, options)) {
+          MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, end, capacity);
+          end += capacity;
+          return segment;
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    };
+  }
+
+  private final Allocator allocator;
+  private final List<ByteBuffer> segments;
+  // Write position in the last segment; unused once the store is read-only.
+  private int position;
+
+  OffHeapStore(Allocator allocator) {
+    this(Preconditions.checkNotNull(allocator), new ArrayList<ByteBuffer>());
+  }
+
+  private OffHeapStore(Allocator allocator, List<ByteBuffer> segments) {
+    this.allocator = allocator;
+    this.segments = segments;
+  }
+
+  /**
+   * Wraps segments that were written elsewhere; each one's limit is the end of its last record.
+   */
+  static OffHeapStore readOnly(List<ByteBuffer> segments) {
+    List<ByteBuffer> readOnly = new ArrayList<ByteBuffer>(segments.size());
+    for (ByteBuffer segment : segments) {
+      readOnly.add(segment.asReadOnlyBuffer());
+    }
+    return new OffHeapStore(null, readOnly);
+  }
+
+  <T> long append(T value, Codec<T> codec) {
+    int size = codec.encodedSize(value);
+    ByteBuffer target = reserve(LENGTH_BYTES + size);
+    long address = address(segments.size() - 1, target.position());
+    target.putInt(size);
+    encode(value, codec, size, target);
+    position = target.position();
+    return address;
+  }
+
+  /**
+   * Appends two records that are guaranteed to sit next to each other, so the second one's
+   * address is {@code next(address)}.
+   */
+  <K, V> long append(K key, Codec<K> keyCodec, V value, Codec<V> valueCodec) {
+    int keySize = keyCodec.encodedSize(key);
+    int valueSize = valueCodec.encodedSize(value);
+    ByteBuffer target = reserve(2 * LENGTH_BYTES + keySize + valueSize);
+    long address = address(segments.size() - 1, target.position());
+    target.putInt(keySize);
+    encode(key, keyCodec, keySize, target);
+    target.putInt(valueSize);
+    encode(value, valueCodec, valueSize, target);
+    position = target.position();
+    return address;
+  }
+
+  private static <T> void encode(T value, Codec<T> codec, int size, ByteBuffer target) {
+    int start = target.position();
+    codec.encode(value, target);
+    if (target.position() - start != size) {
+      throw new IllegalStateException(codec + " wrote " + (target.position() - start)
+          + " bytes but promised " + size);
+    }
+  }
+
+  private ByteBuffer reserve(int bytes) {
+    Preconditions.checkState(allocator != null, "store is read-only");
+    if (segments.isEmpty() || segments.get(segments.size() - 1).capacity() - position < bytes) {
+      int last = 0;
+      if (!segments.isEmpty()) {
+        // Retired segments keep their written length as their limit.
+        ByteBuffer retired = segments.get(segments.size() - 1);
+        retired.limit(position);
+        last = retired.capacity();
+      }
+      int capacity = Math.max(Math.min(Math.max(MIN_SEGMENT_SIZE, last * 2), MAX_SEGMENT_SIZE), bytes);
+      segments.add(allocator.allocate(capacity));
+      position = 0;
+    }
+    ByteBuffer target = segments.get(segments.size() - 1).duplicate();
+    target.position(position);
+    return target;
+  }
+
+  /**
+   * A read-only store over every record appended so far. Later appends don't show through.
+   */
+  OffHeapStore snapshot() {
+    List<ByteBuffer> written = new ArrayList<ByteBuffer>(segments.size());
+    for (int i = 0; i < segments.size(); i++) {
+      ByteBuffer segment = segments.get(i).duplicate();
+      if (allocator != null && i == segments.size() - 1) {
+        segment.limit(position);
+      }
+      written.add(segment);
+    }
+    return readOnly(written);
+  }
+
+  /**
+   * The segments of a read-only store, limited to their written bytes.
+   */
+  List<ByteBuffer> segments() {
+    List<ByteBuffer> result = new ArrayList<ByteBuffer>(segments.size());
+    for (ByteBuffer segment : segments) {
+      result.add(segment.duplicate());
+    }
+    return result;
+  }
+
+  /**
+   * The encoded bytes of the record at {@code address}, from position to limit.
+   */
+  ByteBuffer record(long address) {
+    ByteBuffer record = segments.get(segment(address)).duplicate();
+    int offset = offset(address) + LENGTH_BYTES;
+    record.limit(offset + record.getInt(offset - LENGTH_BYTES)).position(offset);
+    return record;
+  }
+
+  boolean recordEquals(long address, ByteBuffer bytes) {
+    ByteBuffer segment = segments.get(segment(address));
+    int offset = offset(address);
+    if (segment.getInt(offset) != bytes.remaining()) {
+      return false;
+    }
+    return record(address).equals(bytes);
+  }
+
+  /**
+   * Encodes {@code value} into a heap buffer, for comparing against stored records.
+   */
+  static <T> ByteBuffer encodeOnHeap(T value, Codec<T> codec) {
+    int size = codec.encodedSize(value);
+    ByteBuffer bytes = ByteBuffer.allocate(size);
+    encode(value, codec, size, bytes);
+    bytes.flip();
+    return bytes;
+  }
+
+  /**
+   * Address of the first record, or -1 if the store is empty.
+   */
+  long first() {
+    return nextInSegment(0, 0);
+  }
+
+  /**
+   * Address of the record after the one at {@code address}, or -1 if it was the last.
+   */
+  long next(long address) {
+    int segment = segment(address);
+    int offset = offset(address);
+    return nextInSegment(segment, offset + LENGTH_BYTES + segments.get(segment).getInt(offset));
+  }
+
+  private long nextInSegment(int segment, int offset) {
+    for (; segment < segments.size(); segment++, offset = 0) {
+      if (offset < segments.get(segment).limit()) {
+        return address(segment, offset);
+      }
+    }
+    return -1;
+  }
+
+  private static long address(int segment, int offset) {
+    return (long) segment << 32 | offset;
+  }
+
+  private static int segment(long address) {
+    return (int) (address >>> 32);
+  }
+
+  private static int offset(long address) {
+    return (int) address;
+  }
+
+  /**
+   * Murmur3-style hash of the remaining bytes of {@code bytes}, without moving its position.
+   */
+  static int hash(ByteBuffer bytes) {
+    int from = bytes.position();
+    int to = bytes.limit();
+    int h = 0x9747b28c ^ (to - from);
+    int i = from;
+    for (; i + 4 <= to; i += 4) {
+      h ^= mixK(bytes.getInt(i));
+      h = Integer.rotateLeft(h, 13) * 5 + 0xe6546b64;
+    }
+    int tail = 0;
+    for (; i < to; i++) {
+      tail = tail << 8 | (bytes.get(i) & 0xff);
+    }
+    h ^= mixK(tail);
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    return h ^ h >>> 16;
+  }
+
+  private static int mixK(int k) {
+    return Integer.rotateLeft(k * 0xcc9e2d51, 15) * 0x1b873593;
+  }
+}
@@ -0,0 +1,219 @@
+package com.niuge.learning;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Ints;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal perfect hash over a fixed set of distinct {@code int} hash codes, built with the
+ * hash-and-displace scheme of CHD: codes are split into buckets of about {@value #BUCKET_SIZE},
+ * and each bucket, largest first, searches for a displacement that sends all its codes to free
+ * slots. Buckets of one code just take a free slot, stored as {@code -slot - 1}. A lookup reads
+ * one displacement and computes the slot; codes outside the set get an arbitrary slot, or -1.
+ */
+final class PerfectHashIndex {
+  static final int BUCKET_SIZE = 4;
+  static final int SHARED_HASH = -1;
+  static final int DUPLICATE = -2;
+  // tries per bucket before starting over with another bucket seed
+  private static final int MAX_DISPLACEMENT = 1 << 20;
+
+  private final int[] displacements;
+  private final int size;
+  private final long seed;
+
+  private PerfectHashIndex(int[] displacements, int size, long seed) {
+    this.displacements = displacements;
+    this.size = size;
+    this.seed = seed;
+  }
+
+  /**
+   * @param hashes distinct codes; slot {@code i} ends up holding one of them, for every
+   *     {@code i < hashes.length}
+   */
+  static PerfectHashIndex build(int[] hashes) {
+    int n = hashes.length;
+    int buckets = Math.max(1, (n + BUCKET_SIZE - 1) / BUCKET_SIZE);
+    for (long seed = 0x9E3779B97F4A7C15L; ; seed = mix64(seed)) {
+      int[] displacements = place(hashes, buckets, seed);
+      if (displacements != null) {
+        return new PerfectHashIndex(displacements, n, seed);
+      }
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * The slot of {@code hash}, or -1 when it can't be in the set.
+   */
+  int slot(int hash) {
+    long mixed = mix64(hash ^ seed);
+    int d = displacements[range((int) (mixed >>> 32), displacements.length)];
+    if (d < 0) {
+      return -d - 1;
+    }
+    return d == 0 ? -1 : range(displace(mixed, d), size);
+  }
+
+  /**
+   * Returns the displacements, or null if some bucket found none.
+   */
+  private static int[] place(int[] hashes, int buckets, long seed) {
+    int n = hashes.length;
+    // bucket members, grouped by bucket in start[b] .. start[b + 1]
+    int[] start = new int[buckets + 1];
+    int[] bucketOf = new int[n];
+    long[] mixed = new long[n];
+    for (int i = 0; i < n; i++) {
+      mixed[i] = mix64(hashes[i] ^ seed);
+      bucketOf[i] = range((int) (mixed[i] >>> 32), buckets);
+      start[bucketOf[i] + 1]++;
+    }
+    int maxSize = 0;
+    for (int b = 0; b < buckets; b++) {
+      maxSize = Math.max(maxSize, start[b + 1]);
+      start[b + 1] += start[b];
+    }
+    long[] members = new long[n];
+    int[] fill = Arrays.copyOf(start, buckets);
+    for (int i = 0; i < n; i++) {
+      members[fill[bucketOf[i]]++] = mixed[i];
+    }
+    // buckets by decreasing size, counting-sorted
+    int[] bySize = new int[maxSize + 2];
+    for (int b = 0; b < buckets; b++) {
+      bySize[maxSize - (start[b + 1] - start[b]) + 1]++;
+    }
+    for (int s = 0; s <= maxSize; s++) {
+      bySize[s + 1] += bySize[s];
+    }
+    int[] order = new int[buckets];
+    for (int b = 0; b < buckets; b++) {
+      order[bySize[maxSize - (start[b + 1] - start[b])]++] = b;
+    }
+
+    int[] displacements = new int[buckets];
+    boolean[] taken = new boolean[n];
+    int[] slots = new int[maxSize];
+    int nextFree = 0;
+    for (int b : order) {
+      int from = start[b];
+      int bucketSize = start[b + 1] - from;
+      if (bucketSize == 0) {
+        break;
+      }
+      if (bucketSize == 1) {
+        while (taken[nextFree]) {
+          nextFree++;
+        }
+        taken[nextFree] = true;
+        displacements[b] = -nextFree - 1;
+        continue;
+      }
+      int d = 1;
+      while (!fits(members, from, bucketSize, d, taken, slots)) {
+        if (++d == MAX_DISPLACEMENT) {
+          return null;
+        }
+      }
+      for (int j = 0; j < bucketSize; j++) {
+        taken[slots[j]] = true;
+      }
+      displacements[b] = d;
+    }
+    return displacements;
+  }
+
+  private static boolean fits(long[] members, int from, int bucketSize, int d, boolean[] taken, int[] slots) {
+    for (int j = 0; j < bucketSize; j++) {
+      int slot = range(displace(members[from + j], d), taken.length);
+      if (taken[slot]) {
+        return false;
+      }
+      for (int k = 0; k < j; k++) {
+        if (slots[k] == slot) {
+          return false;
+        }
+      }
+      slots[j] = slot;
+    }
+    return true;
+  }
+
+  /**
+   * Maps a 32-bit hash uniformly onto {@code [0, n)} with a multiply instead of a division.
+   */
+  private static int range(int hash, int n) {
+    return (int) (((hash & 0xffffffffL) * n) >>> 32);
+  }
+
+  /**
+   * The hash of a member of a bucket under displacement {@code d}: {@code f1 + d * f2}, as in CHD,
+   * with {@code f1} the low half of the mixed hash and {@code f2} an odd hash of all of it. The high
+   * half picked the bucket, so it is the same for most members.
+   */
+  private static int displace(long mixed, int d) {
+    return (int) mixed + d * ((int) ((mixed * 0x9E3779B97F4A7C15L) >>> 32) | 1);
+  }
+
+  // the MurmurHash3 finalizer
+  private static long mix64(long x) {
+    x ^= x >>> 33;
+    x *= 0xFF51AFD7ED558CCDL;
+    x ^= x >>> 33;
+    x *= 0xC4CEB9FE1A85EC53L;
+    x ^= x >>> 33;
+    return x;
+  }
+
+  /**
+   * Builds the index over the distinct hash codes of {@code keys}, and stores in {@code slots[i]}
+   * the slot of {@code keys.get(i)}: {@link #SHARED_HASH} if another key has the same hash code,
+   * and {@link #DUPLICATE} if an earlier key equals it.
+   */
+  static PerfectHashIndex build(List<?> keys, int[] slots) {
+    int n = keys.size();
+    Map<Integer, Integer> first = Maps.newHashMapWithExpectedSize(n);
+    ListMultimap<Integer, Integer> shared = ArrayListMultimap.create();
+    for (int i = 0; i < n; i++) {
+      Object key = keys.get(i);
+      int hash = key.hashCode();
+      Integer j = first.get(hash);
+      slots[i] = 0;
+      if (j == null) {
+        first.put(hash, i);
+        continue;
+      }
+      boolean duplicate = key.equals(keys.get(j));
+      for (int k : shared.get(hash)) {
+        duplicate |= key.equals(keys.get(k));
+      }
+      if (duplicate) {
+        slots[i] = DUPLICATE;
+        continue;
+      }
+      if (!shared.containsKey(hash)) {
+        shared.put(hash, j);
+      }
+      shared.put(hash, i);
+    }
+    int[] hashes = Ints.toArray(first.keySet());
+    PerfectHashIndex index = build(hashes);
+    for (int i = 0; i < n; i++) {
+      if (slots[i] != DUPLICATE) {
+        int hash = keys.get(i).hashCode();
+        slots[i] = shared.containsKey(hash) ? SHARED_HASH : index.slot(hash);
+      }
+    }
+    return index;
+  }
+}
@@ -0,0 +1,165 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable map for key sets that are fixed once built, looked up through a minimal perfect
+ * hash of the keys' hash codes: {@link #get} reads one bucket displacement, which gives the slot,
+ * then compares the key in that slot of a flat array and returns the value stored next to it.
+ * There are no probe sequences and no entry objects. The few keys whose hash code another
+ * key shares can't be told apart that way, and are kept in a small {@link ImmutableMap} instead.
+ *
+ * <pre>
+ *   PerfectHashMap&lt;String, Integer&gt; codes = PerfectHashMap.&lt;String, Integer&gt;builder()
+ *       .put("a", 1)
+ *       .putAll(moreCodes)
+ *       .build();
+ * </pre>
+ *
+ * <p>Null keys and values are not allowed, and duplicate keys are rejected by {@link Builder#build},
+ * as with {@code ImmutableMap}. Building takes expected linear time. Iteration order is that of the
+ * hash slots, not insertion order.
+ */
+public final class PerfectHashMap<K, V> extends AbstractMap<K, V> {
+  private static final Object SHARED = new Object();
+
+  private final PerfectHashIndex index;
+  // slot i holds its key at 2i, or SHARED if its hash code belongs to the keys in overflow, and its
+  // value at 2i + 1, so both are usually in one cache line
+  private final Object[] table;
+  private final ImmutableMap<K, V> overflow;
+  private final int size;
+
+  private PerfectHashMap(PerfectHashIndex index, Object[] table, ImmutableMap<K, V> overflow, int size) {
+    this.index = index;
+    this.table = table;
+    this.overflow = overflow;
+    this.size = size;
+  }
+
+  public static <K, V> Builder<K, V> builder() {
+    return new Builder<K, V>();
+  }
+
+  public static <K, V> PerfectHashMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+    return PerfectHashMap.<K, V>builder().putAll(map).build();
+  }
+
+  public static final class Builder<K, V> {
+    private final List<K> keys = Lists.newArrayList();
+    private final List<V> values = Lists.newArrayList();
+
+    private Builder() {
+    }
+
+    public Builder<K, V> put(K key, V value) {
+      keys.add(Preconditions.checkNotNull(key, "null key"));
+      values.add(Preconditions.checkNotNull(value, "null value for key %s", key));
+      return this;
+    }
+
+    public Builder<K, V> put(Entry<? extends K, ? extends V> entry) {
+      return put(entry.getKey(), entry.getValue());
+    }
+
+    public Builder<K, V> putAll(Map<? extends K, ? extends V> map) {
+      for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
+        put(entry);
+      }
+      return this;
+    }
+
+    /**
+     * @throws IllegalArgumentException if two keys are equal
+     */
+    public PerfectHashMap<K, V> build() {
+      int[] slots = new int[keys.size()];
+      PerfectHashIndex index = PerfectHashIndex.build(keys, slots);
+      Object[] table = new Object[index.size() * 2];
+      ImmutableMap.Builder<K, V> overflow = ImmutableMap.builder();
+      for (int i = 0; i < slots.length; i++) {
+        int slot = slots[i];
+        Preconditions.checkArgument(slot != PerfectHashIndex.DUPLICATE, "Multiple entries with same key: %s",
+            keys.get(i));
+        if (slot == PerfectHashIndex.SHARED_HASH) {
+          overflow.put(keys.get(i), values.get(i));
+          table[index.slot(keys.get(i).hashCode()) * 2] = SHARED;
+        } else {
+          table[slot * 2] = keys.get(i);
+          table[slot * 2 + 1] = values.get(i);
+        }
+      }
+      return new PerfectHashMap<K, V>(index, table, overflow.build(), keys.size());
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    if (key == null) {
+      return null;
+    }
+    int slot = index.slot(key.hashCode());
+    if (slot < 0) {
+      return null;
+    }
+    Object candidate = table[slot * 2];
+    if (candidate == SHARED) {
+      return overflow.get(key);
+    }
+    return key.equals(candidate) ? (V) table[slot * 2 + 1] : null;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new AbstractSet<Entry<K, V>>() {
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        Iterator<Entry<K, V>> slotted = new AbstractIterator<Entry<K, V>>() {
+          private int slot;
+
+          @Override
+          @SuppressWarnings("unchecked")
+          protected Entry<K, V> computeNext() {
+            while (slot < table.length) {
+              int current = slot;
+              slot += 2;
+              if (table[current] != SHARED) {
+                return Maps.immutableEntry((K) table[current], (V) table[current + 1]);
+              }
+            }
+            return endOfData();
+          }
+        };
+        return Iterators.concat(slotted, overflow.entrySet().iterator());
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+}
@@ -0,0 +1,132 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The set counterpart of {@link PerfectHashMap}: {@link #contains} reads one bucket displacement
+ * and compares one element of a flat array. Elements whose hash code another element shares are
+ * kept in a small {@link ImmutableSet}.
+ *
+ * <pre>
+ *   PerfectHashSet&lt;String&gt; stopWords = PerfectHashSet.copyOf(words);
+ * </pre>
+ *
+ * <p>Null elements are not allowed; duplicates are ignored, as with {@code ImmutableSet}. Iteration
+ * order is that of the hash slots, not insertion order.
+ */
+public final class PerfectHashSet<E> extends AbstractSet<E> {
+  private static final Object SHARED = new Object();
+
+  private final PerfectHashIndex index;
+  // per slot: the element, or SHARED if its hash code belongs to the elements in overflow
+  private final Object[] elements;
+  private final ImmutableSet<E> overflow;
+  private final int size;
+
+  private PerfectHashSet(PerfectHashIndex index, Object[] elements, ImmutableSet<E> overflow, int size) {
+    this.index = index;
+    this.elements = elements;
+    this.overflow = overflow;
+    this.size = size;
+  }
+
+  public static <E> Builder<E> builder() {
+    return new Builder<E>();
+  }
+
+  public static <E> PerfectHashSet<E> copyOf(Iterable<? extends E> elements) {
+    return PerfectHashSet.<E>builder().addAll(elements).build();
+  }
+
+  @SafeVarargs
+  public static <E> PerfectHashSet<E> of(E... elements) {
+    return copyOf(Lists.newArrayList(elements));
+  }
+
+  public static final class Builder<E> {
+    private final List<E> elements = Lists.newArrayList();
+
+    private Builder() {
+    }
+
+    public Builder<E> add(E element) {
+      elements.add(Preconditions.checkNotNull(element, "null element"));
+      return this;
+    }
+
+    public Builder<E> addAll(Iterable<? extends E> elements) {
+      for (E element : elements) {
+        add(element);
+      }
+      return this;
+    }
+
+    public PerfectHashSet<E> build() {
+      int[] slots = new int[elements.size()];
+      PerfectHashIndex index = PerfectHashIndex.build(elements, slots);
+      Object[] slotElements = new Object[index.size()];
+      ImmutableSet.Builder<E> overflow = ImmutableSet.builder();
+      int size = 0;
+      for (int i = 0; i < slots.length; i++) {
+        int slot = slots[i];
+        if (slot == PerfectHashIndex.DUPLICATE) {
+          continue;
+        }
+        if (slot == PerfectHashIndex.SHARED_HASH) {
+          overflow.add(elements.get(i));
+          slotElements[index.slot(elements.get(i).hashCode())] = SHARED;
+        } else {
+          slotElements[slot] = elements.get(i);
+        }
+        size++;
+      }
+      return new PerfectHashSet<E>(index, slotElements, overflow.build(), size);
+    }
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (o == null) {
+      return false;
+    }
+    int slot = index.slot(o.hashCode());
+    if (slot < 0) {
+      return false;
+    }
+    Object candidate = elements[slot];
+    return candidate == SHARED ? overflow.contains(o) : o.equals(candidate);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    Iterator<E> slotted = new AbstractIterator<E>() {
+      private int slot;
+
+      @Override
+      @SuppressWarnings("unchecked")
+      protected E computeNext() {
+        while (slot < elements.length) {
+          Object element = elements[slot++];
+          if (element != SHARED) {
+            return (E) element;
+          }
+        }
+        return endOfData();
+      }
+    };
+    return overflow.isEmpty() ? slotted : Iterators.concat(slotted, overflow.iterator());
+  }
+}
@@ -0,0 +1,288 @@
+package com.niuge.learning;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+import com.google.common.collect.AbstractIterator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+
+/**
+ * {@code Iterables.find/any/all/filter} over sources that are read as they are searched instead of
+ * loaded into a list first: line-delimited files and channels, and blocking queues. Each search is
+ * a single-use iterator over the records; the terminal methods stop reading as soon as the answer
+ * is known and close the source.
+ *
+ * <pre>
+ *   // instead of Iterables.any(Files.readAllLines(log), isError)
+ *   boolean failed = StreamingSearch.lines(log).any(isError);
+ * </pre>
+ *
+ * <p>Lines are read in large buffer-sized batches and split on {@code '\n'}, with a trailing
+ * {@code '\r'} removed; the charset must encode {@code '\n'} as that single byte, as UTF-8 and the
+ * ISO-8859 charsets do. Read errors are rethrown as {@link UncheckedIOException}.
+ */
+public abstract class StreamingSearch<T> extends AbstractIterator<T> implements Closeable {
+  static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+  StreamingSearch() {
+  }
+
+  /**
+   * The UTF-8 lines of {@code file}.
+   */
+  public static StreamingSearch<String> lines(Path file) {
+    try {
+      return lines(FileChannel.open(file, StandardOpenOption.READ), StandardCharsets.UTF_8, DEFAULT_BUFFER_SIZE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * The UTF-8 lines of {@code channel}, which is closed with the search.
+   */
+  public static StreamingSearch<String> lines(ReadableByteChannel channel) {
+    return lines(channel, StandardCharsets.UTF_8, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * @param bufferSize bytes read per batch; lines longer than that grow the buffer
+   */
+  public static StreamingSearch<String> lines(ReadableByteChannel channel, Charset charset, int bufferSize) {
+    Preconditions.checkNotNull(channel);
+    Preconditions.checkNotNull(charset);
+    Preconditions.checkArgument(bufferSize > 0, "bufferSize must be positive: %s", bufferSize);
+    return new LineSearch(channel, charset, bufferSize);
+  }
+
+  /**
+   * The elements taken from {@code queue} until {@code endOfStream} is taken, by identity. Elements
+   * are taken one at a time, so a search that stops early leaves the rest in the queue. A search
+   * interrupted while waiting for an element throws {@link CancellationException} with the
+   * thread's interrupt flag set.
+   */
+  public static <T> StreamingSearch<T> from(BlockingQueue<T> queue, T endOfStream) {
+    Preconditions.checkNotNull(queue);
+    Preconditions.checkNotNull(endOfStream);
+    return new QueueSearch<T>(queue, endOfStream);
+  }
+
+  /**
+   * A search over the records of this one that satisfy {@code predicate}. Closing either closes
+   * the source.
+   */
+  public StreamingSearch<T> filter(final Predicate<? super T> predicate) {
+    Preconditions.checkNotNull(predicate);
+    final StreamingSearch<T> source = this;
+    return new StreamingSearch<T>() {
+      @Override
+      protected T computeNext() {
+        while (source.hasNext()) {
+          T record = source.next();
+          if (predicate.apply(record)) {
+            return record;
+          }
+        }
+        return endOfData();
+      }
+
+      @Override
+      public void close() throws IOException {
+        source.close();
+      }
+    };
+  }
+
+  /**
+   * The first record satisfying {@code predicate}, if any. Reads no further than that record, and
+   * closes the source.
+   */
+  public Optional<T> tryFind(Predicate<? super T> predicate) {
+    Preconditions.checkNotNull(predicate);
+    Optional<T> found;
+    try {
+      found = findNext(predicate);
+    } catch (RuntimeException | Error e) {
+      closeAfter(e);
+      throw e;
+    }
+    closeUnchecked();
+    return found;
+  }
+
+  private Optional<T> findNext(Predicate<? super T> predicate) {
+    while (hasNext()) {
+      T record = next();
+      if (predicate.apply(record)) {
+        return Optional.of(record);
+      }
+    }
+    return Optional.absent();
+  }
+
+  /**
+   * @throws NoSuchElementException if no record satisfies {@code predicate}
+   */
+  public T find(Predicate<? super T> predicate) {
+    Optional<T> found = tryFind(predicate);
+    if (!found.isPresent()) {
+      throw new NoSuchElementException();
+    }
+    return found.get();
+  }
+
+  public T find(Predicate<? super T> predicate, T defaultValue) {
+    return tryFind(predicate).or(defaultValue);
+  }
+
+  public boolean any(Predicate<? super T> predicate) {
+    return tryFind(predicate).isPresent();
+  }
+
+  public boolean all(final Predicate<? super T> predicate) {
+    Preconditions.checkNotNull(predicate);
+    return !any(new Predicate<T>() {
+      @Override
+      public boolean apply(T input) {
+        return !predicate.apply(input);
+      }
+    });
+  }
+
+  private void closeUnchecked() {
+    try {
+      close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // closes without hiding the exception the search failed with
+  private void closeAfter(Throwable failure) {
+    try {
+      close();
+    } catch (IOException | RuntimeException e) {
+      failure.addSuppressed(e);
+    }
+  }
+
+  private static final class LineSearch extends StreamingSearch<String> {
+    private final ReadableByteChannel channel;
+    private final Charset charset;
+    private byte[] buffer;
+    // buffer[start, end) holds bytes read but not yet returned; [start, scanned) has no '\n'
+    private int start;
+    private int scanned;
+    private int end;
+    private boolean eof;
+
+    LineSearch(ReadableByteChannel channel, Charset charset, int bufferSize) {
+      this.channel = channel;
+      this.charset = charset;
+      this.buffer = new byte[bufferSize];
+    }
+
+    @Override
+    protected String computeNext() {
+      for (;;) {
+        for (int i = scanned; i < end; i++) {
+          if (buffer[i] == '\n') {
+            String line = decode(start, i);
+            start = i + 1;
+            scanned = start;
+            return line;
+          }
+        }
+        scanned = end;
+        if (eof) {
+          if (start < end) {
+            String line = decode(start, end);
+            start = end;
+            return line;
+          }
+          return endOfData();
+        }
+        fill();
+      }
+    }
+
+    private String decode(int from, int to) {
+      if (to > from && buffer[to - 1] == '\r') {
+        to--;
+      }
+      return new String(buffer, from, to - from, charset);
+    }
+
+    private void fill() {
+      if (start > 0) {
+        System.arraycopy(buffer, start, buffer, 0, end - start);
+        scanned -= start;
+        end -= start;
+        start = 0;
+      } else if (end == buffer.length) {
+        byte[] grown = new byte[buffer.length * 2];
+        System.arraycopy(buffer, 0, grown, 0, end);
+        buffer = grown;
+      }
+      try {
+        int read = channel.read(ByteBuffer.wrap(buffer, end, buffer.length - end));
+        if (read < 0) {
+          eof = true;
+        } else {
+          end += read;
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+
+  private static final class QueueSearch<T> extends StreamingSearch<T> {
+    private final BlockingQueue<T> queue;
+    private final T endOfStream;
+
+    QueueSearch(BlockingQueue<T> queue, T endOfStream) {
+      this.queue = queue;
+      this.endOfStream = endOfStream;
+    }
+
+    @Override
+    protected T computeNext() {
+      T element = queue.poll();
+      if (element == null) {
+        try {
+          element = queue.take();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          CancellationException cancelled = new CancellationException("interrupted while waiting for the queue");
+          cancelled.initCause(e);
+          throw cancelled;
+        }
+      }
+      return element == endOfStream ? endOfData() : element;
+    }
+
+    @Override
+    public void close() {
+      // the queue belongs to the caller, and nothing was taken that wasn't returned
+    }
+  }
+}
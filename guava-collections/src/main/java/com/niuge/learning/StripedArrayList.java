@@ -0,0 +1,278 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Striped;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe array list whose reads never lock. {@link #get} and {@link #size} read a volatile
+ * snapshot of the backing array; {@link #set} locks one of several stripes, chosen by index, so
+ * writers to different stripes don't wait for each other; appends take a tail lock. Growing the
+ * array, and the operations that shift elements, take every lock and publish a new array, so a
+ * reader never sees a half-shifted list.
+ *
+ * <p>Iterators walk the snapshot taken when they were created: they never throw
+ * {@link java.util.ConcurrentModificationException}, don't see later appends or removals, and
+ * don't support {@code remove}. Create instances with {@link ConcurrentLists#newStripedArrayList}.
+ */
+public final class StripedArrayList<E> extends AbstractList<E> implements RandomAccess {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  /**
+   * The first {@code size} slots of {@code elements} are the list. Replaced, never mutated, except
+   * for element writes and appends into slots beyond {@code size}.
+   */
+  private static final class State<E> {
+    final AtomicReferenceArray<E> elements;
+    final int size;
+
+    State(AtomicReferenceArray<E> elements, int size) {
+      this.elements = elements;
+      this.size = size;
+    }
+  }
+
+  private final Striped<Lock> stripes;
+  // Always taken before any stripe.
+  private final Lock tailLock = new ReentrantLock();
+  private volatile State<E> state;
+
+  StripedArrayList(int stripes, int initialCapacity) {
+    this.stripes = Striped.lock(stripes);
+    this.state = new State<E>(new AtomicReferenceArray<E>(Math.max(initialCapacity, 1)), 0);
+  }
+
+  @Override
+  public E get(int index) {
+    State<E> s = state;
+    Preconditions.checkElementIndex(index, s.size);
+    return s.elements.get(index);
+  }
+
+  @Override
+  public int size() {
+    return state.size;
+  }
+
+  @Override
+  public E set(int index, E element) {
+    Lock lock = stripes.getAt(index % stripes.size());
+    lock.lock();
+    try {
+      State<E> s = state;
+      Preconditions.checkElementIndex(index, s.size);
+      return s.elements.getAndSet(index, element);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean add(E element) {
+    tailLock.lock();
+    try {
+      State<E> s = ensureCapacity(state.size + 1);
+      s.elements.set(s.size, element);
+      state = new State<E>(s.elements, s.size + 1);
+      return true;
+    } finally {
+      tailLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends E> c) {
+    Object[] added = c.toArray();
+    if (added.length == 0) {
+      return false;
+    }
+    tailLock.lock();
+    try {
+      State<E> s = ensureCapacity(state.size + added.length);
+      for (int i = 0; i < added.length; i++) {
+        @SuppressWarnings("unchecked")
+        E element = (E) added[i];
+        s.elements.set(s.size + i, element);
+      }
+      state = new State<E>(s.elements, s.size + added.length);
+      return true;
+    } finally {
+      tailLock.unlock();
+    }
+  }
+
+  @Override
+  public void add(int index, E element) {
+    lockAll();
+    try {
+      State<E> s = state;
+      Preconditions.checkPositionIndex(index, s.size);
+      AtomicReferenceArray<E> copy = new AtomicReferenceArray<E>(grownCapacity(s, s.size + 1));
+      copyRange(s.elements, 0, copy, 0, index);
+      copy.set(index, element);
+      copyRange(s.elements, index, copy, index + 1, s.size - index);
+      state = new State<E>(copy, s.size + 1);
+    } finally {
+      unlockAll();
+    }
+  }
+
+  @Override
+  public E remove(int index) {
+    lockAll();
+    try {
+      State<E> s = state;
+      Preconditions.checkElementIndex(index, s.size);
+      E removed = s.elements.get(index);
+      AtomicReferenceArray<E> copy = new AtomicReferenceArray<E>(s.elements.length());
+      copyRange(s.elements, 0, copy, 0, index);
+      copyRange(s.elements, index + 1, copy, index, s.size - index - 1);
+      state = new State<E>(copy, s.size - 1);
+      return removed;
+    } finally {
+      unlockAll();
+    }
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    lockAll();
+    try {
+      int index = indexOf(o);
+      if (index < 0) {
+        return false;
+      }
+      remove(index);
+      return true;
+    } finally {
+      unlockAll();
+    }
+  }
+
+  @Override
+  public void clear() {
+    lockAll();
+    try {
+      state = new State<E>(new AtomicReferenceArray<E>(DEFAULT_CAPACITY), 0);
+    } finally {
+      unlockAll();
+    }
+  }
+
+  @Override
+  protected void removeRange(int fromIndex, int toIndex) {
+    lockAll();
+    try {
+      State<E> s = state;
+      Preconditions.checkPositionIndexes(fromIndex, toIndex, s.size);
+      AtomicReferenceArray<E> copy = new AtomicReferenceArray<E>(s.elements.length());
+      copyRange(s.elements, 0, copy, 0, fromIndex);
+      copyRange(s.elements, toIndex, copy, fromIndex, s.size - toIndex);
+      state = new State<E>(copy, s.size - (toIndex - fromIndex));
+    } finally {
+      unlockAll();
+    }
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    final State<E> s = state;
+    return new Iterator<E>() {
+      private int next;
+
+      @Override
+      public boolean hasNext() {
+        return next < s.size;
+      }
+
+      @Override
+      public E next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return s.elements.get(next++);
+      }
+    };
+  }
+
+  /**
+   * An immutable copy of the list at one instant. Null elements are not allowed here.
+   */
+  public ImmutableList<E> snapshot() {
+    State<E> s = state;
+    ImmutableList.Builder<E> builder = ImmutableList.builder();
+    for (int i = 0; i < s.size; i++) {
+      builder.add(s.elements.get(i));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Called with the tail lock held. Returns the current state, first moved to a larger array if
+   * it can't hold {@code minCapacity} elements.
+   */
+  private State<E> ensureCapacity(int minCapacity) {
+    State<E> s = state;
+    if (minCapacity <= s.elements.length()) {
+      return s;
+    }
+    // The tail lock is held, so only set() can race the copy; the stripes keep it out.
+    lockStripes();
+    try {
+      s = state;
+      AtomicReferenceArray<E> copy = new AtomicReferenceArray<E>(grownCapacity(s, minCapacity));
+      copyRange(s.elements, 0, copy, 0, s.size);
+      s = new State<E>(copy, s.size);
+      state = s;
+      return s;
+    } finally {
+      unlockStripes();
+    }
+  }
+
+  private static int grownCapacity(State<?> s, int minCapacity) {
+    int capacity = s.elements.length();
+    if (minCapacity <= capacity) {
+      return capacity;
+    }
+    return Math.max(minCapacity, capacity + (capacity >> 1));
+  }
+
+  private static <E> void copyRange(AtomicReferenceArray<E> from, int fromIndex, AtomicReferenceArray<E> to,
+                                    int toIndex, int length) {
+    for (int i = 0; i < length; i++) {
+      to.lazySet(toIndex + i, from.get(fromIndex + i));
+    }
+  }
+
+  private void lockAll() {
+    tailLock.lock();
+    lockStripes();
+  }
+
+  private void unlockAll() {
+    unlockStripes();
+    tailLock.unlock();
+  }
+
+  private void lockStripes() {
+    for (int i = 0; i < stripes.size(); i++) {
+      stripes.getAt(i).lock();
+    }
+  }
+
+  private void unlockStripes() {
+    for (int i = stripes.size() - 1; i >= 0; i--) {
+      stripes.getAt(i).unlock();
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.niuge.learning;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Queues;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+
+public class TestBulkTransfer {
+  @Test
+  public void givenIterables_testAddAll_thenOk() {
+    Iterable<String> iter = Lists.newArrayList("name3");
+    Collection<String> collector = Lists.newArrayList("name1", "name2");
+    assertTrue(BulkTransfer.addAll(collector, iter));
+    assertTrue(BulkTransfer.addAll(collector, ImmutableSet.of("name4")::iterator));
+    assertTrue(BulkTransfer.addAll(collector, "name5", "name6"));
+    assertFalse(BulkTransfer.addAll(collector, ImmutableList.<String>of()));
+    assertThat(collector, equalTo((Collection<String>) ImmutableList.of(
+        "name1", "name2", "name3", "name4", "name5", "name6")));
+  }
+
+  @Test
+  public void givenBatches_testConcat_thenOk() {
+    List<List<Integer>> batches = ImmutableList.<List<Integer>>of(
+        ImmutableList.of(1, 2), ImmutableList.<Integer>of(), Lists.newArrayList(3), ImmutableList.of(4, 5));
+    assertThat(BulkTransfer.concat(batches), equalTo((List<Integer>) ImmutableList.of(1, 2, 3, 4, 5)));
+    ArrayList<Integer> target = Lists.newArrayList(0);
+    BulkTransfer.concatInto(target, batches);
+    assertThat(target, equalTo((List<Integer>) ImmutableList.of(0, 1, 2, 3, 4, 5)));
+  }
+
+  @Test
+  public void givenCollections_testCopyInto_thenOk() {
+    Object[] target = new Object[5];
+    int offset = BulkTransfer.copyInto(ImmutableList.of(1, 2), target, 0);
+    offset = BulkTransfer.copyInto(ImmutableSet.of(3, 4, 5), target, offset);
+    assertThat(offset, equalTo(5));
+    assertThat(Lists.newArrayList(target), equalTo((List<Object>) ImmutableList.<Object>of(1, 2, 3, 4, 5)));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void givenSmallArray_testCopyInto_thenFail() {
+    BulkTransfer.copyInto(ImmutableList.of(1, 2), new Object[2], 1);
+  }
+
+  @Test
+  public void givenBlockingQueue_testDrainBuffer_thenReused() throws InterruptedException {
+    BlockingQueue<Integer> queue = new ArrayBlockingQueue<>(10);
+    for (int i = 0; i < 5; i++) {
+      queue.add(i);
+    }
+    DrainBuffer<Integer> batch = new DrainBuffer<>(3);
+    assertThat(batch.drainFrom(queue), equalTo(3));
+    assertThat(batch, equalTo((List<Integer>) ImmutableList.of(0, 1, 2)));
+    assertThat(batch.drainFrom(queue, 10, TimeUnit.MILLISECONDS), equalTo(2));
+    assertThat(batch, equalTo((List<Integer>) ImmutableList.of(3, 4)));
+    assertThat(batch.drainFrom(queue, 10, TimeUnit.MILLISECONDS), equalTo(0));
+    assertTrue(batch.isEmpty());
+  }
+
+  @Test
+  public void givenQueue_testDrainBuffer_thenOk() {
+    DrainBuffer<String> batch = new DrainBuffer<>(2);
+    assertThat(batch.drainFrom(Queues.newArrayDeque(ImmutableList.of("a", "b", "c"))), equalTo(2));
+    assertThat(batch, equalTo((List<String>) ImmutableList.of("a", "b")));
+  }
+}
@@ -0,0 +1,93 @@
+package com.niuge.learning;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+
+public class TestCastViews {
+  @Test
+  public void givenObjectList_testCheckedCast_thenSameInstance() {
+    List<Object> originalList = Lists.newArrayList(1, 2, null, 3);
+    List<Integer> theList = CastViews.checkedCast(originalList, Integer.class);
+    assertThat(theList, sameInstance((Object) originalList));
+    assertThat(theList.get(1) + 1, equalTo(3));
+
+    Set<Object> originalSet = Sets.newHashSet("a", "b");
+    Set<String> theSet = CastViews.checkedCast(originalSet, String.class);
+    assertThat(theSet, sameInstance((Object) originalSet));
+  }
+
+  @Test(expected = ClassCastException.class)
+  public void givenWrongElement_testCheckedCast_thenFail() {
+    CastViews.checkedCast(new LinkedList<Object>(Arrays.asList(1, "2")), Integer.class);
+  }
+
+  @Test
+  public void givenWrongElement_testLazyCast_thenFailOnRead() {
+    List<Object> originalList = Lists.newArrayList(1, "2", 3);
+    List<Integer> theList = CastViews.lazyCast(originalList, Integer.class);
+    assertTrue(theList instanceof RandomAccess);
+    assertFalse(CastViews.lazyCast(new LinkedList<>(originalList), Integer.class) instanceof RandomAccess);
+    assertThat(theList.size(), equalTo(3));
+    assertThat(theList.get(2), equalTo(3));
+    try {
+      theList.get(1);
+      throw new AssertionError("expected a ClassCastException");
+    } catch (ClassCastException e) {
+      assertTrue(e.getMessage().contains("element 1"));
+    }
+  }
+
+  @Test
+  public void givenLinkedList_testLazyCastIterator_thenFailOnRead() {
+    LinkedList<Object> originalList = new LinkedList<Object>();
+    for (int i = 0; i < 100000; i++) {
+      originalList.add(i);
+    }
+    originalList.add("x");
+    Iterator<Integer> it = CastViews.lazyCast(originalList, Integer.class).iterator();
+    long sum = 0;
+    for (int i = 0; i < 100000; i++) {
+      sum += it.next();
+    }
+    assertThat(sum, equalTo(4999950000L));
+    try {
+      it.next();
+      throw new AssertionError("expected a ClassCastException");
+    } catch (ClassCastException e) {
+      assertTrue(e.getMessage().contains("element 100000"));
+    }
+
+    ListIterator<Integer> backwards = CastViews.lazyCast(originalList, Integer.class).listIterator(100000);
+    assertThat(backwards.previous(), equalTo(99999));
+    assertThat(backwards.nextIndex(), equalTo(99999));
+  }
+
+  @Test
+  public void givenStream_testCastStream_thenOk() {
+    List<Object> originalList = ImmutableList.<Object>of(1, 2, 3);
+    int sum = CastViews.castStream(originalList.stream(), Integer.class).mapToInt(Integer::intValue).sum();
+    assertThat(sum, equalTo(6));
+  }
+
+  @Test(expected = ClassCastException.class)
+  public void givenWrongElement_testCastStream_thenFail() {
+    CastViews.castStream(ImmutableList.<Object>of(1, "2").stream(), Integer.class).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,252 @@
+package com.niuge.learning;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+
+public class TestConcurrentCollections {
+  @Test
+  public void givenStripedArrayList_testListOperations_thenOk() {
+    StripedArrayList<Integer> list = ConcurrentLists.newStripedArrayList(ImmutableList.of(1, 2, 3));
+    for (int i = 4; i <= 100; i++) {
+      list.add(i);
+    }
+    assertThat(list.size(), equalTo(100));
+    assertThat(list.set(0, 0), equalTo(1));
+    list.add(1, 1);
+    assertThat(list.remove(2), equalTo(2));
+    assertTrue(list.remove((Object) 100));
+    list.subList(10, 98).clear();
+    assertThat(list, equalTo((List<Integer>) ImmutableList.of(0, 1, 3, 4, 5, 6, 7, 8, 9, 10, 99)));
+    assertThat(list.snapshot(), equalTo(list));
+    list.clear();
+    assertTrue(list.isEmpty());
+  }
+
+  @Test
+  public void givenIterator_testModifyList_thenIteratesSnapshot() {
+    StripedArrayList<Integer> list = ConcurrentLists.newStripedArrayList(ImmutableList.of(1, 2, 3));
+    Iterator<Integer> iterator = list.iterator();
+    list.add(4);
+    list.remove(0);
+    assertThat(Lists.newArrayList(iterator), equalTo((List<Integer>) ImmutableList.of(1, 2, 3)));
+  }
+
+  @Test
+  public void givenFactories_testCreateConcurrentCollections_thenOk() {
+    Set<String> set = ConcurrentSets.newConcurrentHashSet(ImmutableList.of("a", "b", "a"));
+    assertThat(set, equalTo((Set<String>) Sets.newHashSet("a", "b")));
+    Map<String, Integer> map = ConcurrentMaps.newConcurrentHashMapWithExpectedSize(10, 4);
+    map.put("a", 1);
+    assertThat(map.get("a"), equalTo(1));
+    List<String> copyOnWrite = ConcurrentLists.newCopyOnWriteArrayList(Sets.newLinkedHashSet(ImmutableList.of("x", "y")));
+    assertThat(copyOnWrite, equalTo((List<String>) ImmutableList.of("x", "y")));
+  }
+
+  @Test
+  public void givenConcurrentAppends_testStripedArrayList_thenNoneLost() throws Exception {
+    final StripedArrayList<Integer> list = ConcurrentLists.newStripedArrayList();
+    final int threads = 8;
+    final int perThread = 10000;
+    final CountDownLatch done = new CountDownLatch(threads);
+    final AtomicInteger failures = new AtomicInteger();
+    for (int t = 0; t < threads; t++) {
+      final int base = t * perThread;
+      new Thread(() -> {
+        try {
+          for (int i = 0; i < perThread; i++) {
+            list.add(base + i);
+            // reads must never see a gap or a half-copied array
+            if (list.get(list.size() - 1) == null) {
+              failures.incrementAndGet();
+            }
+          }
+        } finally {
+          done.countDown();
+        }
+      }).start();
+    }
+    done.await();
+    assertThat(failures.get(), equalTo(0));
+    assertThat(new HashSet<>(list).size(), equalTo(threads * perThread));
+  }
+
+  // A linearizable list must explain every concurrent history by some sequential order that
+  // respects real time; check that by brute force on many small histories.
+  @Test
+  public void givenRandomHistories_testStripedArrayList_thenLinearizable() throws Exception {
+    Random random = new Random(42);
+    for (int round = 0; round < 300; round++) {
+      StripedArrayList<Integer> list = ConcurrentLists.newStripedArrayListWithCapacity(2, 2);
+      list.addAll(ImmutableList.of(0, 1, 2));
+      List<Op> history = run(list, randomOps(random, 3, 5));
+      assertTrue("not linearizable: " + history, Linearizability.check(history, ImmutableList.of(0, 1, 2)));
+    }
+  }
+
+  @Test
+  public void givenImpossibleHistory_testChecker_thenRejected() {
+    // add(7) finished before get(3) started, so get(3) must see it
+    Op add = new Op(0, Kind.ADD, 7, 0);
+    add.complete(0, 1, true);
+    Op get = new Op(1, Kind.GET, 3, 0);
+    get.complete(2, 3, Op.OUT_OF_BOUNDS);
+    assertFalse(Linearizability.check(ImmutableList.of(add, get), ImmutableList.of(0, 1, 2)));
+    get.complete(0, 3, Op.OUT_OF_BOUNDS);
+    assertTrue(Linearizability.check(ImmutableList.of(add, get), ImmutableList.of(0, 1, 2)));
+  }
+
+  enum Kind { ADD, SET, GET, SIZE, REMOVE }
+
+  static final class Op {
+    static final String OUT_OF_BOUNDS = "out of bounds";
+    final int thread;
+    final Kind kind;
+    final int index;
+    final int value;
+    long invoked;
+    long returned;
+    Object result;
+
+    Op(int thread, Kind kind, int index, int value) {
+      this.thread = thread;
+      this.kind = kind;
+      this.index = index;
+      this.value = value;
+    }
+
+    void complete(long invoked, long returned, Object result) {
+      this.invoked = invoked;
+      this.returned = returned;
+      this.result = result;
+    }
+
+    Object apply(List<Integer> list) {
+      try {
+        switch (kind) {
+          case ADD:
+            return list.add(value);
+          case SET:
+            return list.set(index, value);
+          case GET:
+            return list.get(index);
+          case SIZE:
+            return list.size();
+          default:
+            return list.remove(index);
+        }
+      } catch (IndexOutOfBoundsException e) {
+        return OUT_OF_BOUNDS;
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "t" + thread + ":" + kind + "(" + index + "," + value + ")=" + result;
+    }
+  }
+
+  private static List<List<Op>> randomOps(Random random, int threads, int opsPerThread) {
+    List<List<Op>> ops = new ArrayList<>();
+    int value = 100;
+    for (int t = 0; t < threads; t++) {
+      List<Op> threadOps = new ArrayList<>();
+      for (int i = 0; i < opsPerThread; i++) {
+        Kind kind = Kind.values()[random.nextInt(Kind.values().length)];
+        threadOps.add(new Op(t, kind, random.nextInt(5), value++));
+      }
+      ops.add(threadOps);
+    }
+    return ops;
+  }
+
+  private static List<Op> run(final List<Integer> list, List<List<Op>> ops) throws Exception {
+    final CyclicBarrier start = new CyclicBarrier(ops.size());
+    List<Thread> threads = new ArrayList<>();
+    final List<Op> history = Collections.synchronizedList(new ArrayList<Op>());
+    for (final List<Op> threadOps : ops) {
+      Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (Exception e) {
+          throw new IllegalStateException(e);
+        }
+        for (Op op : threadOps) {
+          long invoked = System.nanoTime();
+          Object result = op.apply(list);
+          op.complete(invoked, System.nanoTime(), result);
+          history.add(op);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    return new ArrayList<>(history);
+  }
+
+  /**
+   * Wing and Gong's search: repeatedly pick an operation that no pending operation finished
+   * before, replay it on a sequential {@link ArrayList}, and backtrack if its result differs.
+   * Visited (done set, list state) pairs are remembered so each is explored once.
+   */
+  static final class Linearizability {
+    static boolean check(List<Op> history, List<Integer> initial) {
+      return search(history, new boolean[history.size()], history.size(), new ArrayList<>(initial),
+          new HashSet<String>());
+    }
+
+    private static boolean search(List<Op> history, boolean[] done, int remaining, List<Integer> model,
+                                  Set<String> visited) {
+      if (remaining == 0) {
+        return true;
+      }
+      if (!visited.add(Arrays.toString(done) + model)) {
+        return false;
+      }
+      long firstReturn = Long.MAX_VALUE;
+      for (int i = 0; i < history.size(); i++) {
+        if (!done[i]) {
+          firstReturn = Math.min(firstReturn, history.get(i).returned);
+        }
+      }
+      for (int i = 0; i < history.size(); i++) {
+        Op op = history.get(i);
+        if (done[i] || op.invoked > firstReturn) {
+          continue;
+        }
+        List<Integer> next = new ArrayList<>(model);
+        if (Objects.equals(op.apply(next), op.result)) {
+          done[i] = true;
+          if (search(history, done, remaining - 1, next, visited)) {
+            return true;
+          }
+          done[i] = false;
+        }
+      }
+      return false;
+    }
+  }
+}
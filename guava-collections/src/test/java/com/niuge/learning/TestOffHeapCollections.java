@@ -0,0 +1,127 @@
+package com.niuge.learning;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertFalse;
+
+public class TestOffHeapCollections {
+  @Test
+  public void givenElements_testOffHeapListBuilder_thenOk() {
+    List<String> expected = ImmutableList.of("a", "", "中文", "last");
+    OffHeapList<String> list = OffHeapList.builder(Codecs.utf8())
+        .add("a", "")
+        .addAll(expected.subList(2, 4))
+        .build();
+    assertThat(list, equalTo(expected));
+    assertThat(list.size(), equalTo(4));
+    assertThat(list.get(2), equalTo("中文"));
+  }
+
+  @Test
+  public void givenUsedBuilder_testBuildAgain_thenEarlierListUnchanged() {
+    OffHeapList.Builder<Integer> builder = OffHeapList.builder(Codecs.int32()).add(1, 2);
+    OffHeapList<Integer> first = builder.build();
+    OffHeapList<Integer> second = builder.add(3).build();
+    assertThat(first, equalTo((List<Integer>) ImmutableList.of(1, 2)));
+    assertThat(second, equalTo((List<Integer>) ImmutableList.of(1, 2, 3)));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void givenOffHeapList_testAdd_thenFail() {
+    OffHeapList.copyOf(ImmutableList.of(1), Codecs.int32()).add(2);
+  }
+
+  // spans several segments, including a record bigger than the first one
+  @Test
+  public void givenManyElements_testOffHeapList_thenSameAsImmutableList() {
+    List<String> strings = Lists.newArrayList();
+    Random random = new Random(42);
+    for (int i = 0; i < 50000; i++) {
+      strings.add(Integer.toString(random.nextInt()));
+    }
+    strings.add(new String(new char[OffHeapStore.MIN_SEGMENT_SIZE * 2]).replace('\0', 'x'));
+    strings.add("after");
+    assertThat(OffHeapList.copyOf(strings, Codecs.utf8()), equalTo(strings));
+  }
+
+  @Test
+  public void givenEntries_testOffHeapMapBuilder_thenOk() {
+    Map<String, Long> map = OffHeapMap.builder(Codecs.utf8(), Codecs.int64())
+        .put("k1", 1L)
+        .put(Maps.immutableEntry("k2", 2L))
+        .putAll(ImmutableMap.of("k3", 3L))
+        .build();
+    assertThat(map, equalTo((Map<String, Long>) ImmutableMap.of("k1", 1L, "k2", 2L, "k3", 3L)));
+    assertThat(map.get("k2"), equalTo(2L));
+    assertThat(map.get("k4"), nullValue());
+    assertThat(map.get(7), nullValue());
+    assertThat(map.get(null), nullValue());
+    assertTrue(map.containsKey("k3"));
+    assertFalse(map.containsKey("k"));
+    assertThat(Lists.newArrayList(map.keySet()), equalTo((List<String>) ImmutableList.of("k1", "k2", "k3")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenDuplicateKeys_testOffHeapMapBuild_thenFail() {
+    OffHeapMap.builder(Codecs.int32(), Codecs.int32()).put(1, 1).put(2, 2).put(1, 3).build();
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void givenOffHeapMap_testPut_thenFail() {
+    OffHeapMap.copyOf(ImmutableMap.of(1, 1), Codecs.int32(), Codecs.int32()).put(2, 2);
+  }
+
+  @Test
+  public void givenManyEntries_testOffHeapMap_thenSameAsHashMap() {
+    Map<Integer, String> expected = Maps.newLinkedHashMap();
+    Random random = new Random(42);
+    while (expected.size() < 100000) {
+      int key = random.nextInt();
+      expected.put(key, "v" + key);
+    }
+    OffHeapMap<Integer, String> map = OffHeapMap.copyOf(expected, Codecs.int32(), Codecs.utf8());
+    assertThat(map.size(), equalTo(expected.size()));
+    for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+      assertThat(map.get(entry.getKey()), equalTo(entry.getValue()));
+    }
+    for (int i = 0; i < 1000; i++) {
+      int key = random.nextInt();
+      assertThat(map.containsKey(key), equalTo(expected.containsKey(key)));
+    }
+    assertThat(Lists.newArrayList(map.entrySet()), equalTo(Lists.newArrayList(expected.entrySet())));
+  }
+
+  @Test
+  public void givenFile_testMappedBuilders_thenOk() throws IOException {
+    Path file = File.createTempFile("offheap", ".dat").toPath();
+    try {
+      Map<String, Integer> map = OffHeapMap.builder(Codecs.utf8(), Codecs.int32(), file)
+          .put("a", 1)
+          .put("b", 2)
+          .build();
+      assertThat(map.get("b"), equalTo(2));
+      assertTrue(Files.size(file) > 0);
+
+      List<Long> list = OffHeapList.builder(Codecs.int64(), file).add(1L, 2L).build();
+      assertThat(list, equalTo((List<Long>) ImmutableList.of(1L, 2L)));
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package com.niuge.learning;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+
+public class TestOffHeapSnapshot {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void givenDuplicates_testOffHeapSetBuilder_thenOk() {
+    Set<String> set = OffHeapSet.builder(Codecs.utf8()).add("b", "a", "b").addAll(ImmutableList.of("c", "a")).build();
+    assertThat(set, equalTo((Set<String>) ImmutableSet.of("a", "b", "c")));
+    assertThat(Lists.newArrayList(set), equalTo((List<String>) ImmutableList.of("b", "a", "c")));
+    assertTrue(set.contains("c"));
+    assertFalse(set.contains("d"));
+    assertFalse(set.contains(1));
+  }
+
+  @Test
+  public void givenOffHeapMap_testWriteThenOpen_thenOk() throws IOException {
+    Map<String, Long> expected = Maps.newLinkedHashMap();
+    for (long i = 0; i < 100000; i++) {
+      expected.put("key-" + i, i);
+    }
+    Path file = folder.getRoot().toPath().resolve("map.snapshot");
+    OffHeapSnapshot.write(OffHeapMap.copyOf(expected, Codecs.utf8(), Codecs.int64()), file);
+    OffHeapSnapshot.verify(file);
+
+    Map<String, Long> map = OffHeapSnapshot.openMap(file, Codecs.utf8(), Codecs.int64());
+    assertThat(map.get("key-4242"), equalTo(4242L));
+    assertFalse(map.containsKey("key-100000"));
+    assertThat(Lists.newArrayList(map.entrySet()), equalTo(Lists.newArrayList(expected.entrySet())));
+  }
+
+  @Test
+  public void givenOffHeapSet_testWriteThenOpen_thenOk() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("set.snapshot");
+    OffHeapSnapshot.write(OffHeapSet.copyOf(ImmutableList.of(3, 1, 3, 2), Codecs.int32()), file);
+    Set<Integer> set = OffHeapSnapshot.openSet(file, Codecs.int32());
+    assertThat(Lists.newArrayList(set), equalTo((List<Integer>) ImmutableList.of(3, 1, 2)));
+    assertTrue(set.contains(2));
+    assertFalse(set.contains(4));
+  }
+
+  @Test
+  public void givenEmptyMap_testWriteThenOpen_thenOk() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("empty.snapshot");
+    OffHeapSnapshot.write(OffHeapMap.builder(Codecs.int32(), Codecs.int32()).build(), file);
+    Map<Integer, Integer> map = OffHeapSnapshot.openMap(file, Codecs.int32(), Codecs.int32());
+    assertTrue(map.isEmpty());
+    assertFalse(map.containsKey(1));
+  }
+
+  @Test(expected = IOException.class)
+  public void givenSetSnapshot_testOpenMap_thenFail() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("set.snapshot");
+    OffHeapSnapshot.write(OffHeapSet.copyOf(ImmutableList.of(1), Codecs.int32()), file);
+    OffHeapSnapshot.openMap(file, Codecs.int32(), Codecs.int32());
+  }
+
+  @Test(expected = IOException.class)
+  public void givenTruncatedSnapshot_testOpen_thenFail() throws IOException {
+    Path file = writeSmallSet();
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.setLength(raf.length() - 1);
+    }
+    OffHeapSnapshot.openSet(file, Codecs.int32());
+  }
+
+  @Test(expected = IOException.class)
+  public void givenCorruptHeader_testOpen_thenFail() throws IOException {
+    Path file = writeSmallSet();
+    flipByte(file, 16);
+    OffHeapSnapshot.openSet(file, Codecs.int32());
+  }
+
+  @Test(expected = IOException.class)
+  public void givenCorruptData_testVerify_thenFail() throws IOException {
+    Path file = writeSmallSet();
+    flipByte(file, Files.size(file) - 1);
+    OffHeapSnapshot.openSet(file, Codecs.int32());
+    OffHeapSnapshot.verify(file);
+  }
+
+  @Test(expected = IOException.class)
+  public void givenOtherFile_testOpen_thenFail() throws IOException {
+    Path file = folder.newFile().toPath();
+    Files.write(file, new byte[100]);
+    OffHeapSnapshot.openSet(file, Codecs.int32());
+  }
+
+  private Path writeSmallSet() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("small.snapshot");
+    OffHeapSnapshot.write(OffHeapSet.copyOf(ImmutableList.of(1, 2, 3), Codecs.int32()), file);
+    return file;
+  }
+
+  private static void flipByte(Path file, long position) throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.seek(position);
+      int b = raf.read();
+      raf.seek(position);
+      raf.write(b ^ 0xff);
+    }
+  }
+}
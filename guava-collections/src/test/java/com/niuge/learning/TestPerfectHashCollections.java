@@ -0,0 +1,89 @@
+package com.niuge.learning;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertFalse;
+
+public class TestPerfectHashCollections {
+  @Test
+  public void givenEntries_testPerfectHashMapBuilder_thenSameAsImmutableMap() {
+    ImmutableMap<String, Integer> expected = ImmutableMap.of("a", 1, "b", 2, "c", 3);
+    PerfectHashMap<String, Integer> map = PerfectHashMap.<String, Integer>builder()
+        .put("a", 1)
+        .put(Maps.immutableEntry("b", 2))
+        .putAll(ImmutableMap.of("c", 3))
+        .build();
+    assertThat(map, equalTo((Map<String, Integer>) expected));
+    assertThat(map.get("b"), equalTo(2));
+    assertThat(map.get("d"), nullValue());
+    assertThat(map.get(null), nullValue());
+    assertThat(map.get(42), nullValue());
+    assertThat(map.hashCode(), equalTo(expected.hashCode()));
+  }
+
+  @Test
+  public void givenManyKeys_testPerfectHashMap_thenEveryKeyFound() {
+    Random random = new Random(42);
+    Map<Long, Long> expected = Maps.newHashMap();
+    for (int i = 0; i < 200000; i++) {
+      long key = random.nextLong();
+      expected.put(key, key * 31);
+    }
+    PerfectHashMap<Long, Long> map = PerfectHashMap.copyOf(expected);
+    assertThat(map.size(), equalTo(expected.size()));
+    for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+      assertThat(map.get(entry.getKey()), equalTo(entry.getValue()));
+    }
+    for (int i = 0; i < 10000; i++) {
+      long absent = random.nextLong();
+      assertThat(map.get(absent), equalTo(expected.get(absent)));
+    }
+    assertThat(map, equalTo(expected));
+  }
+
+  @Test
+  public void givenSharedHashCodes_testPerfectHashMap_thenOverflowFound() {
+    // "Aa" and "BB" have the same hashCode, as do their concatenations
+    assertThat("Aa".hashCode(), equalTo("BB".hashCode()));
+    ImmutableMap<String, Integer> expected = ImmutableMap.of("Aa", 1, "BB", 2, "AaAa", 3, "BBBB", 4, "x", 5);
+    PerfectHashMap<String, Integer> map = PerfectHashMap.copyOf(expected);
+    assertThat(map, equalTo((Map<String, Integer>) expected));
+    assertThat(map.get("BB"), equalTo(2));
+    assertThat(map.get("AaBB"), nullValue());
+    assertThat(map.get("x"), equalTo(5));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenDuplicateKey_testPerfectHashMapBuild_thenFail() {
+    PerfectHashMap.<String, Integer>builder().put("a", 1).put("b", 2).put("a", 3).build();
+  }
+
+  @Test
+  public void givenEmpty_testPerfectHashCollections_thenEmpty() {
+    assertTrue(PerfectHashMap.<String, Integer>builder().build().isEmpty());
+    assertFalse(PerfectHashSet.of().contains("a"));
+  }
+
+  @Test
+  public void givenElements_testPerfectHashSet_thenSameAsImmutableSet() {
+    Set<String> expected = ImmutableSet.of("ab", "cd", "Aa", "BB", "ef");
+    PerfectHashSet<String> set = PerfectHashSet.of("ab", "cd", "Aa", "ab", "BB", "ef");
+    assertThat(set, equalTo(expected));
+    assertThat(set.size(), equalTo(5));
+    assertTrue(set.contains("BB"));
+    assertFalse(set.contains("zz"));
+    assertThat(Sets.newHashSet(set), equalTo(expected));
+  }
+}
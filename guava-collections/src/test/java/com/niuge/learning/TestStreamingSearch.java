@@ -0,0 +1,194 @@
+package com.niuge.learning;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class TestStreamingSearch {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  static final Predicate<String> inputOfLengthOne = new Predicate<String>() {
+    @Override
+    public boolean apply(String input) {
+      return input.length() == 1;
+    }
+  };
+
+  // counts bytes handed out, and whether it was closed
+  static class CountingChannel implements ReadableByteChannel {
+    final ReadableByteChannel delegate;
+    long bytesRead;
+    boolean closed;
+
+    CountingChannel(String content) {
+      this.delegate = Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      int read = delegate.read(dst);
+      bytesRead += Math.max(read, 0);
+      return read;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return !closed;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  @Test
+  public void givenLines_testFindAnyAll_thenOk() {
+    String content = "a\r\nbc\ndef\n\nlast";
+    assertThat(search(content).find(inputOfLengthOne), equalTo("a"));
+    assertThat(search(content).find(Predicates.equalTo("xyz"), "default"), equalTo("default"));
+    assertTrue(search(content).any(Predicates.equalTo("last")));
+    assertFalse(search(content).all(inputOfLengthOne));
+    assertTrue(search("a\nb\n").all(inputOfLengthOne));
+    List<String> lines = Lists.newArrayList(search(content));
+    assertThat(lines, equalTo((List<String>) ImmutableList.of("a", "bc", "def", "", "last")));
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void givenNoMatch_testFind_thenException() {
+    search("bc\ndef").find(inputOfLengthOne);
+  }
+
+  @Test
+  public void givenLongLines_testSmallBuffer_thenOk() {
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      content.append(i).append("中文-").append(Strings.repeat("x", i)).append('\n');
+    }
+    List<String> lines = Lists.newArrayList(StreamingSearch.lines(new CountingChannel(content.toString()),
+        StandardCharsets.UTF_8, 7));
+    assertThat(lines.size(), equalTo(100));
+    assertThat(lines.get(99), equalTo("99中文-" + Strings.repeat("x", 99)));
+  }
+
+  @Test
+  public void givenEarlyMatch_testAny_thenStopsReadingAndCloses() {
+    StringBuilder content = new StringBuilder("a\n");
+    for (int i = 0; i < 100000; i++) {
+      content.append("line ").append(i).append('\n');
+    }
+    CountingChannel channel = new CountingChannel(content.toString());
+    assertTrue(StreamingSearch.lines(channel, StandardCharsets.UTF_8, 4096).any(inputOfLengthOne));
+    assertThat(channel.bytesRead, lessThanOrEqualTo(4096L));
+    assertTrue(channel.closed);
+  }
+
+  @Test
+  public void givenFile_testFilter_thenOk() throws IOException {
+    Path file = folder.newFile().toPath();
+    Files.write(file, ImmutableList.of("a", "bc", "d", "ef"), StandardCharsets.UTF_8);
+    try (StreamingSearch<String> search = StreamingSearch.lines(file).filter(inputOfLengthOne)) {
+      assertThat(Lists.newArrayList(search), equalTo((List<String>) ImmutableList.of("a", "d")));
+    }
+    assertThat(StreamingSearch.lines(file).filter(Predicates.not(inputOfLengthOne)).find(Predicates.<String>alwaysTrue()),
+        equalTo("bc"));
+  }
+
+  @Test
+  public void givenQueue_testFind_thenOk() throws InterruptedException {
+    final BlockingQueue<Integer> queue = new LinkedBlockingQueue<>();
+    final Integer end = Integer.valueOf(-1);
+    Thread producer = new Thread(() -> {
+      for (int i = 0; i < 5000; i++) {
+        queue.add(i);
+      }
+      queue.add(end);
+    });
+    producer.start();
+    StreamingSearch<Integer> search = StreamingSearch.from(queue, end);
+    assertThat(search.find(input -> input > 4000), equalTo(4001));
+    producer.join();
+
+    queue.clear();
+    queue.addAll(ImmutableList.of(1, 3, 5, end));
+    assertTrue(StreamingSearch.from(queue, end).all(input -> input % 2 == 1));
+  }
+
+  @Test
+  public void givenEarlyMatch_testQueueSearch_thenLeavesTheRestInTheQueue() {
+    BlockingQueue<Integer> queue = new LinkedBlockingQueue<>(ImmutableList.of(1, 2, 3, 4, 5));
+    Integer end = Integer.valueOf(-1);
+    queue.add(end);
+    assertThat(StreamingSearch.from(queue, end).find(input -> input > 2), equalTo(3));
+    assertThat(Lists.newArrayList(queue), equalTo((List<Integer>) ImmutableList.of(4, 5, end)));
+  }
+
+  @Test
+  public void givenInterrupt_testQueueSearch_thenCancelledAndFlagKept() {
+    Thread.currentThread().interrupt();
+    try {
+      StreamingSearch.from(new LinkedBlockingQueue<Integer>(), Integer.valueOf(-1)).any(input -> true);
+      fail();
+    } catch (CancellationException expected) {
+      assertTrue(Thread.interrupted());
+    }
+  }
+
+  @Test
+  public void givenFailingPredicate_testFind_thenCloseErrorSuppressed() {
+    final IOException closeFailure = new IOException("close");
+    StreamingSearch<String> search = new StreamingSearch<String>() {
+      @Override
+      protected String computeNext() {
+        return "a";
+      }
+
+      @Override
+      public void close() throws IOException {
+        throw closeFailure;
+      }
+    };
+    IllegalStateException failure = new IllegalStateException("predicate");
+    try {
+      search.any(input -> {
+        throw failure;
+      });
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e, sameInstance(failure));
+      assertThat(e.getSuppressed()[0], sameInstance((Throwable) closeFailure));
+    }
+  }
+
+  private static StreamingSearch<String> search(String content) {
+    return StreamingSearch.lines(new CountingChannel(content));
+  }
+}
@@ -0,0 +1,197 @@
+package com.niuge.learning;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@code Predicates.and} and {@code Predicates.or} that learn which clause to evaluate first. One
+ * call in {@value #SAMPLE_INTERVAL} times each clause it evaluates and counts how often the clause
+ * decides the result (rejects, for {@code and}; accepts, for {@code or}); every
+ * {@value #REORDER_INTERVAL} samples the clauses are sorted by mean cost divided by that rate, so
+ * cheap clauses that usually short-circuit run first. Older samples count half after each reorder,
+ * so the order follows inputs that drift.
+ *
+ * <pre>
+ *   // instead of Predicates.and(rules)
+ *   Predicate&lt;Order&gt; accepted = AdaptivePredicate.and(rules);
+ * </pre>
+ *
+ * <p>The result is always the one {@code Predicates.and}/{@code or} would give, provided the clauses
+ * have no side effects. A clause that throws once evaluated ahead of the clause guarding it, like a
+ * length check moved before a null check, doesn't change that either: while the order differs from
+ * the declared one, a call that throws is replayed in declaration order, which returns or throws
+ * what {@code Predicates} would. That replay evaluates the clauses that already ran a second time.
+ */
+public final class AdaptivePredicate<T> implements Predicate<T> {
+  static final int SAMPLE_INTERVAL = 16;
+  static final int REORDER_INTERVAL = 256;
+
+  private static final Comparator<Clause<?>> BY_RANK = new Comparator<Clause<?>>() {
+    @Override
+    public int compare(Clause<?> left, Clause<?> right) {
+      return Double.compare(left.rank, right.rank);
+    }
+  };
+
+  private final boolean conjunction;
+  private final Clause<T>[] declared;
+  private volatile Clause<T>[] order;
+  private final AtomicLong samples = new AtomicLong();
+  private final ReentrantLock reorderLock = new ReentrantLock();
+
+  private static final class Clause<T> {
+    final Predicate<? super T> predicate;
+    final AtomicLong evaluated = new AtomicLong();
+    final AtomicLong decisive = new AtomicLong();
+    final AtomicLong nanos = new AtomicLong();
+    // only read and written under the reorder lock
+    double rank;
+
+    Clause(Predicate<? super T> predicate) {
+      this.predicate = predicate;
+    }
+  }
+
+  private AdaptivePredicate(boolean conjunction, List<? extends Predicate<? super T>> components) {
+    this.conjunction = conjunction;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Clause<T>[] clauses = new Clause[components.size()];
+    for (int i = 0; i < clauses.length; i++) {
+      clauses[i] = new Clause<T>(components.get(i));
+    }
+    this.declared = clauses;
+    this.order = clauses.clone();
+  }
+
+  /**
+   * True when every component is true; true when there are none.
+   */
+  public static <T> AdaptivePredicate<T> and(Iterable<? extends Predicate<? super T>> components) {
+    return new AdaptivePredicate<T>(true, ImmutableList.copyOf(components));
+  }
+
+  @SafeVarargs
+  public static <T> AdaptivePredicate<T> and(Predicate<? super T>... components) {
+    return new AdaptivePredicate<T>(true, ImmutableList.copyOf(components));
+  }
+
+  /**
+   * True when any component is true; false when there are none.
+   */
+  public static <T> AdaptivePredicate<T> or(Iterable<? extends Predicate<? super T>> components) {
+    return new AdaptivePredicate<T>(false, ImmutableList.copyOf(components));
+  }
+
+  @SafeVarargs
+  public static <T> AdaptivePredicate<T> or(Predicate<? super T>... components) {
+    return new AdaptivePredicate<T>(false, ImmutableList.copyOf(components));
+  }
+
+  @Override
+  public boolean apply(T input) {
+    Clause<T>[] clauses = order;
+    try {
+      if ((ThreadLocalRandom.current().nextInt() & (SAMPLE_INTERVAL - 1)) == 0) {
+        return applySampled(clauses, input);
+      }
+      // and stops at the first false, or at the first true
+      for (Clause<T> clause : clauses) {
+        if (clause.predicate.apply(input) != conjunction) {
+          return !conjunction;
+        }
+      }
+      return conjunction;
+    } catch (RuntimeException e) {
+      if (Arrays.equals(clauses, declared)) {
+        // Predicates would have thrown the same
+        throw e;
+      }
+      return applyDeclared(input);
+    }
+  }
+
+  private boolean applySampled(Clause<T>[] clauses, T input) {
+    boolean result = conjunction;
+    for (Clause<T> clause : clauses) {
+      long start = System.nanoTime();
+      boolean value = clause.predicate.apply(input);
+      clause.nanos.addAndGet(System.nanoTime() - start);
+      clause.evaluated.incrementAndGet();
+      if (value != conjunction) {
+        clause.decisive.incrementAndGet();
+        result = !conjunction;
+        break;
+      }
+    }
+    if (samples.incrementAndGet() % REORDER_INTERVAL == 0) {
+      reorder();
+    }
+    return result;
+  }
+
+  private boolean applyDeclared(T input) {
+    for (Clause<T> clause : declared) {
+      if (clause.predicate.apply(input) != conjunction) {
+        return !conjunction;
+      }
+    }
+    return conjunction;
+  }
+
+  private void reorder() {
+    if (!reorderLock.tryLock()) {
+      return;
+    }
+    try {
+      Clause<T>[] sorted = order.clone();
+      for (Clause<T> clause : sorted) {
+        long evaluated = clause.evaluated.get();
+        // mean cost / decisive rate, the rate smoothed so a clause that never decided isn't infinite;
+        // clauses no sample reached stay behind the rest, in their current order
+        clause.rank = evaluated == 0
+            ? Double.POSITIVE_INFINITY
+            : (double) clause.nanos.get() / evaluated * (evaluated + 2) / (clause.decisive.get() + 1);
+        clause.evaluated.set(evaluated / 2);
+        clause.decisive.set(clause.decisive.get() / 2);
+        clause.nanos.set(clause.nanos.get() / 2);
+      }
+      // stable, so ties keep their order
+      Arrays.sort(sorted, BY_RANK);
+      if (!Arrays.equals(sorted, order)) {
+        order = sorted;
+      }
+    } finally {
+      reorderLock.unlock();
+    }
+  }
+
+  /**
+   * The components in the order they are currently evaluated.
+   */
+  public List<Predicate<? super T>> currentOrder() {
+    ImmutableList.Builder<Predicate<? super T>> builder = ImmutableList.builder();
+    for (Clause<T> clause : order) {
+      builder.add(clause.predicate);
+    }
+    return builder.build();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder components = new StringBuilder();
+    for (Clause<T> clause : declared) {
+      if (components.length() > 0) {
+        components.append(", ");
+      }
+      components.append(clause.predicate);
+    }
+    return (conjunction ? "AdaptivePredicate.and(" : "AdaptivePredicate.or(") + components + ")";
+  }
+}
@@ -0,0 +1,79 @@
+package com.niuge.learning;
+
+/**
+ * Word operations on the {@code long[]} bitmasks of {@link IntBatchPredicate} and
+ * {@link LongBatchPredicate}: bit {@code i} of a mask over {@code length} values is bit
+ * {@code i % 64} of word {@code i / 64}, and bits at {@code length} and beyond are zero.
+ */
+final class Bitmasks {
+  /**
+   * Values per chunk when a whole array is evaluated; keeps the masks small enough to stay cached.
+   */
+  static final int CHUNK = 1024;
+
+  private Bitmasks() {
+  }
+
+  static int words(int length) {
+    return (length + 63) >>> 6;
+  }
+
+  /**
+   * {@code depth} masks over {@code length} values, for the combinators of one evaluation to share.
+   */
+  static long[][] scratch(int depth, int length) {
+    return new long[depth][words(length)];
+  }
+
+  static void and(long[] mask, long[] other, int length) {
+    for (int w = 0, words = words(length); w < words; w++) {
+      mask[w] &= other[w];
+    }
+  }
+
+  static void or(long[] mask, long[] other, int length) {
+    for (int w = 0, words = words(length); w < words; w++) {
+      mask[w] |= other[w];
+    }
+  }
+
+  static void not(long[] mask, int length) {
+    int words = words(length);
+    for (int w = 0; w < words; w++) {
+      mask[w] = ~mask[w];
+    }
+    clearTail(mask, length);
+  }
+
+  static void clearTail(long[] mask, int length) {
+    if ((length & 63) != 0) {
+      mask[(length - 1) >>> 6] &= -1L >>> (64 - (length & 63));
+    }
+  }
+
+  static int count(long[] mask, int length) {
+    int count = 0;
+    for (int w = 0, words = words(length); w < words; w++) {
+      count += Long.bitCount(mask[w]);
+    }
+    return count;
+  }
+
+  /**
+   * Writes {@code offset + i} to {@code selection} for every set bit {@code i}, starting at
+   * {@code selection[size]}.
+   *
+   * @return the new size of the selection
+   */
+  static int select(long[] mask, int length, int offset, int[] selection, int size) {
+    for (int w = 0, words = words(length); w < words; w++) {
+      long bits = mask[w];
+      int base = offset + (w << 6);
+      while (bits != 0) {
+        selection[size++] = base + Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
+      }
+    }
+    return size;
+  }
+}
@@ -0,0 +1,142 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+import com.google.common.collect.AbstractIterator;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A lazy list view like {@code Lists.transform} / {@code Collections2.filter}, but with all
+ * filter and transform stages fused into one pass per element.
+ *
+ * <pre>
+ *   // FluentIterable.from(numbers).filter(acceptEvenNumber).transform(powerOfTwo)
+ *   List&lt;Integer&gt; view = FusedList.from(numbers).filter(acceptEvenNumber).transform(powerOfTwo).memoized();
+ * </pre>
+ *
+ * <p>A filtered view computes its size and an index of the matching source positions once, on
+ * the first call to {@link #size()} or {@link #get(int)}; afterwards {@code size()} is O(1) and
+ * {@code get(i)} goes straight to the matching source element without testing the filters again.
+ * A {@link #memoized()} view also keeps every computed element, so each function runs at most once
+ * per source element.
+ *
+ * <p>Both caches assume the source list is not structurally modified once they are built. The
+ * view is not thread-safe.
+ */
+public final class FusedList<T> extends AbstractList<T> implements RandomAccess {
+  private static final Object NOT_COMPUTED = new Object();
+
+  private final List<?> source;
+  private final FusedStages stages;
+  private final boolean memoize;
+
+  // source position of every output element; only for filtering views
+  private int[] index;
+  // computed output elements; only for memoized views
+  private Object[] values;
+
+  private FusedList(List<?> source, FusedStages stages, boolean memoize) {
+    this.source = source;
+    this.stages = stages;
+    this.memoize = memoize;
+  }
+
+  public static <T> FusedList<T> from(List<T> source) {
+    return new FusedList<T>(Preconditions.checkNotNull(source), FusedStages.identity(), false);
+  }
+
+  public FusedList<T> filter(Predicate<? super T> predicate) {
+    return new FusedList<T>(source, stages.filter(predicate), memoize);
+  }
+
+  public <R> FusedList<R> transform(Function<? super T, R> function) {
+    return new FusedList<R>(source, stages.transform(function), memoize);
+  }
+
+  /**
+   * Returns a view over the same stages that computes each element at most once.
+   */
+  public FusedList<T> memoized() {
+    return memoize ? this : new FusedList<T>(source, stages, true);
+  }
+
+  @Override
+  public int size() {
+    if (!stages.isFiltering()) {
+      return source.size();
+    }
+    return index().length;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T get(int i) {
+    Preconditions.checkElementIndex(i, size());
+    if (!memoize) {
+      return (T) stages.applyAccepted(source.get(stages.isFiltering() ? index[i] : i));
+    }
+    if (values == null) {
+      // a filtering view filled values while building the index
+      values = new Object[source.size()];
+      Arrays.fill(values, NOT_COMPUTED);
+    }
+    Object value = values[i];
+    if (value == NOT_COMPUTED) {
+      value = stages.applyAccepted(source.get(i));
+      values[i] = value;
+    }
+    return (T) value;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    if (memoize || index != null) {
+      return super.iterator();
+    }
+    // one pass over the source, nothing cached
+    final Iterator<?> it = source.iterator();
+    return new AbstractIterator<T>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      protected T computeNext() {
+        while (it.hasNext()) {
+          Object value = stages.apply(it.next());
+          if (value != FusedStages.SKIP) {
+            return (T) value;
+          }
+        }
+        return endOfData();
+      }
+    };
+  }
+
+  private int[] index() {
+    if (index == null) {
+      int[] positions = new int[source.size()];
+      Object[] computed = memoize ? new Object[source.size()] : null;
+      int size = 0;
+      int position = 0;
+      for (Object element : source) {
+        Object value = stages.apply(element);
+        if (value != FusedStages.SKIP) {
+          if (computed != null) {
+            computed[size] = value;
+          }
+          positions[size++] = position;
+        }
+        position++;
+      }
+      if (computed != null) {
+        values = Arrays.copyOf(computed, size);
+      }
+      index = Arrays.copyOf(positions, size);
+    }
+    return index;
+  }
+}
@@ -0,0 +1,122 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+
+import java.util.Arrays;
+
+/**
+ * An immutable chain of filter and transform stages that is evaluated in a single call per
+ * element. Adjacent filters are merged with {@link Predicates#and} and adjacent transforms with
+ * {@link Functions#compose}, so the chain never holds two stages of the same kind in a row.
+ */
+final class FusedStages {
+  /**
+   * Returned by {@link #apply} for elements that a filter rejected.
+   */
+  static final Object SKIP = new Object();
+
+  private static final FusedStages IDENTITY = new FusedStages(new Stage[0], false);
+
+  private final Stage[] stages;
+  private final boolean filtering;
+
+  private FusedStages(Stage[] stages, boolean filtering) {
+    this.stages = stages;
+    this.filtering = filtering;
+  }
+
+  static FusedStages identity() {
+    return IDENTITY;
+  }
+
+  /**
+   * Whether the chain can drop elements, i.e. output positions differ from source positions.
+   */
+  boolean isFiltering() {
+    return filtering;
+  }
+
+  @SuppressWarnings("unchecked")
+  FusedStages filter(Predicate<?> predicate) {
+    Preconditions.checkNotNull(predicate);
+    Stage last = last();
+    if (last != null && last.predicate != null) {
+      return replaceLast(new Stage(
+          Predicates.and(last.predicate, (Predicate<Object>) predicate), null));
+    }
+    return append(new Stage((Predicate<Object>) predicate, null), true);
+  }
+
+  @SuppressWarnings("unchecked")
+  FusedStages transform(Function<?, ?> function) {
+    Preconditions.checkNotNull(function);
+    Stage last = last();
+    if (last != null && last.function != null) {
+      return replaceLast(new Stage(null,
+          Functions.compose((Function<Object, Object>) function, last.function)));
+    }
+    return append(new Stage(null, (Function<Object, Object>) function), filtering);
+  }
+
+  /**
+   * Runs {@code input} through every stage, returning the result or {@link #SKIP}.
+   */
+  Object apply(Object input) {
+    Object value = input;
+    for (Stage stage : stages) {
+      if (stage.predicate != null) {
+        if (!stage.predicate.apply(value)) {
+          return SKIP;
+        }
+      } else {
+        value = stage.function.apply(value);
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Like {@link #apply} for an element already known to pass every filter: runs only the
+   * transforms.
+   */
+  Object applyAccepted(Object input) {
+    Object value = input;
+    for (Stage stage : stages) {
+      if (stage.function != null) {
+        value = stage.function.apply(value);
+      }
+    }
+    return value;
+  }
+
+  private Stage last() {
+    return stages.length == 0 ? null : stages[stages.length - 1];
+  }
+
+  private FusedStages replaceLast(Stage stage) {
+    Stage[] replaced = stages.clone();
+    replaced[stages.length - 1] = stage;
+    return new FusedStages(replaced, filtering);
+  }
+
+  private FusedStages append(Stage stage, boolean filtering) {
+    Stage[] appended = Arrays.copyOf(stages, stages.length + 1);
+    appended[stages.length] = stage;
+    return new FusedStages(appended, filtering);
+  }
+
+  // exactly one of the two is set
+  private static final class Stage {
+    final Predicate<Object> predicate;
+    final Function<Object, Object> function;
+
+    Stage(Predicate<Object> predicate, Function<Object, Object> function) {
+      this.predicate = predicate;
+      this.function = function;
+    }
+  }
+}
@@ -0,0 +1,220 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Opt-in counting and timing of {@link Predicate}, {@link Function} and {@link Ordering} calls, to
+ * find out which user-supplied ones dominate a pipeline.
+ *
+ * <pre>
+ *   Predicate&lt;Integer&gt; acceptEven = Instrumentation.predicate("acceptEven", acceptEvenNumber);
+ *   Ordering&lt;String&gt; byLength = Instrumentation.ordering("byLength", new OrderingByLength());
+ *   ...
+ *   for (InvocationSnapshot snapshot : Instrumentation.snapshots()) { ... }
+ * </pre>
+ *
+ * <p>Every call is counted, and predicate results are counted for selectivity; one call in
+ * {@value InvocationStats#SAMPLE_INTERVAL} is timed into a log-bucketed histogram. Wrappers with
+ * the same name share their statistics.
+ *
+ * <p>Instrumentation is off unless the {@code niuge.instrumentation} system property is
+ * {@code true} or {@link #setEnabled} turns it on. While it is off the wrapping methods return
+ * their argument itself, so code that wraps unconditionally pays nothing; turning it off later
+ * doesn't unwrap instances wrapped before.
+ */
+public final class Instrumentation {
+  public static final String OBJECT_NAME = "com.niuge.learning:type=Instrumentation";
+  static final String PREDICATE = "predicate";
+  static final String FUNCTION = "function";
+  static final String ORDERING = "ordering";
+
+  private static final ConcurrentMap<String, InvocationStats> STATS = new ConcurrentHashMap<String, InvocationStats>();
+  private static volatile boolean enabled = Boolean.getBoolean("niuge.instrumentation");
+
+  private Instrumentation() {
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  public static void setEnabled(boolean enabled) {
+    Instrumentation.enabled = enabled;
+  }
+
+  public static <T> Predicate<T> predicate(String name, final Predicate<T> predicate) {
+    Preconditions.checkNotNull(predicate);
+    if (!enabled) {
+      return predicate;
+    }
+    final InvocationStats stats = stats(name, PREDICATE);
+    return new Predicate<T>() {
+      @Override
+      public boolean apply(T input) {
+        if (!InvocationStats.sample()) {
+          stats.record();
+          return stats.recordResult(predicate.apply(input));
+        }
+        long start = System.nanoTime();
+        boolean result = predicate.apply(input);
+        stats.record(System.nanoTime() - start);
+        return stats.recordResult(result);
+      }
+
+      @Override
+      public String toString() {
+        return predicate.toString();
+      }
+    };
+  }
+
+  public static <F, T> Function<F, T> function(String name, final Function<F, T> function) {
+    Preconditions.checkNotNull(function);
+    if (!enabled) {
+      return function;
+    }
+    final InvocationStats stats = stats(name, FUNCTION);
+    return new Function<F, T>() {
+      @Override
+      public T apply(F input) {
+        if (!InvocationStats.sample()) {
+          stats.record();
+          return function.apply(input);
+        }
+        long start = System.nanoTime();
+        T result = function.apply(input);
+        stats.record(System.nanoTime() - start);
+        return result;
+      }
+
+      @Override
+      public String toString() {
+        return function.toString();
+      }
+    };
+  }
+
+  /**
+   * Counts and times {@code compare}; the other methods of the result are {@link Ordering}'s
+   * defaults built on it.
+   */
+  public static <T> Ordering<T> ordering(String name, final Ordering<T> ordering) {
+    Preconditions.checkNotNull(ordering);
+    if (!enabled) {
+      return ordering;
+    }
+    final InvocationStats stats = stats(name, ORDERING);
+    return new Ordering<T>() {
+      @Override
+      public int compare(T left, T right) {
+        if (!InvocationStats.sample()) {
+          stats.record();
+          return ordering.compare(left, right);
+        }
+        long start = System.nanoTime();
+        int result = ordering.compare(left, right);
+        stats.record(System.nanoTime() - start);
+        return result;
+      }
+
+      @Override
+      public String toString() {
+        return ordering.toString();
+      }
+    };
+  }
+
+  private static InvocationStats stats(String name, String kind) {
+    Preconditions.checkNotNull(name);
+    InvocationStats stats = STATS.get(name);
+    if (stats == null) {
+      InvocationStats created = new InvocationStats(name, kind);
+      stats = STATS.putIfAbsent(name, created);
+      if (stats == null) {
+        stats = created;
+      }
+    }
+    Preconditions.checkArgument(stats.kind.equals(kind), "%s is already instrumenting a %s", name, stats.kind);
+    return stats;
+  }
+
+  /**
+   * The statistics of every name wrapped so far, sorted by name.
+   */
+  public static List<InvocationSnapshot> snapshots() {
+    ImmutableList.Builder<InvocationSnapshot> snapshots = ImmutableList.builder();
+    for (InvocationStats stats : STATS.values()) {
+      snapshots.add(stats.snapshot());
+    }
+    return new Ordering<InvocationSnapshot>() {
+      @Override
+      public int compare(InvocationSnapshot left, InvocationSnapshot right) {
+        return left.getName().compareTo(right.getName());
+      }
+    }.immutableSortedCopy(snapshots.build());
+  }
+
+  /**
+   * The statistics of one name, or null if nothing was wrapped under it.
+   */
+  public static InvocationSnapshot snapshot(String name) {
+    InvocationStats stats = STATS.get(name);
+    return stats == null ? null : stats.snapshot();
+  }
+
+  /**
+   * Zeroes every counter; wrapped instances keep recording.
+   */
+  public static void reset() {
+    for (InvocationStats stats : STATS.values()) {
+      stats.reset();
+    }
+  }
+
+  /**
+   * Registers the {@link InstrumentationMXBean} with the platform MBean server, once.
+   */
+  public static void registerMBean() {
+    try {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(new InstrumentationBean(), new ObjectName(OBJECT_NAME));
+    } catch (InstanceAlreadyExistsException e) {
+      // registered before
+    } catch (JMException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static final class InstrumentationBean implements InstrumentationMXBean {
+    @Override
+    public boolean isEnabled() {
+      return Instrumentation.isEnabled();
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+      Instrumentation.setEnabled(enabled);
+    }
+
+    @Override
+    public List<InvocationSnapshot> getSnapshots() {
+      return Instrumentation.snapshots();
+    }
+
+    @Override
+    public void reset() {
+      Instrumentation.reset();
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package com.niuge.learning;
+
+import java.util.List;
+
+/**
+ * JMX view of {@link Instrumentation}, registered by {@link Instrumentation#registerMBean()} as
+ * {@value Instrumentation#OBJECT_NAME}.
+ */
+public interface InstrumentationMXBean {
+  boolean isEnabled();
+
+  void setEnabled(boolean enabled);
+
+  List<InvocationSnapshot> getSnapshots();
+
+  void reset();
+}
@@ -0,0 +1,230 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.OptionalInt;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * {@link com.google.common.collect.FluentIterable} for {@code int}: filter/transform stages over
+ * an {@code int[]} that never box and never allocate per element.
+ *
+ * <pre>
+ *   // FluentIterable.from(numbers).filter(acceptEvenNumber).transform(powerOfTwo)
+ *   int[] result = IntPipeline.from(numbers).filter(n -> n % 2 == 0).transform(n -> n * n).toArray();
+ * </pre>
+ *
+ * <p>Like FluentIterable the pipeline is lazy and immutable: every stage returns a new pipeline
+ * and nothing runs until a terminal method is called. {@link #from(int...)} does not copy the
+ * array, so later writes to it are visible to the pipeline.
+ */
+public final class IntPipeline {
+  private static final Stage[] NO_STAGES = new Stage[0];
+  // outside the int range, so it can't collide with a real value
+  private static final long REJECTED = Long.MIN_VALUE;
+
+  private final int[] source;
+  private final Stage[] stages;
+
+  private IntPipeline(int[] source, Stage[] stages) {
+    this.source = source;
+    this.stages = stages;
+  }
+
+  public static IntPipeline from(int... values) {
+    return new IntPipeline(Preconditions.checkNotNull(values), NO_STAGES);
+  }
+
+  /**
+   * Unboxes {@code values} once, e.g. an {@code ImmutableList<Integer>}. Collections are copied
+   * in bulk, other iterables one element at a time.
+   */
+  public static IntPipeline from(Iterable<Integer> values) {
+    Preconditions.checkNotNull(values);
+    if (values instanceof Collection) {
+      return from(Ints.toArray((Collection<Integer>) values));
+    }
+    int[] array = new int[16];
+    int size = 0;
+    for (Integer value : values) {
+      if (size == array.length) {
+        array = Arrays.copyOf(array, size * 2);
+      }
+      array[size++] = value;
+    }
+    return from(Arrays.copyOf(array, size));
+  }
+
+  /**
+   * Returns {@code g(f(x))}, the int version of {@link com.google.common.base.Functions#compose}.
+   */
+  public static IntUnaryOperator compose(IntUnaryOperator g, IntUnaryOperator f) {
+    Preconditions.checkNotNull(g);
+    Preconditions.checkNotNull(f);
+    return f.andThen(g);
+  }
+
+  public IntPipeline filter(IntPredicate predicate) {
+    return append(new Stage(Preconditions.checkNotNull(predicate), null));
+  }
+
+  public IntPipeline transform(IntUnaryOperator function) {
+    Preconditions.checkNotNull(function);
+    int last = stages.length - 1;
+    if (last >= 0 && stages[last].function != null) {
+      // two transforms in a row become one stage
+      Stage[] fused = stages.clone();
+      fused[last] = new Stage(null, stages[last].function.andThen(function));
+      return new IntPipeline(source, fused);
+    }
+    return append(new Stage(null, function));
+  }
+
+  private IntPipeline append(Stage stage) {
+    Stage[] appended = Arrays.copyOf(stages, stages.length + 1);
+    appended[stages.length] = stage;
+    return new IntPipeline(source, appended);
+  }
+
+  // the value after all stages, or REJECTED if a filter dropped it
+  private long apply(int value) {
+    for (Stage stage : stages) {
+      if (stage.predicate != null) {
+        if (!stage.predicate.test(value)) {
+          return REJECTED;
+        }
+      } else {
+        value = stage.function.applyAsInt(value);
+      }
+    }
+    return value;
+  }
+
+  public int[] toArray() {
+    int[] result = new int[source.length];
+    int size = 0;
+    for (int value : source) {
+      long applied = apply(value);
+      if (applied != REJECTED) {
+        result[size++] = (int) applied;
+      }
+    }
+    return size == result.length ? result : Arrays.copyOf(result, size);
+  }
+
+  /**
+   * Boxes the result, for handing it back to code that expects a list.
+   */
+  public ImmutableList<Integer> toList() {
+    return ImmutableList.copyOf(Ints.asList(toArray()));
+  }
+
+  public void forEach(IntConsumer action) {
+    Preconditions.checkNotNull(action);
+    for (int value : source) {
+      long applied = apply(value);
+      if (applied != REJECTED) {
+        action.accept((int) applied);
+      }
+    }
+  }
+
+  public int reduce(int identity, IntBinaryOperator accumulator) {
+    Preconditions.checkNotNull(accumulator);
+    int result = identity;
+    for (int value : source) {
+      long applied = apply(value);
+      if (applied != REJECTED) {
+        result = accumulator.applyAsInt(result, (int) applied);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Sum of the values as a {@code long}, so large batches do not overflow.
+   */
+  public long sum() {
+    long sum = 0;
+    for (int value : source) {
+      long applied = apply(value);
+      if (applied != REJECTED) {
+        sum += applied;
+      }
+    }
+    return sum;
+  }
+
+  public int size() {
+    int size = 0;
+    for (int value : source) {
+      if (apply(value) != REJECTED) {
+        size++;
+      }
+    }
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return !first().isPresent();
+  }
+
+  public OptionalInt first() {
+    for (int value : source) {
+      long applied = apply(value);
+      if (applied != REJECTED) {
+        return OptionalInt.of((int) applied);
+      }
+    }
+    return OptionalInt.empty();
+  }
+
+  public OptionalInt firstMatch(IntPredicate predicate) {
+    Preconditions.checkNotNull(predicate);
+    for (int value : source) {
+      long applied = apply(value);
+      if (applied != REJECTED && predicate.test((int) applied)) {
+        return OptionalInt.of((int) applied);
+      }
+    }
+    return OptionalInt.empty();
+  }
+
+  public boolean anyMatch(IntPredicate predicate) {
+    return firstMatch(predicate).isPresent();
+  }
+
+  public boolean allMatch(IntPredicate predicate) {
+    Preconditions.checkNotNull(predicate);
+    for (int value : source) {
+      long applied = apply(value);
+      if (applied != REJECTED && !predicate.test((int) applied)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+
+  // exactly one of the two is set
+  private static final class Stage {
+    final IntPredicate predicate;
+    final IntUnaryOperator function;
+
+    Stage(IntPredicate predicate, IntUnaryOperator function) {
+      this.predicate = predicate;
+      this.function = function;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package com.niuge.learning;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * What an instrumented predicate, function or ordering has done since it was registered or last
+ * reset. Latencies are in nanoseconds, estimated from the sampled calls, and are upper bounds
+ * within 12.5%.
+ */
+public final class InvocationSnapshot {
+  private final String name;
+  private final String kind;
+  private final long invocations;
+  private final long accepted;
+  private final long sampled;
+  private final double meanNanos;
+  private final long p50Nanos;
+  private final long p90Nanos;
+  private final long p99Nanos;
+  private final long maxNanos;
+
+  InvocationSnapshot(String name, String kind, long invocations, long accepted, long sampled, double meanNanos,
+                     long p50Nanos, long p90Nanos, long p99Nanos, long maxNanos) {
+    this.name = name;
+    this.kind = kind;
+    this.invocations = invocations;
+    this.accepted = accepted;
+    this.sampled = sampled;
+    this.meanNanos = meanNanos;
+    this.p50Nanos = p50Nanos;
+    this.p90Nanos = p90Nanos;
+    this.p99Nanos = p99Nanos;
+    this.maxNanos = maxNanos;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * "predicate", "function" or "ordering".
+   */
+  public String getKind() {
+    return kind;
+  }
+
+  public long getInvocations() {
+    return invocations;
+  }
+
+  /**
+   * How many calls of a predicate returned true; -1 for other kinds.
+   */
+  public long getAccepted() {
+    return accepted;
+  }
+
+  /**
+   * Fraction of a predicate's calls that returned true, or NaN if it has not been called or is not
+   * a predicate.
+   */
+  public double getSelectivity() {
+    return accepted < 0 || invocations == 0 ? Double.NaN : (double) accepted / invocations;
+  }
+
+  /**
+   * How many calls were timed.
+   */
+  public long getSampled() {
+    return sampled;
+  }
+
+  public double getMeanNanos() {
+    return meanNanos;
+  }
+
+  public long getP50Nanos() {
+    return p50Nanos;
+  }
+
+  public long getP90Nanos() {
+    return p90Nanos;
+  }
+
+  public long getP99Nanos() {
+    return p99Nanos;
+  }
+
+  public long getMaxNanos() {
+    return maxNanos;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("name", name)
+        .add("kind", kind)
+        .add("invocations", invocations)
+        .add("selectivity", getSelectivity())
+        .add("p50Nanos", p50Nanos)
+        .add("p99Nanos", p99Nanos)
+        .toString();
+  }
+}
@@ -0,0 +1,61 @@
+package com.niuge.learning;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The live counters behind one instrumented name. Counts use {@link LongAdder}, which gives each
+ * contending thread its own cell, and only one call in {@link #SAMPLE_INTERVAL} is timed.
+ */
+final class InvocationStats {
+  static final int SAMPLE_INTERVAL = 64;
+
+  final String name;
+  final String kind;
+  private final LongAdder invocations = new LongAdder();
+  private final LongAdder accepted = new LongAdder();
+  private final LatencyHistogram latencies = new LatencyHistogram();
+
+  InvocationStats(String name, String kind) {
+    this.name = name;
+    this.kind = kind;
+  }
+
+  /**
+   * Whether the caller should time this call.
+   */
+  static boolean sample() {
+    return (ThreadLocalRandom.current().nextInt() & (SAMPLE_INTERVAL - 1)) == 0;
+  }
+
+  void record() {
+    invocations.increment();
+  }
+
+  void record(long nanos) {
+    invocations.increment();
+    latencies.record(nanos);
+  }
+
+  boolean recordResult(boolean result) {
+    if (result) {
+      accepted.increment();
+    }
+    return result;
+  }
+
+  InvocationSnapshot snapshot() {
+    long[] counts = latencies.counts();
+    boolean predicate = Instrumentation.PREDICATE.equals(kind);
+    return new InvocationSnapshot(name, kind, invocations.sum(), predicate ? accepted.sum() : -1,
+        LatencyHistogram.total(counts), LatencyHistogram.mean(counts),
+        LatencyHistogram.percentile(counts, 50), LatencyHistogram.percentile(counts, 90),
+        LatencyHistogram.percentile(counts, 99), LatencyHistogram.percentile(counts, 100));
+  }
+
+  void reset() {
+    invocations.reset();
+    accepted.reset();
+    latencies.reset();
+  }
+}
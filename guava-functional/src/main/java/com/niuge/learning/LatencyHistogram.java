@@ -0,0 +1,104 @@
+package com.niuge.learning;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A concurrent latency histogram in the style of HdrHistogram: each power of two is split into
+ * eight linear sub-buckets, so a recorded value is known to within 12.5% over the whole range of
+ * {@code long} with a fixed 512 counters. Values below 8 are exact.
+ */
+final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = 64 << SUB_BUCKET_BITS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  void record(long value) {
+    counts.incrementAndGet(index(Math.max(value, 0)));
+  }
+
+  static int index(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS | subBucket;
+  }
+
+  static long lowestEquivalent(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = (index >>> SUB_BUCKET_BITS) - 1;
+    return (long) (SUB_BUCKETS | (index & (SUB_BUCKETS - 1))) << shift;
+  }
+
+  static long highestEquivalent(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = (index >>> SUB_BUCKET_BITS) - 1;
+    return lowestEquivalent(index) + (1L << shift) - 1;
+  }
+
+  /**
+   * A consistent-enough copy of the counts; concurrent records may or may not be included.
+   */
+  long[] counts() {
+    long[] copy = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = counts.get(i);
+    }
+    return copy;
+  }
+
+  void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts.set(i, 0);
+    }
+  }
+
+  static long total(long[] counts) {
+    long total = 0;
+    for (long count : counts) {
+      total += count;
+    }
+    return total;
+  }
+
+  /**
+   * The highest value equivalent to the one at {@code percentile} (0 to 100), or 0 if empty.
+   */
+  static long percentile(long[] counts, double percentile) {
+    long total = total(counts);
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return highestEquivalent(i);
+      }
+    }
+    return highestEquivalent(counts.length - 1);
+  }
+
+  static double mean(long[] counts) {
+    long total = total(counts);
+    if (total == 0) {
+      return 0;
+    }
+    double sum = 0;
+    for (int i = 0; i < counts.length; i++) {
+      if (counts[i] != 0) {
+        // midpoint of the bucket
+        sum += counts[i] * ((lowestEquivalent(i) + highestEquivalent(i)) / 2.0);
+      }
+    }
+    return sum / total;
+  }
+}
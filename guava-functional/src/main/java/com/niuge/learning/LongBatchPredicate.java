@@ -0,0 +1,288 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * The {@code long} counterpart of {@link IntBatchPredicate}: a predicate evaluated a chunk at a
+ * time into a bitmask, with {@link #and}, {@link #or} and {@link #not} combining mask words.
+ *
+ * <p>The comparisons use conditional moves rather than {@link IntBatchPredicate}'s widening
+ * arithmetic, since a {@code long} difference can overflow. {@link #of} adapts any
+ * {@link LongPredicate}, at the per-element cost this class otherwise avoids.
+ */
+public abstract class LongBatchPredicate {
+  protected LongBatchPredicate() {
+  }
+
+  public abstract boolean test(long value);
+
+  /**
+   * Sets bit {@code i} of {@code mask} to whether {@code values[from + i]} matches, for {@code i}
+   * below {@code length}, and clears the higher bits of the last word written.
+   */
+  public abstract void evaluate(long[] values, int from, int length, long[] mask);
+
+  // combinators override this to take their scratch masks from the caller instead of allocating
+  void evaluate(long[] values, int from, int length, long[] mask, long[][] scratch, int level) {
+    evaluate(values, from, length, mask);
+  }
+
+  /**
+   * How many scratch masks {@link #evaluate(long[], int, int, long[], long[][], int)} uses.
+   */
+  int scratchDepth() {
+    return 0;
+  }
+
+  public final long[] evaluate(long[] values) {
+    long[] mask = new long[Bitmasks.words(values.length)];
+    evaluate(values, 0, values.length, mask, Bitmasks.scratch(scratchDepth(), values.length), 0);
+    return mask;
+  }
+
+  public final int count(long[] values) {
+    long[] mask = new long[Bitmasks.CHUNK >>> 6];
+    long[][] scratch = Bitmasks.scratch(scratchDepth(), Bitmasks.CHUNK);
+    int count = 0;
+    for (int from = 0; from < values.length; from += Bitmasks.CHUNK) {
+      int length = Math.min(Bitmasks.CHUNK, values.length - from);
+      evaluate(values, from, length, mask, scratch, 0);
+      count += Bitmasks.count(mask, length);
+    }
+    return count;
+  }
+
+  /**
+   * The indexes of the matching values, in order.
+   */
+  public final int[] select(long[] values) {
+    long[] mask = new long[Bitmasks.CHUNK >>> 6];
+    long[][] scratch = Bitmasks.scratch(scratchDepth(), Bitmasks.CHUNK);
+    int[] selection = new int[values.length];
+    int size = 0;
+    for (int from = 0; from < values.length; from += Bitmasks.CHUNK) {
+      int length = Math.min(Bitmasks.CHUNK, values.length - from);
+      evaluate(values, from, length, mask, scratch, 0);
+      size = Bitmasks.select(mask, length, from, selection, size);
+    }
+    return Arrays.copyOf(selection, size);
+  }
+
+  public final long[] filter(long[] values) {
+    int[] selected = select(values);
+    long[] matches = new long[selected.length];
+    for (int i = 0; i < selected.length; i++) {
+      matches[i] = values[selected[i]];
+    }
+    return matches;
+  }
+
+  public LongBatchPredicate and(LongBatchPredicate other) {
+    return new Combined(this, other, true);
+  }
+
+  public LongBatchPredicate or(LongBatchPredicate other) {
+    return new Combined(this, other, false);
+  }
+
+  public LongBatchPredicate not() {
+    final LongBatchPredicate self = this;
+    return new LongBatchPredicate() {
+      @Override
+      public boolean test(long value) {
+        return !self.test(value);
+      }
+
+      @Override
+      public void evaluate(long[] values, int from, int length, long[] mask) {
+        evaluate(values, from, length, mask, Bitmasks.scratch(scratchDepth(), length), 0);
+      }
+
+      @Override
+      void evaluate(long[] values, int from, int length, long[] mask, long[][] scratch, int level) {
+        self.evaluate(values, from, length, mask, scratch, level);
+        Bitmasks.not(mask, length);
+      }
+
+      @Override
+      int scratchDepth() {
+        return self.scratchDepth();
+      }
+
+      @Override
+      public LongBatchPredicate not() {
+        return self;
+      }
+    };
+  }
+
+  /**
+   * This predicate as a Guava {@link Predicate}, for code that takes one.
+   */
+  public Predicate<Long> asPredicate() {
+    return new Predicate<Long>() {
+      @Override
+      public boolean apply(Long input) {
+        return LongBatchPredicate.this.test(input);
+      }
+    };
+  }
+
+  public static LongBatchPredicate even() {
+    return new Bitwise() {
+      @Override
+      long bit(long value) {
+        return ~value & 1;
+      }
+    };
+  }
+
+  public static LongBatchPredicate odd() {
+    return new Bitwise() {
+      @Override
+      long bit(long value) {
+        return value & 1;
+      }
+    };
+  }
+
+  public static LongBatchPredicate equalTo(final long target) {
+    return new Bitwise() {
+      @Override
+      long bit(long value) {
+        long x = value ^ target;
+        // sign bit of x | -x is set unless x == 0
+        return ((x | -x) >>> 63) ^ 1;
+      }
+    };
+  }
+
+  public static LongBatchPredicate lessThan(final long bound) {
+    return new Bitwise() {
+      @Override
+      long bit(long value) {
+        return value < bound ? 1 : 0;
+      }
+    };
+  }
+
+  public static LongBatchPredicate greaterThan(final long bound) {
+    return new Bitwise() {
+      @Override
+      long bit(long value) {
+        return value > bound ? 1 : 0;
+      }
+    };
+  }
+
+  /**
+   * Values in {@code [lower, upper]}.
+   */
+  public static LongBatchPredicate between(final long lower, final long upper) {
+    Preconditions.checkArgument(lower <= upper, "lower %s > upper %s", lower, upper);
+    return new Bitwise() {
+      @Override
+      long bit(long value) {
+        return lower <= value & value <= upper ? 1 : 0;
+      }
+    };
+  }
+
+  /**
+   * Any {@link LongPredicate}, still called once per value.
+   */
+  public static LongBatchPredicate of(final LongPredicate predicate) {
+    Preconditions.checkNotNull(predicate);
+    return new Bitwise() {
+      @Override
+      long bit(long value) {
+        return predicate.test(value) ? 1 : 0;
+      }
+    };
+  }
+
+  /**
+   * A predicate given by a 0-or-1 function of one value, with the one loop that packs those bits
+   * into mask words.
+   */
+  private abstract static class Bitwise extends LongBatchPredicate {
+    abstract long bit(long value);
+
+    @Override
+    public final boolean test(long value) {
+      return bit(value) != 0;
+    }
+
+    @Override
+    public final void evaluate(long[] values, int from, int length, long[] mask) {
+      checkRange(values, from, length, mask);
+      for (int w = 0, words = Bitmasks.words(length); w < words; w++) {
+        int base = from + (w << 6);
+        int n = Math.min(64, length - (w << 6));
+        long bits = 0;
+        for (int j = 0; j < n; j++) {
+          bits |= bit(values[base + j]) << j;
+        }
+        mask[w] = bits;
+      }
+    }
+  }
+
+  /**
+   * {@code and} or {@code or}. The second predicate is only evaluated when the first doesn't decide
+   * the whole chunk, into the scratch mask of this node's level.
+   */
+  private static final class Combined extends LongBatchPredicate {
+    private final LongBatchPredicate first;
+    private final LongBatchPredicate second;
+    private final boolean and;
+    private final int scratchDepth;
+
+    Combined(LongBatchPredicate first, LongBatchPredicate second, boolean and) {
+      this.first = first;
+      this.second = Preconditions.checkNotNull(second);
+      this.and = and;
+      this.scratchDepth = Math.max(first.scratchDepth(), 1 + second.scratchDepth());
+    }
+
+    @Override
+    public boolean test(long value) {
+      return and ? first.test(value) && second.test(value) : first.test(value) || second.test(value);
+    }
+
+    @Override
+    public void evaluate(long[] values, int from, int length, long[] mask) {
+      evaluate(values, from, length, mask, Bitmasks.scratch(scratchDepth, length), 0);
+    }
+
+    @Override
+    void evaluate(long[] values, int from, int length, long[] mask, long[][] scratch, int level) {
+      first.evaluate(values, from, length, mask, scratch, level);
+      int count = Bitmasks.count(mask, length);
+      if (and ? count == 0 : count == length) {
+        return;
+      }
+      long[] other = scratch[level];
+      second.evaluate(values, from, length, other, scratch, level + 1);
+      if (and) {
+        Bitmasks.and(mask, other, length);
+      } else {
+        Bitmasks.or(mask, other, length);
+      }
+    }
+
+    @Override
+    int scratchDepth() {
+      return scratchDepth;
+    }
+  }
+
+  static void checkRange(long[] values, int from, int length, long[] mask) {
+    Preconditions.checkPositionIndexes(from, from + length, values.length);
+    Preconditions.checkArgument(mask.length >= Bitmasks.words(length), "mask too short for %s values", length);
+  }
+}
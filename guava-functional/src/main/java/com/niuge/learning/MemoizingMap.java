@@ -0,0 +1,139 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * A map view of a key set and a function, like {@code Maps.asMap}, except that computed values
+ * are kept in a bounded cache. Unlike {@code Maps.asMap} the function runs once per key while the
+ * value stays cached, and unlike {@code Maps.toMap} nothing is computed up front.
+ *
+ * <pre>
+ *   Map&lt;Integer, Integer&gt; powers = MemoizingMap.asMap(lowNumbers, powerOfTwo, 10000);
+ * </pre>
+ *
+ * <p>The view is thread-safe: concurrent lookups of the same missing key wait for a single call of
+ * the function. Once the cache holds {@code maximumSize} values, the least recently used ones are
+ * evicted (approximately: the cache is split into segments that each evict on their own). The
+ * function may return null, which is cached too. Exceptions it throws are rethrown and nothing is
+ * cached.
+ *
+ * <p>The key set is not copied; later changes to it show through.
+ */
+public final class MemoizingMap<K, V> extends AbstractMap<K, V> {
+  private final Set<K> keys;
+  private final LoadingCache<K, Optional<V>> cache;
+
+  private MemoizingMap(Set<K> keys, final Function<? super K, V> function, long maximumSize) {
+    this.keys = keys;
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .recordStats()
+        .build(new CacheLoader<K, Optional<V>>() {
+          @Override
+          public Optional<V> load(K key) {
+            return Optional.fromNullable(function.apply(key));
+          }
+        });
+  }
+
+  /**
+   * @param maximumSize how many values to keep; must not be negative
+   */
+  public static <K, V> MemoizingMap<K, V> asMap(Set<K> keys, Function<? super K, V> function, long maximumSize) {
+    Preconditions.checkNotNull(keys);
+    Preconditions.checkNotNull(function);
+    Preconditions.checkArgument(maximumSize >= 0, "negative maximumSize: %s", maximumSize);
+    return new MemoizingMap<K, V>(keys, function, maximumSize);
+  }
+
+  @Override
+  public V get(Object key) {
+    if (!containsKey(key)) {
+      return null;
+    }
+    @SuppressWarnings("unchecked")
+    K k = (K) key;
+    try {
+      return cache.getUnchecked(k).orNull();
+    } catch (UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    try {
+      return keys.contains(key);
+    } catch (ClassCastException | NullPointerException e) {
+      return false;
+    }
+  }
+
+  @Override
+  public int size() {
+    return keys.size();
+  }
+
+  /**
+   * Hits, misses, load times and evictions since the map was created.
+   */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  /**
+   * How many values are cached right now.
+   */
+  public long cachedSize() {
+    return cache.size();
+  }
+
+  /**
+   * Drops every cached value, e.g. after the function's inputs changed.
+   */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new AbstractSet<Entry<K, V>>() {
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        final Iterator<K> keyIterator = keys.iterator();
+        return new Iterator<Entry<K, V>>() {
+          @Override
+          public boolean hasNext() {
+            return keyIterator.hasNext();
+          }
+
+          @Override
+          public Entry<K, V> next() {
+            K key = keyIterator.next();
+            return Maps.immutableEntry(key, get(key));
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return keys.size();
+      }
+    };
+  }
+}
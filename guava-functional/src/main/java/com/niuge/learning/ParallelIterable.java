@@ -0,0 +1,257 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A FluentIterable-style filter/transform pipeline that runs on a {@link ForkJoinPool}.
+ *
+ * <pre>
+ *   // FluentIterable.from(numbers).filter(acceptEvenNumber).transform(powerOfTwo).toList()
+ *   ImmutableList&lt;Integer&gt; result =
+ *       ParallelIterable.from(numbers).filter(acceptEvenNumber).transform(powerOfTwo).toList();
+ * </pre>
+ *
+ * <p>The source is split into contiguous chunks, sized from the element count and the pool's
+ * parallelism, and each chunk runs the fused stages in one loop. {@link #toList()} keeps the
+ * encounter order; {@link #anyMatch}, {@link #allMatch} and {@link #firstMatch} stop every
+ * worker once the answer is known. Inputs of at most {@link #withSequentialThreshold
+ * sequentialThreshold} elements run on the calling thread. Predicates and functions must be
+ * thread-safe.
+ */
+public final class ParallelIterable<T> {
+  public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 8192;
+
+  // chunks per worker, so a slow chunk doesn't leave the other workers idle
+  private static final int CHUNKS_PER_THREAD = 4;
+  // how often a worker looks at the shared short-circuit flag
+  private static final int CANCEL_CHECK_MASK = 255;
+
+  private final Object[] source;
+  private final FusedStages stages;
+  private final ForkJoinPool pool;
+  private final int sequentialThreshold;
+
+  private ParallelIterable(Object[] source, FusedStages stages, ForkJoinPool pool, int sequentialThreshold) {
+    this.source = source;
+    this.stages = stages;
+    this.pool = pool;
+    this.sequentialThreshold = sequentialThreshold;
+  }
+
+  /**
+   * Snapshots {@code source} into an array, so later changes to it are not seen.
+   */
+  public static <T> ParallelIterable<T> from(Iterable<? extends T> source) {
+    Preconditions.checkNotNull(source);
+    Object[] array = source instanceof Collection
+        ? ((Collection<?>) source).toArray()
+        : Iterables.toArray(source, Object.class);
+    return new ParallelIterable<T>(array, FusedStages.identity(), ForkJoinPool.commonPool(),
+        DEFAULT_SEQUENTIAL_THRESHOLD);
+  }
+
+  public ParallelIterable<T> withPool(ForkJoinPool pool) {
+    return new ParallelIterable<T>(source, stages, Preconditions.checkNotNull(pool), sequentialThreshold);
+  }
+
+  public ParallelIterable<T> withSequentialThreshold(int sequentialThreshold) {
+    Preconditions.checkArgument(sequentialThreshold >= 1, "sequentialThreshold must be positive: %s",
+        sequentialThreshold);
+    return new ParallelIterable<T>(source, stages, pool, sequentialThreshold);
+  }
+
+  public ParallelIterable<T> filter(Predicate<? super T> predicate) {
+    return new ParallelIterable<T>(source, stages.filter(predicate), pool, sequentialThreshold);
+  }
+
+  public <R> ParallelIterable<R> transform(Function<? super T, R> function) {
+    return new ParallelIterable<R>(source, stages.transform(function), pool, sequentialThreshold);
+  }
+
+  /**
+   * Returns the result in encounter order. Like FluentIterable, null elements are not allowed.
+   */
+  @SuppressWarnings("unchecked")
+  public ImmutableList<T> toList() {
+    if (!stages.isFiltering()) {
+      // one output slot per source element, so every chunk writes straight into the result
+      final Object[] result = new Object[source.length];
+      run(new ChunkWork() {
+        @Override
+        public void run(int chunk, int from, int to) {
+          for (int i = from; i < to; i++) {
+            result[i] = stages.apply(source[i]);
+          }
+        }
+      }, null);
+      return (ImmutableList<T>) ImmutableList.copyOf(result);
+    }
+
+    final Object[][] segments = new Object[chunkCount()][];
+    run(new ChunkWork() {
+      @Override
+      public void run(int chunk, int from, int to) {
+        List<Object> accepted = new ArrayList<Object>();
+        for (int i = from; i < to; i++) {
+          Object value = stages.apply(source[i]);
+          if (value != FusedStages.SKIP) {
+            accepted.add(value);
+          }
+        }
+        segments[chunk] = accepted.toArray();
+      }
+    }, null);
+    ImmutableList.Builder<Object> builder = ImmutableList.builder();
+    for (Object[] segment : segments) {
+      builder.add(segment);
+    }
+    return (ImmutableList<T>) builder.build();
+  }
+
+  public int size() {
+    final int[] counts = new int[chunkCount()];
+    run(new ChunkWork() {
+      @Override
+      public void run(int chunk, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+          if (stages.apply(source[i]) != FusedStages.SKIP) {
+            count++;
+          }
+        }
+        counts[chunk] = count;
+      }
+    }, null);
+    int size = 0;
+    for (int count : counts) {
+      size += count;
+    }
+    return size;
+  }
+
+  public boolean anyMatch(final Predicate<? super T> predicate) {
+    Preconditions.checkNotNull(predicate);
+    final AtomicBoolean found = new AtomicBoolean();
+    run(new ChunkWork() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public void run(int chunk, int from, int to) {
+        for (int i = from; i < to; i++) {
+          if ((i & CANCEL_CHECK_MASK) == 0 && found.get()) {
+            return;
+          }
+          Object value = stages.apply(source[i]);
+          if (value != FusedStages.SKIP && predicate.apply((T) value)) {
+            found.set(true);
+            return;
+          }
+        }
+      }
+    }, found);
+    return found.get();
+  }
+
+  public boolean allMatch(final Predicate<? super T> predicate) {
+    Preconditions.checkNotNull(predicate);
+    return !anyMatch(new Predicate<T>() {
+      @Override
+      public boolean apply(T input) {
+        return !predicate.apply(input);
+      }
+    });
+  }
+
+  /**
+   * Returns the first matching element in encounter order, like FluentIterable.firstMatch.
+   * Chunks after the earliest match found so far are abandoned.
+   */
+  @SuppressWarnings("unchecked")
+  public Optional<T> firstMatch(final Predicate<? super T> predicate) {
+    Preconditions.checkNotNull(predicate);
+    final int chunkCount = chunkCount();
+    final Object[] matches = new Object[chunkCount];
+    final AtomicInteger firstChunk = new AtomicInteger(chunkCount);
+    run(new ChunkWork() {
+      @Override
+      public void run(int chunk, int from, int to) {
+        for (int i = from; i < to; i++) {
+          if ((i & CANCEL_CHECK_MASK) == 0 && firstChunk.get() < chunk) {
+            return;
+          }
+          Object value = stages.apply(source[i]);
+          if (value != FusedStages.SKIP && predicate.apply((T) value)) {
+            matches[chunk] = value;
+            firstChunk.accumulateAndGet(chunk, Math::min);
+            return;
+          }
+        }
+      }
+    }, null);
+    int chunk = firstChunk.get();
+    return chunk == chunkCount ? Optional.<T>absent() : Optional.of((T) matches[chunk]);
+  }
+
+  public Optional<T> first() {
+    return firstMatch(Predicates.<T>alwaysTrue());
+  }
+
+  private boolean sequential() {
+    return source.length <= sequentialThreshold || pool.getParallelism() == 1;
+  }
+
+  private int chunkCount() {
+    if (sequential()) {
+      return 1;
+    }
+    int bySize = (source.length + sequentialThreshold - 1) / sequentialThreshold;
+    return Math.max(1, Math.min(bySize, pool.getParallelism() * CHUNKS_PER_THREAD));
+  }
+
+  // cancelled may be null; chunks that haven't started are skipped once it is set
+  private void run(final ChunkWork work, final AtomicBoolean cancelled) {
+    final int chunkCount = chunkCount();
+    if (chunkCount == 1) {
+      work.run(0, 0, source.length);
+      return;
+    }
+    final List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(chunkCount);
+    for (int chunk = 0; chunk < chunkCount; chunk++) {
+      final int c = chunk;
+      final int from = (int) ((long) source.length * chunk / chunkCount);
+      final int to = (int) ((long) source.length * (chunk + 1) / chunkCount);
+      tasks.add(ForkJoinTask.adapt(new Runnable() {
+        @Override
+        public void run() {
+          if (cancelled == null || !cancelled.get()) {
+            work.run(c, from, to);
+          }
+        }
+      }));
+    }
+    pool.invoke(new RecursiveAction() {
+      @Override
+      protected void compute() {
+        invokeAll(tasks);
+      }
+    });
+  }
+
+  private interface ChunkWork {
+    void run(int chunk, int from, int to);
+  }
+}
@@ -0,0 +1,144 @@
+package com.niuge.learning;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class TestAdaptivePredicate {
+  private static Predicate<Integer> divisibleBy(final int divisor) {
+    return new Predicate<Integer>() {
+      @Override
+      public boolean apply(Integer number) {
+        return number % divisor == 0;
+      }
+
+      @Override
+      public String toString() {
+        return "divisibleBy(" + divisor + ")";
+      }
+    };
+  }
+
+  private static Predicate<Integer> slow(final Predicate<Integer> predicate) {
+    return new Predicate<Integer>() {
+      @Override
+      public boolean apply(Integer number) {
+        long until = System.nanoTime() + 2000;
+        while (System.nanoTime() < until) {
+          // spin
+        }
+        return predicate.apply(number);
+      }
+    };
+  }
+
+  @Test
+  public void givenRandomClauses_testAndOr_thenSameAsPredicates() {
+    Random random = new Random(42);
+    for (int round = 0; round < 20; round++) {
+      List<Predicate<Integer>> clauses = Lists.newArrayList();
+      for (int i = 0, n = 1 + random.nextInt(30); i < n; i++) {
+        Predicate<Integer> clause = divisibleBy(1 + random.nextInt(4));
+        clauses.add(random.nextBoolean() ? clause : Predicates.not(clause));
+      }
+      Predicate<Integer> and = AdaptivePredicate.and(clauses);
+      Predicate<Integer> or = AdaptivePredicate.or(clauses);
+      Predicate<Integer> expectedAnd = Predicates.and(clauses);
+      Predicate<Integer> expectedOr = Predicates.or(clauses);
+      for (int i = 0; i < 20000; i++) {
+        int number = random.nextInt(1000);
+        assertThat(and.apply(number), equalTo(expectedAnd.apply(number)));
+        assertThat(or.apply(number), equalTo(expectedOr.apply(number)));
+      }
+    }
+  }
+
+  @Test
+  public void givenNoClauses_testAndOr_thenIdentity() {
+    assertTrue(AdaptivePredicate.<Integer>and().apply(1));
+    assertFalse(AdaptivePredicate.<Integer>or().apply(1));
+  }
+
+  @Test
+  public void givenCheapRejectingClauseLast_testAnd_thenMovedFirst() {
+    Predicate<Integer> passesAlmostAll = slow(Predicates.not(divisibleBy(100)));
+    Predicate<Integer> acceptEven = divisibleBy(2);
+    AdaptivePredicate<Integer> and = AdaptivePredicate.and(passesAlmostAll, acceptEven);
+    for (int i = 0; i < 100000; i++) {
+      and.apply(i);
+    }
+    List<Predicate<? super Integer>> order = and.currentOrder();
+    assertThat(order.get(0), sameInstance((Object) acceptEven));
+    assertThat(order.get(1), sameInstance((Object) passesAlmostAll));
+  }
+
+  @Test
+  public void givenCheapAcceptingClauseLast_testOr_thenMovedFirst() {
+    Predicate<Integer> rejectsAlmostAll = slow(divisibleBy(100));
+    Predicate<Integer> acceptOdd = Predicates.not(divisibleBy(2));
+    AdaptivePredicate<Integer> or = AdaptivePredicate.or(rejectsAlmostAll, acceptOdd);
+    for (int i = 0; i < 100000; i++) {
+      or.apply(i);
+    }
+    assertThat(or.currentOrder().get(0), sameInstance((Object) acceptOdd));
+  }
+
+  @Test
+  public void givenGuardMovedBack_testAnd_thenReplayedInDeclarationOrder() {
+    Predicate<String> notNull = new Predicate<String>() {
+      @Override
+      public boolean apply(String input) {
+        long until = System.nanoTime() + 2000;
+        while (System.nanoTime() < until) {
+          // spin
+        }
+        return input != null;
+      }
+    };
+    Predicate<String> shorterThan3 = new Predicate<String>() {
+      @Override
+      public boolean apply(String input) {
+        return input.length() < 3;
+      }
+    };
+    AdaptivePredicate<String> and = AdaptivePredicate.and(notNull, shorterThan3);
+    for (int i = 0; i < 100000; i++) {
+      and.apply(i % 10 == 0 ? "a" : "abcd");
+    }
+    assertThat(and.currentOrder().get(0), sameInstance((Object) shorterThan3));
+    for (int i = 0; i < 1000; i++) {
+      assertFalse(and.apply(null));
+    }
+  }
+
+  @Test
+  public void givenThrowingClauseFirst_testAnd_thenThrowsLikePredicatesWithoutReplay() {
+    final AtomicInteger calls = new AtomicInteger();
+    Predicate<String> isEmpty = new Predicate<String>() {
+      @Override
+      public boolean apply(String input) {
+        calls.incrementAndGet();
+        return input.isEmpty();
+      }
+    };
+    try {
+      AdaptivePredicate.and(isEmpty, Predicates.<String>notNull()).apply(null);
+      fail();
+    } catch (NullPointerException expected) {
+      // still in declaration order, so nothing to replay
+      assertThat(calls.get(), equalTo(1));
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package com.niuge.learning;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+
+public class TestBatchPredicates {
+  private static int[] randomInts(int length) {
+    Random random = new Random(42);
+    int[] values = new int[length];
+    for (int i = 0; i < length; i++) {
+      values[i] = random.nextInt(8) == 0 ? random.nextInt(21) - 10 : random.nextInt();
+    }
+    values[0] = Integer.MIN_VALUE;
+    values[1] = Integer.MAX_VALUE;
+    return values;
+  }
+
+  private static long[] randomLongs(int length) {
+    Random random = new Random(42);
+    long[] values = new long[length];
+    for (int i = 0; i < length; i++) {
+      values[i] = random.nextInt(8) == 0 ? random.nextInt(21) - 10 : random.nextLong();
+    }
+    values[0] = Long.MIN_VALUE;
+    values[1] = Long.MAX_VALUE;
+    return values;
+  }
+
+  private static void assertMatchesScalar(IntBatchPredicate predicate, int[] values) {
+    long[] mask = predicate.evaluate(values);
+    int count = 0;
+    for (int i = 0; i < values.length; i++) {
+      boolean expected = predicate.test(values[i]);
+      assertThat("value " + values[i], (mask[i >>> 6] >>> i & 1) == 1, equalTo(expected));
+      count += expected ? 1 : 0;
+    }
+    for (int i = values.length; i < mask.length * 64; i++) {
+      assertThat((mask[i >>> 6] >>> i & 1), equalTo(0L));
+    }
+    assertThat(predicate.count(values), equalTo(count));
+    assertThat(predicate.filter(values).length, equalTo(count));
+  }
+
+  private static void assertMatchesScalar(LongBatchPredicate predicate, long[] values) {
+    long[] mask = predicate.evaluate(values);
+    int count = 0;
+    for (int i = 0; i < values.length; i++) {
+      boolean expected = predicate.test(values[i]);
+      assertThat("value " + values[i], (mask[i >>> 6] >>> i & 1) == 1, equalTo(expected));
+      count += expected ? 1 : 0;
+    }
+    assertThat(predicate.count(values), equalTo(count));
+    assertThat(predicate.filter(values).length, equalTo(count));
+  }
+
+  @Test
+  public void givenIntPredicates_testEvaluate_thenSameAsTest() {
+    for (int length : new int[]{2, 63, 64, 65, 1000, 3000}) {
+      int[] values = randomInts(length);
+      List<IntBatchPredicate> predicates = ImmutableList.of(
+          IntBatchPredicate.even(), IntBatchPredicate.odd(), IntBatchPredicate.equalTo(3),
+          IntBatchPredicate.equalTo(Integer.MIN_VALUE), IntBatchPredicate.lessThan(0),
+          IntBatchPredicate.lessThan(Integer.MIN_VALUE), IntBatchPredicate.greaterThan(5),
+          IntBatchPredicate.between(-5, 5), IntBatchPredicate.between(Integer.MIN_VALUE, Integer.MAX_VALUE),
+          IntBatchPredicate.of(value -> value % 3 == 0),
+          IntBatchPredicate.even().and(IntBatchPredicate.lessThan(0)),
+          IntBatchPredicate.odd().or(IntBatchPredicate.between(-10, 10)),
+          IntBatchPredicate.greaterThan(0).not(),
+          IntBatchPredicate.greaterThan(0).not().not(),
+          // nested on the right, so every level needs its own scratch mask
+          IntBatchPredicate.lessThan(100).and(IntBatchPredicate.odd().or(
+              IntBatchPredicate.lessThan(0).and(IntBatchPredicate.between(-5, 5).not()))).not());
+      for (IntBatchPredicate predicate : predicates) {
+        assertMatchesScalar(predicate, values);
+      }
+    }
+  }
+
+  @Test
+  public void givenLongPredicates_testEvaluate_thenSameAsTest() {
+    for (int length : new int[]{2, 63, 64, 65, 3000}) {
+      long[] values = randomLongs(length);
+      List<LongBatchPredicate> predicates = ImmutableList.of(
+          LongBatchPredicate.even(), LongBatchPredicate.odd(), LongBatchPredicate.equalTo(3),
+          LongBatchPredicate.lessThan(0), LongBatchPredicate.greaterThan(Long.MAX_VALUE),
+          LongBatchPredicate.between(-5, 5), LongBatchPredicate.of(value -> value % 3 == 0),
+          LongBatchPredicate.even().and(LongBatchPredicate.lessThan(0)).or(LongBatchPredicate.equalTo(7)),
+          LongBatchPredicate.between(-5, 5).not());
+      for (LongBatchPredicate predicate : predicates) {
+        assertMatchesScalar(predicate, values);
+      }
+    }
+  }
+
+  @Test
+  public void givenNumbers_testFilterAndSelect_thenOk() {
+    int[] numbers = {1, 2, 3, 6, 10, 12, -4};
+    IntBatchPredicate acceptEven = IntBatchPredicate.even();
+    assertThat(Ints.asList(acceptEven.filter(numbers)), equalTo(Ints.asList(2, 6, 10, 12, -4)));
+    assertThat(Ints.asList(acceptEven.and(IntBatchPredicate.lessThan(10).not()).select(numbers)),
+        equalTo(Ints.asList(4, 5)));
+    assertThat(LongBatchPredicate.odd().filter(new long[]{1, 2, 3})[1], equalTo(3L));
+
+    Predicate<Integer> acceptOdd = IntBatchPredicate.odd().asPredicate();
+    assertTrue(Iterables.all(Ints.asList(1, 3, 5), acceptOdd));
+    assertFalse(acceptOdd.apply(2));
+  }
+
+  @Test
+  public void givenSlice_testEvaluate_thenOnlySliceEvaluated() {
+    int[] numbers = {1, 2, 4, 6, 7};
+    long[] mask = new long[1];
+    IntBatchPredicate.even().evaluate(numbers, 1, 3, mask);
+    assertThat(mask[0], equalTo(0b111L));
+    IntBatchPredicate.even().and(IntBatchPredicate.lessThan(5).or(IntBatchPredicate.equalTo(7)))
+        .evaluate(numbers, 1, 4, mask);
+    assertThat(mask[0], equalTo(0b011L));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void givenBadRange_testEvaluate_thenFail() {
+    IntBatchPredicate.even().evaluate(new int[3], 2, 2, new long[1]);
+  }
+}
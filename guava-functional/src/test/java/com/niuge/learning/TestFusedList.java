@@ -0,0 +1,108 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+public class TestFusedList {
+  private final AtomicInteger predicateCalls = new AtomicInteger();
+  private final AtomicInteger functionCalls = new AtomicInteger();
+
+  private final Predicate<Integer> acceptEvenNumber = new Predicate<Integer>() {
+    @Override
+    public boolean apply(Integer number) {
+      predicateCalls.incrementAndGet();
+      return (number % 2) == 0;
+    }
+  };
+
+  private final Function<Integer, Integer> powerOfTwo = new Function<Integer, Integer>() {
+    @Override
+    public Integer apply(Integer input) {
+      functionCalls.incrementAndGet();
+      return (int) Math.pow(input, 2);
+    }
+  };
+
+  @Test
+  public void givenComplexFunction_testTransform_thenOk() {
+    List<Integer> numbers = Arrays.asList(2, 1, 11, 100, 8, 14);
+    List<Integer> powerOfTwoOnlyForEvenNumbers =
+        FusedList.from(numbers).filter(acceptEvenNumber).transform(powerOfTwo);
+    assertThat(powerOfTwoOnlyForEvenNumbers, contains(4, 10000, 64, 196));
+    assertThat(powerOfTwoOnlyForEvenNumbers,
+        equalTo(FluentIterable.from(numbers).filter(acceptEvenNumber).transform(powerOfTwo).toList()));
+  }
+
+  @Test
+  public void givenFunction_testTransform_thenOk() {
+    List<Integer> result = FusedList.from(Arrays.asList(2, 3)).transform(powerOfTwo).transform(powerOfTwo);
+    assertThat(result, contains(16, 81));
+    assertThat(result.get(1), equalTo(81));
+  }
+
+  @Test
+  public void givenFilter_testSizeComputedOnce_thenOk() {
+    List<Integer> numbers = Lists.newArrayList(1, 2, 3, 6, 10, 34, 57, 89);
+    List<Integer> evenNumbers = FusedList.from(numbers).filter(acceptEvenNumber);
+    assertThat(evenNumbers.size(), equalTo(4));
+    assertThat(evenNumbers.size(), equalTo(4));
+    assertThat(predicateCalls.get(), equalTo(numbers.size()));
+
+    // random access goes through the index, without testing the predicate again
+    assertThat(evenNumbers.get(3), equalTo(34));
+    assertThat(evenNumbers.get(0), equalTo(2));
+    assertThat(predicateCalls.get(), equalTo(numbers.size()));
+  }
+
+  @Test
+  public void givenMemoized_testFunctionCalledOnce_thenOk() {
+    List<Integer> numbers = Arrays.asList(2, 1, 11, 100, 8, 14);
+    List<Integer> view = FusedList.from(numbers).filter(acceptEvenNumber).transform(powerOfTwo).memoized();
+    for (int i = 0; i < 3; i++) {
+      assertThat(view, contains(4, 10000, 64, 196));
+    }
+    assertThat(view.get(2), equalTo(64));
+    assertThat(functionCalls.get(), equalTo(4));
+    assertThat(predicateCalls.get(), equalTo(numbers.size()));
+  }
+
+  @Test
+  public void givenNotMemoized_testFunctionCalledEveryTime_thenOk() {
+    List<Integer> view = FusedList.from(Arrays.asList(2, 3)).transform(powerOfTwo);
+    assertThat(view, contains(4, 9));
+    assertThat(view, contains(4, 9));
+    assertThat(functionCalls.get(), equalTo(4));
+  }
+
+  @Test
+  public void givenMemoizedWithoutFilter_testGet_thenOk() {
+    List<Integer> view = FusedList.from(Arrays.asList(2, 3, 4)).transform(powerOfTwo).memoized();
+    assertThat(view.get(2), equalTo(16));
+    assertThat(view.get(2), equalTo(16));
+    assertThat(view, contains(4, 9, 16));
+    assertThat(functionCalls.get(), equalTo(3));
+  }
+
+  @Test
+  public void givenFilterRejectingAll_testEmpty_thenOk() {
+    List<Integer> view = FusedList.from(Arrays.asList(1, 3, 5)).filter(acceptEvenNumber);
+    assertThat(view, empty());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void givenFilter_testGetOutOfRange_thenException() {
+    FusedList.from(Arrays.asList(1, 2, 3)).filter(acceptEvenNumber).get(1);
+  }
+}
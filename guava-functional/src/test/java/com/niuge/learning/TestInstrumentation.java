@@ -0,0 +1,135 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class TestInstrumentation {
+  private final Predicate<Integer> acceptEvenNumber = new Predicate<Integer>() {
+    @Override
+    public boolean apply(Integer number) {
+      return (number % 2) == 0;
+    }
+  };
+
+  private final Function<Integer, Integer> powerOfTwo = new Function<Integer, Integer>() {
+    @Override
+    public Integer apply(Integer input) {
+      return (int) Math.pow(input, 2);
+    }
+  };
+
+  @After
+  public void tearDown() {
+    Instrumentation.setEnabled(false);
+    Instrumentation.reset();
+  }
+
+  @Test
+  public void givenDisabled_testWrap_thenSameInstance() {
+    Instrumentation.setEnabled(false);
+    assertThat(Instrumentation.predicate("acceptEven", acceptEvenNumber), sameInstance(acceptEvenNumber));
+    assertThat(Instrumentation.function("powerOfTwo", powerOfTwo), sameInstance(powerOfTwo));
+    Ordering<Integer> natural = Ordering.natural();
+    assertThat(Instrumentation.ordering("natural", natural), sameInstance(natural));
+  }
+
+  @Test
+  public void givenEnabled_testPredicateAndFunction_thenCounted() {
+    Instrumentation.setEnabled(true);
+    Predicate<Integer> acceptEven = Instrumentation.predicate("test.acceptEven", acceptEvenNumber);
+    Function<Integer, Integer> power = Instrumentation.function("test.powerOfTwo", powerOfTwo);
+    List<Integer> numbers = Lists.newArrayList();
+    for (int i = 0; i < 10000; i++) {
+      numbers.add(i % 4);
+    }
+    List<Integer> result = Lists.newArrayList(Iterables.transform(Iterables.filter(numbers, acceptEven), power));
+    assertThat(result.size(), equalTo(5000));
+
+    InvocationSnapshot predicate = Instrumentation.snapshot("test.acceptEven");
+    assertThat(predicate.getKind(), equalTo("predicate"));
+    assertThat(predicate.getInvocations(), equalTo(10000L));
+    assertThat(predicate.getAccepted(), equalTo(5000L));
+    assertThat(predicate.getSelectivity(), closeTo(0.5, 1e-9));
+    assertTrue(predicate.getSampled() > 0);
+    assertThat(predicate.getP50Nanos(), lessThanOrEqualTo(predicate.getP99Nanos()));
+
+    InvocationSnapshot function = Instrumentation.snapshot("test.powerOfTwo");
+    assertThat(function.getInvocations(), equalTo(5000L));
+    assertTrue(Double.isNaN(function.getSelectivity()));
+  }
+
+  @Test
+  public void givenEnabled_testOrdering_thenCounted() {
+    Instrumentation.setEnabled(true);
+    Ordering<String> byLength = Instrumentation.ordering("test.byLength", new Ordering<String>() {
+      @Override
+      public int compare(String left, String right) {
+        return Integer.compare(left.length(), right.length());
+      }
+    });
+    assertThat(byLength.sortedCopy(Lists.newArrayList("ccc", "a", "bb")), equalTo(Lists.newArrayList("a", "bb", "ccc")));
+    assertThat(Instrumentation.snapshot("test.byLength").getInvocations(), greaterThanOrEqualTo(2L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenNameOfOtherKind_testWrap_thenFail() {
+    Instrumentation.setEnabled(true);
+    Instrumentation.predicate("test.shared", acceptEvenNumber);
+    Instrumentation.function("test.shared", powerOfTwo);
+  }
+
+  @Test
+  public void givenMBean_testGetSnapshots_thenOk() throws Exception {
+    Instrumentation.setEnabled(true);
+    Instrumentation.predicate("test.mbean", acceptEvenNumber).apply(2);
+    Instrumentation.registerMBean();
+    Instrumentation.registerMBean();
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName(Instrumentation.OBJECT_NAME);
+    assertThat(server.getAttribute(name, "Enabled"), equalTo((Object) true));
+    CompositeData[] snapshots = (CompositeData[]) server.getAttribute(name, "Snapshots");
+    boolean found = false;
+    for (CompositeData snapshot : snapshots) {
+      if ("test.mbean".equals(snapshot.get("name"))) {
+        assertThat(snapshot.get("invocations"), equalTo((Object) 1L));
+        found = true;
+      }
+    }
+    assertTrue(found);
+  }
+
+  @Test
+  public void givenValues_testHistogramBuckets_thenWithinOneEighth() {
+    for (long value : new long[]{0, 1, 7, 8, 9, 15, 16, 17, 1000, 123456789, Long.MAX_VALUE}) {
+      int index = LatencyHistogram.index(value);
+      assertThat(LatencyHistogram.lowestEquivalent(index), lessThanOrEqualTo(value));
+      assertThat(LatencyHistogram.highestEquivalent(index), greaterThanOrEqualTo(value));
+      assertTrue(LatencyHistogram.highestEquivalent(index) - value <= value / 8);
+    }
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i * 1000);
+    }
+    long p50 = LatencyHistogram.percentile(histogram.counts(), 50);
+    assertTrue(p50 >= 50000 && p50 <= 50000 * 9 / 8);
+  }
+}
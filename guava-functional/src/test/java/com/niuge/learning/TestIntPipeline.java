@@ -0,0 +1,82 @@
+package com.niuge.learning;
+
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertFalse;
+
+public class TestIntPipeline {
+  private static final IntUnaryOperator POWER_OF_TWO = n -> n * n;
+
+  @Test
+  public void givenComplexFunction_testTransform_thenOk() {
+    int[] numbers = {2, 1, 11, 100, 8, 14};
+    int[] powerOfTwoOnlyForEvenNumbers =
+        IntPipeline.from(numbers).filter(n -> n % 2 == 0).transform(POWER_OF_TWO).toArray();
+    assertThat(powerOfTwoOnlyForEvenNumbers, equalTo(new int[]{4, 10000, 64, 196}));
+  }
+
+  @Test
+  public void givenFunction_testCompose_thenOk() {
+    int[] result = IntPipeline.from(2, 3).transform(IntPipeline.compose(POWER_OF_TWO, POWER_OF_TWO)).toArray();
+    assertThat(result, equalTo(new int[]{16, 81}));
+  }
+
+  @Test
+  public void givenStages_testSameAsFluentIterable_thenOk() {
+    List<Integer> numbers = Arrays.asList(5, -3, 8, 0, 13, 42, 7, -10);
+    ImmutableList<Integer> expected = FluentIterable.from(numbers)
+        .transform(n -> n + 1)
+        .filter(n -> n % 2 == 0)
+        .transform(n -> n * 3)
+        .filter(n -> n > 0)
+        .toList();
+
+    IntPipeline pipeline = IntPipeline.from(numbers)
+        .transform(n -> n + 1)
+        .filter(n -> n % 2 == 0)
+        .transform(n -> n * 3)
+        .filter(n -> n > 0);
+    assertThat(pipeline.toList(), equalTo(expected));
+    assertThat(pipeline.size(), equalTo(expected.size()));
+    assertThat(pipeline.sum(), equalTo(18L + 42L + 24L));
+    assertThat(pipeline.reduce(0, Math::max), equalTo(42));
+  }
+
+  @Test
+  public void givenIterable_testFrom_thenOk() {
+    Iterable<Integer> numbers = FluentIterable.from(Lists.newArrayList(1, 2, 3, 6));
+    assertThat(IntPipeline.from(numbers).filter(n -> n % 2 == 0).toList(), contains(2, 6));
+    assertThat(IntPipeline.from(ImmutableList.of(1, 2, 3)).transform(POWER_OF_TWO).toList(), contains(1, 4, 9));
+  }
+
+  @Test
+  public void givenPredicates_testMatch_thenOk() {
+    IntPipeline evenNumbers = IntPipeline.from(2, 6, 8, 10, 34, 90);
+    assertTrue(evenNumbers.allMatch(n -> n % 2 == 0));
+    assertFalse(evenNumbers.anyMatch(n -> n % 2 != 0));
+    assertThat(evenNumbers.firstMatch(n -> n > 9).getAsInt(), equalTo(10));
+    assertThat(evenNumbers.filter(n -> n > 100).first().isPresent(), equalTo(false));
+    assertTrue(evenNumbers.filter(n -> n > 100).isEmpty());
+  }
+
+  @Test
+  public void givenPipeline_testImmutable_thenOk() {
+    IntPipeline all = IntPipeline.from(1, 2, 3, 4);
+    IntPipeline squared = all.transform(POWER_OF_TWO);
+    IntPipeline squaredPlusOne = squared.transform(n -> n + 1);
+    assertThat(all.toArray(), equalTo(new int[]{1, 2, 3, 4}));
+    assertThat(squared.toArray(), equalTo(new int[]{1, 4, 9, 16}));
+    assertThat(squaredPlusOne.toArray(), equalTo(new int[]{2, 5, 10, 17}));
+  }
+}
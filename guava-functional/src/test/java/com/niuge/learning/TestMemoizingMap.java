@@ -0,0 +1,121 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ContiguousSet;
+import com.google.common.collect.DiscreteDomain;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertFalse;
+
+public class TestMemoizingMap {
+  static class CountingPowerOfTwo implements Function<Integer, Integer> {
+    final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    public Integer apply(Integer input) {
+      calls.incrementAndGet();
+      return input * input;
+    }
+  }
+
+  @Test
+  public void givenPowerOfTwo_testMemoizingMap_thenComputedOnce() {
+    CountingPowerOfTwo powerOfTwo = new CountingPowerOfTwo();
+    Set<Integer> lowNumbers = Sets.newHashSet(2, 3, 4);
+    MemoizingMap<Integer, Integer> map = MemoizingMap.asMap(lowNumbers, powerOfTwo, 100);
+    assertThat(powerOfTwo.calls.get(), equalTo(0));
+    assertThat(map.get(2), equalTo(4));
+    assertThat(map.get(2), equalTo(4));
+    assertThat(powerOfTwo.calls.get(), equalTo(1));
+    assertThat(map.get(5), nullValue());
+    assertThat(map.get("2"), nullValue());
+    assertThat(powerOfTwo.calls.get(), equalTo(1));
+    assertThat(map, equalTo((Map<Integer, Integer>) ImmutableMap.of(2, 4, 3, 9, 4, 16)));
+    assertThat(map.stats().hitCount(), equalTo(2L));
+    assertThat(map.stats().missCount(), equalTo(3L));
+  }
+
+  @Test
+  public void givenSmallMaximumSize_testMemoizingMap_thenEvicts() {
+    CountingPowerOfTwo powerOfTwo = new CountingPowerOfTwo();
+    Set<Integer> numbers = ContiguousSet.create(Range.closedOpen(0, 1000), DiscreteDomain.integers());
+    MemoizingMap<Integer, Integer> map = MemoizingMap.asMap(numbers, powerOfTwo, 10);
+    for (int i = 0; i < 1000; i++) {
+      assertThat(map.get(i), equalTo(i * i));
+    }
+    assertThat(map.cachedSize(), lessThanOrEqualTo(10L));
+    assertTrue(map.stats().evictionCount() >= 990);
+  }
+
+  @Test
+  public void givenNullResult_testMemoizingMap_thenCached() {
+    CountingPowerOfTwo calls = new CountingPowerOfTwo();
+    MemoizingMap<Integer, Integer> map = MemoizingMap.asMap(Sets.newHashSet(1), new Function<Integer, Integer>() {
+      @Override
+      public Integer apply(Integer input) {
+        calls.apply(input);
+        return null;
+      }
+    }, 10);
+    assertThat(map.get(1), nullValue());
+    assertThat(map.get(1), nullValue());
+    assertTrue(map.containsKey(1));
+    assertFalse(map.containsKey(null));
+    assertThat(calls.calls.get(), equalTo(1));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void givenThrowingFunction_testGet_thenRethrown() {
+    MemoizingMap.asMap(Sets.newHashSet(1), new Function<Integer, Integer>() {
+      @Override
+      public Integer apply(Integer input) {
+        throw new IllegalStateException();
+      }
+    }, 10).get(1);
+  }
+
+  @Test
+  public void givenConcurrentReaders_testGet_thenComputedOncePerKey() throws Exception {
+    final CountingPowerOfTwo powerOfTwo = new CountingPowerOfTwo();
+    final MemoizingMap<Integer, Integer> map = MemoizingMap.asMap(
+        ContiguousSet.create(Range.closedOpen(0, 100), DiscreteDomain.integers()), powerOfTwo, 1000);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    final CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      futures.add(executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < 100; i++) {
+          assertThat(map.get(i), equalTo(i * i));
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertThat(powerOfTwo.calls.get(), equalTo(100));
+  }
+}
@@ -0,0 +1,109 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.number.OrderingComparison.lessThan;
+import static org.junit.Assert.assertFalse;
+
+public class TestParallelIterable {
+  private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+  private static final Predicate<Integer> ACCEPT_EVEN_NUMBER = new Predicate<Integer>() {
+    @Override
+    public boolean apply(Integer number) {
+      return (number % 2) == 0;
+    }
+  };
+
+  private static final Function<Integer, Integer> POWER_OF_TWO = new Function<Integer, Integer>() {
+    @Override
+    public Integer apply(Integer input) {
+      return (int) Math.pow(input, 2);
+    }
+  };
+
+  @AfterClass
+  public static void shutdownPool() {
+    POOL.shutdown();
+  }
+
+  private static List<Integer> range(int size) {
+    List<Integer> numbers = Lists.newArrayListWithCapacity(size);
+    for (int i = 0; i < size; i++) {
+      numbers.add(i);
+    }
+    return numbers;
+  }
+
+  @Test
+  public void givenComplexFunction_testTransform_thenOk() {
+    List<Integer> numbers = Arrays.asList(2, 1, 11, 100, 8, 14);
+    List<Integer> powerOfTwoOnlyForEvenNumbers = ParallelIterable.from(numbers)
+        .withPool(POOL).withSequentialThreshold(1)
+        .filter(ACCEPT_EVEN_NUMBER).transform(POWER_OF_TWO).toList();
+    assertThat(powerOfTwoOnlyForEvenNumbers, contains(4, 10000, 64, 196));
+  }
+
+  @Test
+  public void givenLargeInput_testKeepsEncounterOrder_thenOk() {
+    List<Integer> numbers = range(100000);
+    ImmutableList<Integer> expected = FluentIterable.from(numbers).filter(ACCEPT_EVEN_NUMBER).transform(POWER_OF_TWO).toList();
+    ParallelIterable<Integer> parallel = ParallelIterable.from(numbers).withPool(POOL).withSequentialThreshold(1000);
+
+    assertThat(parallel.filter(ACCEPT_EVEN_NUMBER).transform(POWER_OF_TWO).toList(), equalTo(expected));
+    assertThat(parallel.filter(ACCEPT_EVEN_NUMBER).size(), equalTo(50000));
+    assertThat(parallel.transform(POWER_OF_TWO).toList(),
+        equalTo(FluentIterable.from(numbers).transform(POWER_OF_TWO).toList()));
+  }
+
+  @Test
+  public void givenPredicateAcceptEven_testAllAndAny_thenOk() {
+    List<Integer> evenNumbers = FluentIterable.from(range(50000)).filter(ACCEPT_EVEN_NUMBER).toList();
+    ParallelIterable<Integer> parallel = ParallelIterable.from(evenNumbers).withPool(POOL).withSequentialThreshold(100);
+    assertTrue(parallel.allMatch(ACCEPT_EVEN_NUMBER));
+    assertFalse(parallel.anyMatch(Predicates.not(ACCEPT_EVEN_NUMBER)));
+    assertTrue(parallel.transform(n -> n + 1).anyMatch(n -> n == 49999));
+  }
+
+  @Test
+  public void givenEarlyMatch_testFirstMatchShortCircuits_thenOk() {
+    final AtomicInteger evaluated = new AtomicInteger();
+    List<Integer> numbers = range(1000000);
+    Integer found = ParallelIterable.from(numbers).withPool(POOL).withSequentialThreshold(1000)
+        .firstMatch(new Predicate<Integer>() {
+          @Override
+          public boolean apply(Integer input) {
+            evaluated.incrementAndGet();
+            return input % 1000 == 999;
+          }
+        }).get();
+    assertThat(found, equalTo(999));
+    assertThat(evaluated.get(), lessThan(numbers.size()));
+    assertFalse(ParallelIterable.from(numbers).withPool(POOL).withSequentialThreshold(1000)
+        .firstMatch(n -> n < 0).isPresent());
+  }
+
+  @Test
+  public void givenSmallInput_testRunsSequentially_thenOk() {
+    final Thread caller = Thread.currentThread();
+    List<Boolean> onCaller = ParallelIterable.from(Arrays.asList(1, 2, 3)).withPool(POOL)
+        .transform(n -> Thread.currentThread() == caller).toList();
+    assertThat(onCaller, contains(true, true, true));
+  }
+}
@@ -0,0 +1,107 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Keeps the {@code k} least elements offered to it in O(k) memory. It is a max-heap, so the
+ * root is the element that goes first when something smaller arrives. Unlike
+ * {@link java.util.PriorityQueue} it allows nulls if the comparator does. The array grows with the
+ * elements kept, so a large {@code k} over few elements costs no more than the elements.
+ */
+final class BoundedHeap<E> {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private final int k;
+  private final Comparator<? super E> comparator;
+  private Object[] heap;
+  private int size;
+
+  BoundedHeap(int k, Comparator<? super E> comparator) {
+    this(k, DEFAULT_CAPACITY, comparator);
+  }
+
+  /**
+   * @param expectedElements how many elements will be offered, if known, to size the array
+   */
+  BoundedHeap(int k, int expectedElements, Comparator<? super E> comparator) {
+    Preconditions.checkArgument(k >= 0, "k (%s) must be >= 0", k);
+    this.k = k;
+    this.comparator = Preconditions.checkNotNull(comparator);
+    this.heap = new Object[Math.min(k, Math.max(expectedElements, 0))];
+  }
+
+  void offer(E element) {
+    if (size < k) {
+      if (size == heap.length) {
+        heap = Arrays.copyOf(heap, (int) Math.min(k, Math.max(2L * size, DEFAULT_CAPACITY)));
+      }
+      heap[size] = element;
+      siftUp(size++);
+    } else if (size > 0 && compare(element, heap[0]) < 0) {
+      heap[0] = element;
+      siftDown(0);
+    }
+  }
+
+  void offerAll(BoundedHeap<? extends E> other) {
+    for (int i = 0; i < other.size; i++) {
+      offer(other.elementAt(i));
+    }
+  }
+
+  /**
+   * The kept elements from least to greatest, unmodifiable like {@code Ordering.leastOf}'s.
+   */
+  @SuppressWarnings("unchecked")
+  List<E> toSortedList() {
+    E[] sorted = (E[]) Arrays.copyOf(heap, size);
+    Arrays.sort(sorted, comparator);
+    return Collections.unmodifiableList(Arrays.asList(sorted));
+  }
+
+  @SuppressWarnings("unchecked")
+  private E elementAt(int i) {
+    return (E) heap[i];
+  }
+
+  @SuppressWarnings("unchecked")
+  private int compare(Object a, Object b) {
+    return comparator.compare((E) a, (E) b);
+  }
+
+  private void siftUp(int i) {
+    Object element = heap[i];
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (compare(element, heap[parent]) <= 0) {
+        break;
+      }
+      heap[i] = heap[parent];
+      i = parent;
+    }
+    heap[i] = element;
+  }
+
+  private void siftDown(int i) {
+    Object element = heap[i];
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      if (right < size && compare(heap[right], heap[child]) > 0) {
+        child = right;
+      }
+      if (compare(element, heap[child]) >= 0) {
+        break;
+      }
+      heap[i] = heap[child];
+      i = child;
+    }
+    heap[i] = element;
+  }
+}
@@ -0,0 +1,69 @@
+package com.niuge.learning;
+
+import com.google.common.io.ByteStreams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Loads fresh copies of a class from its own bytecode, each in a separate class loader. Every
+ * copy has its own JIT profile, which keeps call sites inside it monomorphic when each copy is
+ * used with one kind of receiver. The copies live in a different runtime package, so the
+ * template may only use public types.
+ */
+final class ClassCloner {
+  private static final ConcurrentMap<Class<?>, byte[]> BYTECODE = new ConcurrentHashMap<Class<?>, byte[]>();
+
+  private ClassCloner() {
+  }
+
+  /**
+   * Returns a new instance of a fresh copy of {@code template}, or of {@code template} itself if
+   * its bytecode can't be read.
+   */
+  static Object newInstance(Class<?> template, Class<?>[] parameterTypes, Object... arguments) {
+    Class<?> type = template;
+    byte[] bytes = bytecode(template);
+    if (bytes != null) {
+      type = new DefiningClassLoader(template.getClassLoader()).define(template.getName(), bytes);
+    }
+    try {
+      Constructor<?> constructor = type.getDeclaredConstructor(parameterTypes);
+      constructor.setAccessible(true);
+      return constructor.newInstance(arguments);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("cannot instantiate " + template.getName(), e);
+    }
+  }
+
+  private static byte[] bytecode(Class<?> template) {
+    byte[] bytes = BYTECODE.get(template);
+    if (bytes == null) {
+      String resource = template.getName().replace('.', '/') + ".class";
+      ClassLoader loader = template.getClassLoader();
+      try (InputStream in = loader == null ? null : loader.getResourceAsStream(resource)) {
+        if (in == null) {
+          return null;
+        }
+        bytes = ByteStreams.toByteArray(in);
+      } catch (IOException e) {
+        return null;
+      }
+      BYTECODE.putIfAbsent(template, bytes);
+    }
+    return bytes;
+  }
+
+  private static final class DefiningClassLoader extends ClassLoader {
+    DefiningClassLoader(ClassLoader parent) {
+      super(parent);
+    }
+
+    Class<?> define(String name, byte[] bytes) {
+      return defineClass(name, bytes, 0, bytes.length);
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * An ordering chain flattened by {@link OrderingCompiler}: a list of levels tried in turn until
+ * one of them is non-zero. Instances are only created by the compiler.
+ */
+public abstract class CompiledOrdering<T> extends Ordering<T> {
+  static final int SWAP = 0;
+  static final int NULLS_FIRST = 1;
+  static final int NULLS_LAST = 2;
+  static final int MAP = 3;
+
+  private final ImmutableList<?> levels;
+  private final String description;
+
+  // levels holds Level instances; typed loosely because subclasses live in another class loader
+  protected CompiledOrdering(ImmutableList<?> levels, String description) {
+    this.levels = levels;
+    this.description = description;
+  }
+
+  @SuppressWarnings("unchecked")
+  final ImmutableList<Level> levels() {
+    return (ImmutableList<Level>) levels;
+  }
+
+  @Override
+  public String toString() {
+    return "OrderingCompiler.compile(" + description + ")";
+  }
+
+  /**
+   * One compounded comparison: the argument operations, then either {@code compareTo}
+   * ({@code leaf == null}) or the leaf comparator. See {@link LevelComparator} for how it runs.
+   */
+  static final class Level {
+    final int[] ops;
+    // functions[i] belongs to ops[i] == MAP, other slots are null
+    final Function<Object, Object>[] functions;
+    final Comparator<Object> leaf;
+
+    Level(int[] ops, Function<Object, Object>[] functions, Comparator<Object> leaf) {
+      this.ops = ops;
+      this.functions = functions;
+      this.leaf = leaf;
+    }
+
+    /**
+     * Whether the leaf is {@code Ordering.natural()} / {@code Comparator.naturalOrder()}.
+     */
+    boolean isNatural() {
+      return leaf == null;
+    }
+
+    Level withPrefix(Prefix prefix) {
+      Prefix combined = prefix;
+      for (int i = 0; i < ops.length; i++) {
+        combined = combined.append(ops[i], functions[i]);
+      }
+      return combined.leaf(leaf);
+    }
+  }
+
+  /**
+   * The operations collected on the way down to a leaf. Immutable; two swaps in a row cancel.
+   */
+  static final class Prefix {
+    static final Prefix EMPTY = new Prefix(new int[0], newFunctionArray(0));
+
+    private final int[] ops;
+    private final Function<Object, Object>[] functions;
+
+    private Prefix(int[] ops, Function<Object, Object>[] functions) {
+      this.ops = ops;
+      this.functions = functions;
+    }
+
+    Prefix swap() {
+      return append(SWAP, null);
+    }
+
+    Prefix nullsFirst() {
+      return append(NULLS_FIRST, null);
+    }
+
+    Prefix nullsLast() {
+      return append(NULLS_LAST, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    Prefix map(Function<?, ?> function) {
+      return append(MAP, (Function<Object, Object>) Preconditions.checkNotNull(function));
+    }
+
+    Level natural() {
+      return leaf(null);
+    }
+
+    Level leaf(Comparator<Object> comparator) {
+      return new Level(ops, functions, comparator);
+    }
+
+    private Prefix append(int op, Function<Object, Object> function) {
+      int last = ops.length - 1;
+      if (op == SWAP && last >= 0 && ops[last] == SWAP) {
+        return new Prefix(Arrays.copyOf(ops, last), Arrays.copyOf(functions, last));
+      }
+      int[] appendedOps = Arrays.copyOf(ops, ops.length + 1);
+      appendedOps[ops.length] = op;
+      Function<Object, Object>[] appendedFunctions = Arrays.copyOf(functions, functions.length + 1);
+      appendedFunctions[functions.length] = function;
+      return new Prefix(appendedOps, appendedFunctions);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object>[] newFunctionArray(int length) {
+      return (Function<Object, Object>[]) new Function<?, ?>[length];
+    }
+  }
+}
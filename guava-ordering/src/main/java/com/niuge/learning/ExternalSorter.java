@@ -0,0 +1,481 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Lists;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A merge sort for inputs larger than the heap, under any {@code Ordering}. Elements are collected
+ * until their estimated size reaches the memory budget, sorted, and spilled as a run to a temp
+ * file through a {@link Codec}; the runs are then merged with a {@link LoserTree}, at most
+ * {@code mergeFactor} at a time, in as many passes as it takes. Input that fits in one run never
+ * touches the disk.
+ *
+ * <pre>
+ *   ExternalSorter&lt;String&gt; sorter = ExternalSorter.builder(byLength, Codecs.utf8())
+ *       .memoryBudget(256 &lt;&lt; 20)
+ *       .build();
+ *   try (ExternalSorter.SortedIterator&lt;String&gt; sorted = sorter.sort(lines)) {
+ *     ...
+ *   }
+ * </pre>
+ *
+ * <p>The sort is stable. Elements must not be null, since codecs can't encode null. Files written
+ * by {@link #sortTo} hold each record as its length followed by its encoding, and are read back
+ * with {@link #read}. I/O errors are rethrown as {@link UncheckedIOException}.
+ */
+public final class ExternalSorter<E> {
+  static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+  static final int DEFAULT_MERGE_FACTOR = 64;
+  static final int DEFAULT_BUFFER_SIZE = 64 << 10;
+  // rough heap cost of one buffered element beyond its encoding: object header, fields, list slot
+  static final int ELEMENT_OVERHEAD = 48;
+
+  private final Comparator<? super E> ordering;
+  private final Codec<E> codec;
+  private final long memoryBudget;
+  private final int mergeFactor;
+  private final int bufferSize;
+  private final Path tempDirectory;
+
+  private ExternalSorter(Builder<E> builder) {
+    this.ordering = builder.ordering;
+    this.codec = builder.codec;
+    this.memoryBudget = builder.memoryBudget;
+    this.mergeFactor = builder.mergeFactor;
+    this.bufferSize = builder.bufferSize;
+    this.tempDirectory = builder.tempDirectory;
+  }
+
+  public static <E> Builder<E> builder(Comparator<? super E> ordering, Codec<E> codec) {
+    return new Builder<E>(ordering, codec);
+  }
+
+  public static final class Builder<E> {
+    private final Comparator<? super E> ordering;
+    private final Codec<E> codec;
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+    private int mergeFactor = DEFAULT_MERGE_FACTOR;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private Path tempDirectory;
+
+    private Builder(Comparator<? super E> ordering, Codec<E> codec) {
+      this.ordering = Preconditions.checkNotNull(ordering);
+      this.codec = Preconditions.checkNotNull(codec);
+    }
+
+    /**
+     * Estimated heap bytes of the elements in one run: their encoded size plus
+     * {@value #ELEMENT_OVERHEAD} bytes each. Defaults to 64MB.
+     */
+    public Builder<E> memoryBudget(long bytes) {
+      Preconditions.checkArgument(bytes > 0, "memoryBudget must be positive: %s", bytes);
+      this.memoryBudget = bytes;
+      return this;
+    }
+
+    /**
+     * Runs merged at once; each open run holds one buffer. Defaults to 64.
+     */
+    public Builder<E> mergeFactor(int runs) {
+      Preconditions.checkArgument(runs >= 2, "mergeFactor must be at least 2: %s", runs);
+      this.mergeFactor = runs;
+      return this;
+    }
+
+    /**
+     * Bytes read or written per channel call. Defaults to 64KB.
+     */
+    public Builder<E> bufferSize(int bytes) {
+      Preconditions.checkArgument(bytes >= 8, "bufferSize too small: %s", bytes);
+      this.bufferSize = bytes;
+      return this;
+    }
+
+    /**
+     * Where runs are spilled; the default temp directory if not set.
+     */
+    public Builder<E> tempDirectory(Path directory) {
+      this.tempDirectory = Preconditions.checkNotNull(directory);
+      return this;
+    }
+
+    public ExternalSorter<E> build() {
+      return new ExternalSorter<E>(this);
+    }
+  }
+
+  /**
+   * An iterator over sorted records that deletes its temp files once exhausted or closed.
+   */
+  public abstract static class SortedIterator<E> extends AbstractIterator<E> implements Closeable {
+    SortedIterator() {
+    }
+
+    @Override
+    public abstract void close();
+  }
+
+  public SortedIterator<E> sort(Iterable<? extends E> input) {
+    return sort(input.iterator());
+  }
+
+  /**
+   * Consumes {@code input} and returns its elements in order. Runs are spilled before this returns;
+   * the last merge pass happens lazily as the result is iterated.
+   */
+  public SortedIterator<E> sort(Iterator<? extends E> input) {
+    // every run file written, merged away or not, so a failure can delete whatever is left
+    List<Path> created = new ArrayList<Path>();
+    try {
+      List<E> buffer = spill(input, created);
+      if (created.isEmpty()) {
+        return new BufferIterator<E>(buffer.iterator());
+      }
+      List<Path> runs = mergeDown(new ArrayList<Path>(created), created);
+      return new MergeIterator<E>(open(runs), runs, ordering);
+    } catch (IOException e) {
+      deleteQuietly(created);
+      throw new UncheckedIOException(e);
+    } catch (RuntimeException | Error e) {
+      deleteQuietly(created);
+      throw e;
+    }
+  }
+
+  /**
+   * Sorts {@code input} into {@code output}, replacing it.
+   *
+   * @return the number of records written
+   */
+  public long sortTo(Iterator<? extends E> input, Path output) {
+    try (SortedIterator<E> sorted = sort(input);
+         RunWriter<E> writer = new RunWriter<E>(output, codec, bufferSize)) {
+      while (sorted.hasNext()) {
+        writer.write(sorted.next());
+      }
+      return writer.count;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * The records of a file written by {@link #sortTo}.
+   */
+  public static <E> SortedIterator<E> read(Path file, Codec<E> codec) {
+    try {
+      final RunReader<E> reader = new RunReader<E>(file, codec, DEFAULT_BUFFER_SIZE);
+      return new SortedIterator<E>() {
+        @Override
+        protected E computeNext() {
+          if (reader.hasNext()) {
+            return reader.next();
+          }
+          close();
+          return endOfData();
+        }
+
+        @Override
+        public void close() {
+          reader.close();
+        }
+      };
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Sorts and writes runs until {@code input} is used up. If everything fit in one batch, nothing
+   * is written and the sorted batch is returned instead.
+   */
+  private List<E> spill(Iterator<? extends E> input, List<Path> runs) throws IOException {
+    List<E> buffer = new ArrayList<E>();
+    long used = 0;
+    while (input.hasNext()) {
+      E element = Preconditions.checkNotNull(input.next(), "null element");
+      buffer.add(element);
+      used += codec.encodedSize(element) + ELEMENT_OVERHEAD;
+      if (used >= memoryBudget) {
+        runs.add(writeRun(buffer));
+        buffer.clear();
+        used = 0;
+      }
+    }
+    if (runs.isEmpty()) {
+      Collections.sort(buffer, ordering);
+      return buffer;
+    }
+    if (!buffer.isEmpty()) {
+      runs.add(writeRun(buffer));
+    }
+    return Collections.emptyList();
+  }
+
+  private Path writeRun(List<E> buffer) throws IOException {
+    Collections.sort(buffer, ordering);
+    Path run = createRun();
+    try (RunWriter<E> writer = new RunWriter<E>(run, codec, bufferSize)) {
+      for (E element : buffer) {
+        writer.write(element);
+      }
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(run);
+      throw e;
+    }
+    return run;
+  }
+
+  /**
+   * Merges groups of adjacent runs, keeping them in input order for stability, until no more than
+   * {@code mergeFactor} remain. Every run it writes is also added to {@code created}.
+   */
+  private List<Path> mergeDown(List<Path> runs, List<Path> created) throws IOException {
+    while (runs.size() > mergeFactor) {
+      List<Path> merged = new ArrayList<Path>();
+      for (List<Path> group : Lists.partition(runs, mergeFactor)) {
+        if (group.size() == 1) {
+          merged.add(group.get(0));
+          continue;
+        }
+        Path run = createRun();
+        created.add(run);
+        merged.add(run);
+        List<RunReader<E>> readers = open(group);
+        try (RunWriter<E> writer = new RunWriter<E>(run, codec, bufferSize)) {
+          Iterator<E> merge = new LoserTree<E>(readers, ordering);
+          while (merge.hasNext()) {
+            writer.write(merge.next());
+          }
+        } finally {
+          closeAll(readers);
+        }
+        deleteQuietly(group);
+      }
+      runs = merged;
+    }
+    return runs;
+  }
+
+  private List<RunReader<E>> open(List<Path> runs) throws IOException {
+    List<RunReader<E>> readers = new ArrayList<RunReader<E>>(runs.size());
+    try {
+      for (Path run : runs) {
+        readers.add(new RunReader<E>(run, codec, bufferSize));
+      }
+    } catch (IOException e) {
+      closeAll(readers);
+      throw e;
+    }
+    return readers;
+  }
+
+  private Path createRun() throws IOException {
+    return tempDirectory != null
+        ? Files.createTempFile(tempDirectory, "sort-run", ".tmp")
+        : Files.createTempFile("sort-run", ".tmp");
+  }
+
+  private static void closeAll(List<? extends RunReader<?>> readers) {
+    for (RunReader<?> reader : readers) {
+      reader.close();
+    }
+  }
+
+  private static void deleteQuietly(List<Path> files) {
+    for (Path file : files) {
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        // left for the temp directory cleanup
+      }
+    }
+  }
+
+  private static final class BufferIterator<E> extends SortedIterator<E> {
+    private Iterator<E> elements;
+
+    BufferIterator(Iterator<E> elements) {
+      this.elements = elements;
+    }
+
+    @Override
+    protected E computeNext() {
+      return elements.hasNext() ? elements.next() : endOfData();
+    }
+
+    @Override
+    public void close() {
+      elements = Collections.<E>emptyList().iterator();
+    }
+  }
+
+  private static final class MergeIterator<E> extends SortedIterator<E> {
+    private final List<RunReader<E>> readers;
+    private final List<Path> runs;
+    private final Iterator<E> merge;
+    private boolean closed;
+
+    MergeIterator(List<RunReader<E>> readers, List<Path> runs, Comparator<? super E> ordering) {
+      this.readers = readers;
+      this.runs = runs;
+      this.merge = new LoserTree<E>(readers, ordering);
+    }
+
+    @Override
+    protected E computeNext() {
+      if (!closed && merge.hasNext()) {
+        return merge.next();
+      }
+      close();
+      return endOfData();
+    }
+
+    @Override
+    public void close() {
+      if (!closed) {
+        closed = true;
+        closeAll(readers);
+        deleteQuietly(runs);
+      }
+    }
+  }
+
+  /**
+   * Writes [int length][encoding] records through a reused buffer.
+   */
+  private static final class RunWriter<E> implements Closeable {
+    private final FileChannel channel;
+    private final Codec<E> codec;
+    private ByteBuffer buffer;
+    long count;
+
+    RunWriter(Path file, Codec<E> codec, int bufferSize) throws IOException {
+      this.channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING);
+      this.codec = codec;
+      this.buffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    void write(E element) throws IOException {
+      int size = codec.encodedSize(element);
+      if (buffer.remaining() < size + 4) {
+        flush();
+        if (buffer.capacity() < size + 4) {
+          buffer = ByteBuffer.allocate(size + 4);
+        }
+      }
+      buffer.putInt(size);
+      codec.encode(element, buffer);
+      count++;
+    }
+
+    private void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        flush();
+      } finally {
+        channel.close();
+      }
+    }
+  }
+
+  /**
+   * Reads the records of a run, refilling its buffer as they are consumed.
+   */
+  private static final class RunReader<E> extends AbstractIterator<E> {
+    private final FileChannel channel;
+    private final Codec<E> codec;
+    private ByteBuffer buffer;
+    private boolean eof;
+
+    RunReader(Path file, Codec<E> codec, int bufferSize) throws IOException {
+      this.channel = FileChannel.open(file, StandardOpenOption.READ);
+      this.codec = codec;
+      this.buffer = ByteBuffer.allocate(bufferSize);
+      buffer.flip();
+    }
+
+    @Override
+    protected E computeNext() {
+      try {
+        if (!fill(4)) {
+          return endOfData();
+        }
+        int size = buffer.getInt(buffer.position());
+        if (!fill(size + 4)) {
+          throw new IOException("truncated record in sort run");
+        }
+        int start = buffer.position() + 4;
+        int limit = buffer.limit();
+        buffer.position(start).limit(start + size);
+        E element = codec.decode(buffer);
+        buffer.limit(limit);
+        buffer.position(start + size);
+        return element;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    /**
+     * Makes at least {@code bytes} bytes remain, unless the file ends first.
+     */
+    private boolean fill(int bytes) throws IOException {
+      if (buffer.remaining() >= bytes) {
+        return true;
+      }
+      if (buffer.capacity() < bytes) {
+        ByteBuffer grown = ByteBuffer.allocate(bytes);
+        grown.put(buffer);
+        buffer = grown;
+      } else {
+        buffer.compact();
+      }
+      while (!eof && buffer.position() < bytes) {
+        if (channel.read(buffer) < 0) {
+          eof = true;
+        }
+      }
+      buffer.flip();
+      if (buffer.remaining() == 0) {
+        return false;
+      }
+      if (buffer.remaining() < bytes) {
+        throw new IOException("truncated record in sort run");
+      }
+      return true;
+    }
+
+    void close() {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // nothing was written
+      }
+    }
+  }
+}
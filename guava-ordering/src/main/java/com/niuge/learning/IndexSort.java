@@ -0,0 +1,59 @@
+package com.niuge.learning;
+
+/**
+ * Stable merge sort of an {@code int[]} of positions, for sorting by keys that live in a
+ * parallel array. Nothing is boxed.
+ */
+final class IndexSort {
+  private static final int INSERTION_SORT_THRESHOLD = 16;
+
+  interface IndexComparator {
+    int compare(int a, int b);
+  }
+
+  private IndexSort() {
+  }
+
+  /**
+   * Returns {@code 0..size-1} ordered by {@code comparator}; equal positions keep their order.
+   */
+  static int[] sortedPositions(int size, IndexComparator comparator) {
+    int[] positions = new int[size];
+    for (int i = 0; i < size; i++) {
+      positions[i] = i;
+    }
+    mergeSort(positions, positions.clone(), 0, size, comparator);
+    return positions;
+  }
+
+  // sorts a[from, to) using buffer, whose content on entry equals a's
+  private static void mergeSort(int[] a, int[] buffer, int from, int to, IndexComparator comparator) {
+    if (to - from <= INSERTION_SORT_THRESHOLD) {
+      for (int i = from + 1; i < to; i++) {
+        int current = a[i];
+        int j = i - 1;
+        while (j >= from && comparator.compare(a[j], current) > 0) {
+          a[j + 1] = a[j];
+          j--;
+        }
+        a[j + 1] = current;
+      }
+      return;
+    }
+    int mid = (from + to) >>> 1;
+    // sort the halves into buffer, then merge them back into a
+    mergeSort(buffer, a, from, mid, comparator);
+    mergeSort(buffer, a, mid, to, comparator);
+    if (comparator.compare(buffer[mid - 1], buffer[mid]) <= 0) {
+      System.arraycopy(buffer, from, a, from, to - from);
+      return;
+    }
+    for (int i = from, left = from, right = mid; i < to; i++) {
+      if (right >= to || (left < mid && comparator.compare(buffer[left], buffer[right]) <= 0)) {
+        a[i] = buffer[left++];
+      } else {
+        a[i] = buffer[right++];
+      }
+    }
+  }
+}
@@ -0,0 +1,254 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Ordering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * An {@code Ordering.onResultOf(function)} that sorts by decorate-sort-undecorate: the key of
+ * every element is computed exactly once into an array, positions are sorted by those keys and
+ * the elements are put back in that order.
+ *
+ * <pre>
+ *   // Ordering.usingToString().sortedCopy(numbers) calls toString() O(n log n) times
+ *   List&lt;Integer&gt; sorted = KeyCachingOrdering.usingToString().sortedCopy(numbers);
+ *   List&lt;Row&gt; byScore = KeyCachingOrdering.onIntKey(Row::score).reverse().sortedCopy(rows);
+ * </pre>
+ *
+ * <p>{@link #sortedCopy}, {@link #immutableSortedCopy} and {@link #sort} use the cached keys
+ * and are stable. {@link #compare} still works, computing both keys, so the ordering can be used
+ * anywhere else an {@code Ordering} is expected. The int/long/double variants keep their keys in
+ * primitive arrays and never box.
+ */
+public abstract class KeyCachingOrdering<T> extends Ordering<T> {
+  KeyCachingOrdering() {
+  }
+
+  public static <F, K> KeyCachingOrdering<F> onResultOf(Function<F, ? extends K> function,
+                                                        Ordering<? super K> keyOrdering) {
+    return new ObjectKeyOrdering<F, K>(Preconditions.checkNotNull(function), Preconditions.checkNotNull(keyOrdering));
+  }
+
+  /**
+   * Same order as {@code Ordering.usingToString()}, calling {@code toString()} once per element.
+   */
+  public static KeyCachingOrdering<Object> usingToString() {
+    return onResultOf(Functions.toStringFunction(), Ordering.<String>natural());
+  }
+
+  public static <T> KeyCachingOrdering<T> onIntKey(ToIntFunction<? super T> key) {
+    return new IntKeyOrdering<T>(Preconditions.checkNotNull(key), false);
+  }
+
+  public static <T> KeyCachingOrdering<T> onLongKey(ToLongFunction<? super T> key) {
+    return new LongKeyOrdering<T>(Preconditions.checkNotNull(key), false, "onLongKey", key);
+  }
+
+  /**
+   * Orders keys like {@link Double#compare}: -0.0 before 0.0 and NaN last.
+   */
+  public static <T> KeyCachingOrdering<T> onDoubleKey(final ToDoubleFunction<? super T> key) {
+    Preconditions.checkNotNull(key);
+    return new LongKeyOrdering<T>(new ToLongFunction<T>() {
+      @Override
+      public long applyAsLong(T value) {
+        return sortableBits(key.applyAsDouble(value));
+      }
+    }, false, "onDoubleKey", key);
+  }
+
+  // a long whose signed order is the Double.compare order
+  static long sortableBits(double value) {
+    long bits = Double.doubleToLongBits(value);
+    return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+  }
+
+  /**
+   * Returns the positions {@code 0..elements.length-1} in sorted order of their elements.
+   */
+  abstract int[] sortedPositions(Object[] elements);
+
+  @Override
+  public abstract <S extends T> KeyCachingOrdering<S> reverse();
+
+  @Override
+  public <E extends T> List<E> sortedCopy(Iterable<E> elements) {
+    return new ArrayList<E>(Arrays.asList(sortedArray(elements)));
+  }
+
+  @Override
+  public <E extends T> ImmutableList<E> immutableSortedCopy(Iterable<E> elements) {
+    return ImmutableList.copyOf(sortedArray(elements));
+  }
+
+  /**
+   * Sorts {@code list} in place, like {@code Collections.sort(list, this)}.
+   */
+  public <E extends T> void sort(List<E> list) {
+    E[] sorted = sortedArray(list);
+    ListIterator<E> it = list.listIterator();
+    for (E element : sorted) {
+      it.next();
+      it.set(element);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <E extends T> E[] sortedArray(Iterable<E> elements) {
+    Object[] array = elements instanceof Collection
+        ? ((Collection<?>) elements).toArray()
+        : Iterables.toArray(elements, Object.class);
+    int[] positions = sortedPositions(array);
+    Object[] sorted = new Object[array.length];
+    for (int i = 0; i < positions.length; i++) {
+      sorted[i] = array[positions[i]];
+    }
+    return (E[]) sorted;
+  }
+
+  private static final class ObjectKeyOrdering<F, K> extends KeyCachingOrdering<F> {
+    private final Function<F, ? extends K> function;
+    private final Ordering<? super K> keyOrdering;
+
+    ObjectKeyOrdering(Function<F, ? extends K> function, Ordering<? super K> keyOrdering) {
+      this.function = function;
+      this.keyOrdering = keyOrdering;
+    }
+
+    @Override
+    public int compare(F left, F right) {
+      return keyOrdering.compare(function.apply(left), function.apply(right));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    int[] sortedPositions(Object[] elements) {
+      final Object[] keys = new Object[elements.length];
+      for (int i = 0; i < elements.length; i++) {
+        keys[i] = function.apply((F) elements[i]);
+      }
+      return IndexSort.sortedPositions(keys.length, new IndexSort.IndexComparator() {
+        @Override
+        public int compare(int a, int b) {
+          return keyOrdering.compare((K) keys[a], (K) keys[b]);
+        }
+      });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends F> KeyCachingOrdering<S> reverse() {
+      return (KeyCachingOrdering<S>) new ObjectKeyOrdering<F, K>(function, keyOrdering.<K>reverse());
+    }
+
+    @Override
+    public String toString() {
+      return "KeyCachingOrdering.onResultOf(" + function + ", " + keyOrdering + ")";
+    }
+  }
+
+  private static final class IntKeyOrdering<T> extends KeyCachingOrdering<T> {
+    private final ToIntFunction<? super T> key;
+    private final boolean descending;
+
+    IntKeyOrdering(ToIntFunction<? super T> key, boolean descending) {
+      this.key = key;
+      this.descending = descending;
+    }
+
+    @Override
+    public int compare(T left, T right) {
+      int result = Integer.compare(key.applyAsInt(left), key.applyAsInt(right));
+      return descending ? -result : result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    int[] sortedPositions(Object[] elements) {
+      // key in the high half, position in the low half: sorting the longs sorts by key and
+      // keeps equal keys in their original order
+      long[] packed = new long[elements.length];
+      for (int i = 0; i < elements.length; i++) {
+        int k = key.applyAsInt((T) elements[i]);
+        packed[i] = ((long) (descending ? ~k : k) << 32) | i;
+      }
+      Arrays.sort(packed);
+      int[] positions = new int[packed.length];
+      for (int i = 0; i < packed.length; i++) {
+        positions[i] = (int) packed[i];
+      }
+      return positions;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends T> KeyCachingOrdering<S> reverse() {
+      return (KeyCachingOrdering<S>) new IntKeyOrdering<T>(key, !descending);
+    }
+
+    @Override
+    public String toString() {
+      return "KeyCachingOrdering.onIntKey(" + key + ")" + (descending ? ".reverse()" : "");
+    }
+  }
+
+  private static final class LongKeyOrdering<T> extends KeyCachingOrdering<T> {
+    private final ToLongFunction<? super T> key;
+    private final boolean descending;
+    // for toString: the factory method and the key it was given, which onDoubleKey wraps
+    private final String factory;
+    private final Object userKey;
+
+    LongKeyOrdering(ToLongFunction<? super T> key, boolean descending, String factory, Object userKey) {
+      this.key = key;
+      this.descending = descending;
+      this.factory = factory;
+      this.userKey = userKey;
+    }
+
+    @Override
+    public int compare(T left, T right) {
+      int result = Long.compare(key.applyAsLong(left), key.applyAsLong(right));
+      return descending ? -result : result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    int[] sortedPositions(Object[] elements) {
+      final long[] keys = new long[elements.length];
+      for (int i = 0; i < elements.length; i++) {
+        long k = key.applyAsLong((T) elements[i]);
+        keys[i] = descending ? ~k : k;
+      }
+      return IndexSort.sortedPositions(keys.length, new IndexSort.IndexComparator() {
+        @Override
+        public int compare(int a, int b) {
+          return Long.compare(keys[a], keys[b]);
+        }
+      });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends T> KeyCachingOrdering<S> reverse() {
+      return (KeyCachingOrdering<S>) new LongKeyOrdering<T>(key, !descending, factory, userKey);
+    }
+
+    @Override
+    public String toString() {
+      return "KeyCachingOrdering." + factory + "(" + userKey + ")" + (descending ? ".reverse()" : "");
+    }
+  }
+}
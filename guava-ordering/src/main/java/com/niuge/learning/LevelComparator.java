@@ -0,0 +1,70 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+
+import java.util.Comparator;
+
+/**
+ * Evaluates one {@link CompiledOrdering.Level}. {@link OrderingCompiler} loads a private copy of
+ * this class for every level, so the call sites below only ever see that level's functions and
+ * leaf comparator and the JIT can inline them. It must only use public types for that reason.
+ */
+final class LevelComparator implements Comparator<Object> {
+  private static final int SWAP = CompiledOrdering.SWAP;
+  private static final int NULLS_FIRST = CompiledOrdering.NULLS_FIRST;
+  private static final int NULLS_LAST = CompiledOrdering.NULLS_LAST;
+
+  private final int[] ops;
+  private final Function<Object, Object>[] functions;
+  private final Comparator<Object> leaf;
+
+  LevelComparator(int[] ops, Function<Object, Object>[] functions, Comparator<Object> leaf) {
+    this.ops = ops;
+    this.functions = functions;
+    this.leaf = leaf;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public int compare(Object x, Object y) {
+    for (int i = 0; i < ops.length; i++) {
+      switch (ops[i]) {
+        case SWAP:
+          Object swapped = x;
+          x = y;
+          y = swapped;
+          break;
+        // same results as Guava's NullsFirstOrdering / NullsLastOrdering
+        case NULLS_FIRST:
+          if (x == y) {
+            return 0;
+          } else if (x == null) {
+            return -1;
+          } else if (y == null) {
+            return 1;
+          }
+          break;
+        case NULLS_LAST:
+          if (x == y) {
+            return 0;
+          } else if (x == null) {
+            return 1;
+          } else if (y == null) {
+            return -1;
+          }
+          break;
+        default:
+          x = functions[i].apply(x);
+          y = functions[i].apply(y);
+          break;
+      }
+    }
+    if (leaf == null) {
+      Preconditions.checkNotNull(x);
+      Preconditions.checkNotNull(y);
+      return ((Comparable<Object>) x).compareTo(y);
+    }
+    return leaf.compare(x, y);
+  }
+}
@@ -0,0 +1,93 @@
+package com.niuge.learning;
+
+import com.google.common.collect.AbstractIterator;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A k-way merge of sorted iterators. Each internal node of the tree remembers the source that
+ * lost the match played there, so replacing the winner's head replays only its path to the root:
+ * {@code log2(k)} comparisons per element, against about twice that for a binary heap. Ties go to
+ * the source listed first, which keeps the merge stable.
+ */
+final class LoserTree<E> extends AbstractIterator<E> {
+  private final List<? extends Iterator<? extends E>> sources;
+  private final Comparator<? super E> ordering;
+  private final int k;
+  private final Object[] heads;
+  private final boolean[] exhausted;
+  // tree[0] is the overall winner, tree[1..k) the losers; leaf s sits below node (s + k) / 2
+  private final int[] tree;
+
+  LoserTree(List<? extends Iterator<? extends E>> sources, Comparator<? super E> ordering) {
+    this.sources = sources;
+    this.ordering = ordering;
+    this.k = sources.size();
+    this.heads = new Object[k];
+    this.exhausted = new boolean[k];
+    this.tree = new int[Math.max(k, 1)];
+    for (int s = 0; s < k; s++) {
+      advance(s);
+    }
+    // k stands for a source smaller than all others, so the first pass fills every node
+    Arrays.fill(tree, k);
+    for (int s = k - 1; s >= 0; s--) {
+      replay(s);
+    }
+  }
+
+  @Override
+  protected E computeNext() {
+    if (k == 0) {
+      return endOfData();
+    }
+    int winner = tree[0];
+    if (exhausted[winner]) {
+      return endOfData();
+    }
+    @SuppressWarnings("unchecked")
+    E next = (E) heads[winner];
+    advance(winner);
+    replay(winner);
+    return next;
+  }
+
+  private void advance(int s) {
+    Iterator<? extends E> source = sources.get(s);
+    if (source.hasNext()) {
+      heads[s] = source.next();
+    } else {
+      heads[s] = null;
+      exhausted[s] = true;
+    }
+  }
+
+  private void replay(int s) {
+    for (int t = (s + k) >>> 1; t > 0; t >>>= 1) {
+      if (loses(s, tree[t])) {
+        int winner = tree[t];
+        tree[t] = s;
+        s = winner;
+      }
+    }
+    tree[0] = s;
+  }
+
+  @SuppressWarnings("unchecked")
+  private boolean loses(int a, int b) {
+    if (b == k) {
+      return true;
+    }
+    if (a == k || exhausted[b]) {
+      return false;
+    }
+    if (exhausted[a]) {
+      return true;
+    }
+    int c = ordering.compare((E) heads[a], (E) heads[b]);
+    return c > 0 || (c == 0 && a > b);
+  }
+}
@@ -0,0 +1,189 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Flattens a chain of Guava orderings such as
+ * {@code new OrderingByLength().reverse().compound(Ordering.natural()).nullsLast()} into a
+ * single {@link CompiledOrdering}.
+ *
+ * <p>Every {@code reverse}/{@code nullsFirst}/{@code nullsLast}/{@code onResultOf}/
+ * {@code compound} wrapper normally costs a virtual call per layer per comparison, through call
+ * sites shared by every ordering in the process. The compiler rewrites the chain into a flat
+ * list of levels, one per compounded comparator; each level is a short list of argument
+ * operations (swap, null check, key function) followed by one leaf comparison, and
+ * {@code natural()} leaves call {@code compareTo} directly. Each level and the chain itself run
+ * in their own copy of a template class (see {@link ClassCloner}), so their call sites stay
+ * monomorphic and inlineable. The compiled
+ * ordering returns exactly what the original returns, provided key functions are pure: a
+ * function wrapped around a compound is applied once per level instead of once per comparison.
+ *
+ * <p>Guava's wrapper classes are package-private, so they are taken apart reflectively. Any
+ * comparator the compiler does not recognize becomes an opaque leaf and is called as is.
+ */
+public final class OrderingCompiler {
+  private static final String GUAVA_PACKAGE = "com.google.common.collect.";
+  private static final Object NATURAL = naturalInstance("NaturalOrdering");
+  private static final Object REVERSE_NATURAL = naturalInstance("ReverseNaturalOrdering");
+  private static final Object USING_TO_STRING = naturalInstance("UsingToStringOrdering");
+  private static final Field REVERSE_FORWARD = field("ReverseOrdering", "forwardOrder");
+  private static final Field NULLS_FIRST_ORDERING = field("NullsFirstOrdering", "ordering");
+  private static final Field NULLS_LAST_ORDERING = field("NullsLastOrdering", "ordering");
+  private static final Field COMPOUND_COMPARATORS = field("CompoundOrdering", "comparators");
+  private static final Field BY_FUNCTION_FUNCTION = field("ByFunctionOrdering", "function");
+  private static final Field BY_FUNCTION_ORDERING = field("ByFunctionOrdering", "ordering");
+  private static final Field COMPARATOR_ORDERING_COMPARATOR = field("ComparatorOrdering", "comparator");
+
+  private OrderingCompiler() {
+  }
+
+  /**
+   * Compiles {@code comparator}. Every call loads new classes, so compile an ordering once and
+   * keep the result.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> CompiledOrdering<T> compile(Comparator<T> comparator) {
+    if (comparator instanceof CompiledOrdering) {
+      return (CompiledOrdering<T>) comparator;
+    }
+    ImmutableList<CompiledOrdering.Level> levels = flatten(comparator);
+    @SuppressWarnings("rawtypes")
+    Comparator<Object>[] comparators = new Comparator[levels.size()];
+    for (int i = 0; i < comparators.length; i++) {
+      CompiledOrdering.Level level = levels.get(i);
+      comparators[i] = (Comparator<Object>) ClassCloner.newInstance(LevelComparator.class,
+          new Class<?>[]{int[].class, Function[].class, Comparator.class},
+          level.ops, level.functions, level.leaf);
+    }
+    return (CompiledOrdering<T>) ClassCloner.newInstance(UnrolledOrdering.class,
+        new Class<?>[]{Comparator[].class, ImmutableList.class, String.class},
+        comparators, levels, comparator.toString());
+  }
+
+  /**
+   * The levels of {@code comparator}, in the order a compound ordering tries them.
+   */
+  static ImmutableList<CompiledOrdering.Level> flatten(Comparator<?> comparator) {
+    Preconditions.checkNotNull(comparator);
+    List<CompiledOrdering.Level> levels = Lists.newArrayList();
+    flatten(comparator, CompiledOrdering.Prefix.EMPTY, levels);
+    return ImmutableList.copyOf(levels);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void flatten(Object comparator, CompiledOrdering.Prefix prefix,
+                              List<CompiledOrdering.Level> levels) {
+    if (comparator instanceof CompiledOrdering) {
+      for (CompiledOrdering.Level level : ((CompiledOrdering<?>) comparator).levels()) {
+        levels.add(level.withPrefix(prefix));
+      }
+      return;
+    }
+    if (comparator == NATURAL || comparator == Comparator.naturalOrder()) {
+      levels.add(prefix.natural());
+      return;
+    }
+    if (comparator == REVERSE_NATURAL || comparator == Collections.reverseOrder()) {
+      levels.add(prefix.swap().natural());
+      return;
+    }
+    if (comparator == USING_TO_STRING) {
+      levels.add(prefix.map(Functions.toStringFunction()).natural());
+      return;
+    }
+    String name = comparator.getClass().getName();
+    if (name.startsWith(GUAVA_PACKAGE)) {
+      Object inner;
+      switch (name.substring(GUAVA_PACKAGE.length())) {
+        case "ReverseOrdering":
+          if ((inner = read(REVERSE_FORWARD, comparator)) != null) {
+            flatten(inner, prefix.swap(), levels);
+            return;
+          }
+          break;
+        case "NullsFirstOrdering":
+          if ((inner = read(NULLS_FIRST_ORDERING, comparator)) != null) {
+            flatten(inner, prefix.nullsFirst(), levels);
+            return;
+          }
+          break;
+        case "NullsLastOrdering":
+          if ((inner = read(NULLS_LAST_ORDERING, comparator)) != null) {
+            flatten(inner, prefix.nullsLast(), levels);
+            return;
+          }
+          break;
+        case "ComparatorOrdering":
+          if ((inner = read(COMPARATOR_ORDERING_COMPARATOR, comparator)) != null) {
+            flatten(inner, prefix, levels);
+            return;
+          }
+          break;
+        case "ByFunctionOrdering":
+          Object function = read(BY_FUNCTION_FUNCTION, comparator);
+          if (function != null && (inner = read(BY_FUNCTION_ORDERING, comparator)) != null) {
+            flatten(inner, prefix.map((Function<?, ?>) function), levels);
+            return;
+          }
+          break;
+        case "CompoundOrdering":
+          // an ImmutableList in older Guava versions, an array in newer ones
+          inner = read(COMPOUND_COMPARATORS, comparator);
+          if (inner instanceof Object[]) {
+            inner = ImmutableList.copyOf((Object[]) inner);
+          }
+          if (inner instanceof Iterable) {
+            for (Object part : (Iterable<?>) inner) {
+              flatten(part, prefix, levels);
+            }
+            return;
+          }
+          break;
+        default:
+          break;
+      }
+    }
+    levels.add(prefix.leaf((Comparator<Object>) comparator));
+  }
+
+  private static Object naturalInstance(String className) {
+    try {
+      Field instance = Class.forName(GUAVA_PACKAGE + className).getDeclaredField("INSTANCE");
+      instance.setAccessible(true);
+      return instance.get(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  private static Field field(String className, String fieldName) {
+    try {
+      Field field = Class.forName(GUAVA_PACKAGE + className).getDeclaredField(fieldName);
+      field.setAccessible(true);
+      return field;
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  // null if this Guava version doesn't have the field, so the node stays an opaque leaf
+  private static Object read(Field field, Object target) {
+    if (field == null) {
+      return null;
+    }
+    try {
+      return field.get(target);
+    } catch (IllegalAccessException e) {
+      return null;
+    }
+  }
+}
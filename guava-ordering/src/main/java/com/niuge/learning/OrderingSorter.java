@@ -0,0 +1,145 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parallel counterparts of {@code Collections.sort(list, ordering)}, {@code Ordering.sortedCopy}
+ * and {@code Ordering.leastOf}/{@code greatestOf}. Any Guava {@code Ordering} works, including
+ * {@code compound}/{@code nullsLast}/{@code reverse} chains; it must be thread-safe, which
+ * Guava's own orderings are.
+ *
+ * <pre>
+ *   OrderingSorter.parallelSort(records, byScore.reverse().compound(byName).nullsLast());
+ *   List&lt;Record&gt; top = OrderingSorter.parallelGreatestOf(records, 100, byScore);
+ * </pre>
+ */
+public final class OrderingSorter {
+  // below this a single heap is faster than forking
+  static final int PARALLEL_TOP_K_THRESHOLD = 1 << 14;
+
+  private OrderingSorter() {
+  }
+
+  /**
+   * Sorts {@code list} in place with a stable parallel merge sort
+   * ({@link Arrays#parallelSort(Object[], Comparator)} on the common pool).
+   */
+  public static <E> void parallelSort(List<E> list, Comparator<? super E> ordering) {
+    Preconditions.checkNotNull(ordering);
+    @SuppressWarnings("unchecked")
+    E[] array = (E[]) list.toArray();
+    Arrays.parallelSort(array, ordering);
+    ListIterator<E> it = list.listIterator();
+    for (E element : array) {
+      it.next();
+      it.set(element);
+    }
+  }
+
+  /**
+   * Returns a mutable, sorted copy, like {@code Ordering.sortedCopy}.
+   */
+  public static <E> List<E> parallelSortedCopy(Iterable<E> elements, Comparator<? super E> ordering) {
+    Preconditions.checkNotNull(ordering);
+    @SuppressWarnings("unchecked")
+    E[] array = (E[]) (elements instanceof Collection
+        ? ((Collection<E>) elements).toArray()
+        : Lists.newArrayList(elements).toArray());
+    Arrays.parallelSort(array, ordering);
+    return new ArrayList<E>(Arrays.asList(array));
+  }
+
+  /**
+   * Returns the {@code k} least elements from least to greatest, like {@code Ordering.leastOf}.
+   * Each worker keeps a bounded heap of its chunk and the heaps are merged at the end. As with
+   * Guava, it is undefined which of several equal elements come first.
+   */
+  public static <E> List<E> parallelLeastOf(List<E> list, int k, Comparator<? super E> ordering) {
+    Preconditions.checkArgument(k >= 0, "k (%s) must be >= 0", k);
+    Preconditions.checkNotNull(ordering);
+    if (k == 0 || list.isEmpty()) {
+      return Collections.emptyList();
+    }
+    @SuppressWarnings("unchecked")
+    E[] array = (E[]) list.toArray();
+    int chunkSize = Math.max(PARALLEL_TOP_K_THRESHOLD,
+        array.length / (ForkJoinPool.getCommonPoolParallelism() * 4) + 1);
+    return ForkJoinPool.commonPool()
+        .invoke(new TopKTask<E>(array, 0, array.length, k, chunkSize, ordering))
+        .toSortedList();
+  }
+
+  /**
+   * Returns the {@code k} greatest elements from greatest to least, like
+   * {@code Ordering.greatestOf}.
+   */
+  public static <E> List<E> parallelGreatestOf(List<E> list, int k, Comparator<? super E> ordering) {
+    return parallelLeastOf(list, k, Collections.reverseOrder(ordering));
+  }
+
+  /**
+   * Returns the {@code k} least elements of a stream of unknown length, keeping only O(k) of
+   * them in memory.
+   */
+  public static <E> List<E> leastOf(Iterator<E> elements, int k, Comparator<? super E> ordering) {
+    BoundedHeap<E> heap = new BoundedHeap<E>(k, ordering);
+    while (elements.hasNext()) {
+      heap.offer(elements.next());
+    }
+    return heap.toSortedList();
+  }
+
+  public static <E> List<E> greatestOf(Iterator<E> elements, int k, Comparator<? super E> ordering) {
+    return leastOf(elements, k, Collections.reverseOrder(ordering));
+  }
+
+  private static final class TopKTask<E> extends RecursiveTask<BoundedHeap<E>> {
+    private static final long serialVersionUID = 0;
+
+    private final E[] array;
+    private final int from;
+    private final int to;
+    private final int k;
+    private final int chunkSize;
+    private final Comparator<? super E> ordering;
+
+    TopKTask(E[] array, int from, int to, int k, int chunkSize, Comparator<? super E> ordering) {
+      this.array = array;
+      this.from = from;
+      this.to = to;
+      this.k = k;
+      this.chunkSize = chunkSize;
+      this.ordering = ordering;
+    }
+
+    @Override
+    protected BoundedHeap<E> compute() {
+      if (to - from <= chunkSize) {
+        BoundedHeap<E> heap = new BoundedHeap<E>(k, to - from, ordering);
+        for (int i = from; i < to; i++) {
+          heap.offer(array[i]);
+        }
+        return heap;
+      }
+      int mid = (from + to) >>> 1;
+      TopKTask<E> left = new TopKTask<E>(array, from, mid, k, chunkSize, ordering);
+      left.fork();
+      BoundedHeap<E> right = new TopKTask<E>(array, mid, to, k, chunkSize, ordering).compute();
+      BoundedHeap<E> merged = left.join();
+      merged.offerAll(right);
+      return merged;
+    }
+  }
+}
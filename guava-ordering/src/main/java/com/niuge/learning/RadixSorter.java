@@ -0,0 +1,267 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * A drop-in for {@code Collections.sort(list, ordering)} that sorts lists of {@code Integer},
+ * {@code Long} or {@code String} in linear time when the ordering is {@code natural()}, possibly
+ * with {@code reverse()}, {@code nullsFirst()} and {@code nullsLast()} around it (as recognized
+ * by {@link OrderingCompiler#flatten}). Nulls are counted and put at the end the ordering asks
+ * for; numbers are sorted by an LSD radix sort of their bits, skipping bytes every element
+ * shares, and strings by an MSD radix sort of their characters.
+ *
+ * <pre>
+ *   RadixSorter.sort(ids, Ordering.natural().nullsLast());
+ * </pre>
+ *
+ * <p>Any other ordering or element type, such as a custom {@code OrderingByLength} or a list of
+ * {@code Double}, falls back to {@code Collections.sort}. The result is the same in both cases:
+ * the sort is stable and moves the original element instances, and a list with nulls under an
+ * ordering that doesn't accept them throws the same {@code NullPointerException}.
+ */
+public final class RadixSorter {
+  // below this Collections.sort is as fast and recognizing the ordering isn't worth it
+  static final int RADIX_THRESHOLD = 64;
+  // string ranges below this are finished by a comparison sort
+  private static final int STRING_INSERTION_THRESHOLD = 32;
+  // and ranges still sharing this many bytes, so long common prefixes don't cost a pass per byte
+  private static final int STRING_MAX_DEPTH = 128;
+
+  private RadixSorter() {
+  }
+
+  /**
+   * Sorts {@code list} in place by {@code ordering}.
+   */
+  public static <E> void sort(List<E> list, Comparator<? super E> ordering) {
+    Preconditions.checkNotNull(ordering);
+    Object[] elements = list.toArray();
+    if (elements.length < RADIX_THRESHOLD || !sort(elements, ordering)) {
+      Collections.sort(list, ordering);
+      return;
+    }
+    ListIterator<E> it = list.listIterator();
+    for (Object element : elements) {
+      it.next();
+      @SuppressWarnings("unchecked")
+      E e = (E) element;
+      it.set(e);
+    }
+  }
+
+  /**
+   * Returns a mutable, sorted copy, like {@code Ordering.sortedCopy}.
+   */
+  public static <E> List<E> sortedCopy(Iterable<E> elements, Comparator<? super E> ordering) {
+    List<E> copy = Lists.newArrayList(elements);
+    sort(copy, ordering);
+    return copy;
+  }
+
+  /**
+   * Sorts {@code elements} if {@code ordering} and their types have a radix sort, and returns
+   * whether it did.
+   */
+  private static boolean sort(Object[] elements, Comparator<?> ordering) {
+    ImmutableList<CompiledOrdering.Level> levels = OrderingCompiler.flatten(ordering);
+    if (levels.size() != 1 || !levels.get(0).isNatural()) {
+      return false;
+    }
+    boolean descending = false;
+    // 0 until a nullsFirst/nullsLast decides where nulls go; later ones never see a null
+    int nulls = 0;
+    for (int op : levels.get(0).ops) {
+      if (op == CompiledOrdering.SWAP) {
+        descending = !descending;
+      } else if (op == CompiledOrdering.NULLS_FIRST || op == CompiledOrdering.NULLS_LAST) {
+        if (nulls == 0) {
+          // after an odd number of swaps the null check sees its arguments the other way round
+          nulls = (op == CompiledOrdering.NULLS_FIRST) != descending ? -1 : 1;
+        }
+      } else {
+        return false;
+      }
+    }
+
+    int n = 0;
+    Class<?> type = null;
+    for (Object element : elements) {
+      if (element != null) {
+        if (type == null) {
+          type = element.getClass();
+        } else if (element.getClass() != type) {
+          return false;
+        }
+        elements[n++] = element;
+      }
+    }
+    int nullCount = elements.length - n;
+    if (nullCount > 0 && nulls == 0) {
+      // let natural() throw
+      return false;
+    }
+    int offset = nulls < 0 ? nullCount : 0;
+    if (type == Integer.class || type == Long.class) {
+      sortNumbers(elements, n, type == Integer.class, descending, offset);
+    } else if (type == String.class) {
+      sortStrings(elements, n, descending, offset);
+    } else if (type != null) {
+      return false;
+    }
+    Arrays.fill(elements, nulls < 0 ? 0 : n, nulls < 0 ? nullCount : elements.length, null);
+    return true;
+  }
+
+  /**
+   * Sorts the numbers in {@code elements[0, n)} and moves them to {@code elements[offset, offset + n)}.
+   */
+  private static void sortNumbers(Object[] elements, int n, boolean isInteger, boolean descending, int offset) {
+    long[] keys = new long[n];
+    for (int i = 0; i < n; i++) {
+      // flipping the sign bit makes the unsigned order of the keys the signed order of the values
+      long key = isInteger
+          ? (((Integer) elements[i]) ^ Integer.MIN_VALUE) & 0xFFFFFFFFL
+          : ((Long) elements[i]) ^ Long.MIN_VALUE;
+      // complemented keys sort descending, and equal ones still keep their order
+      keys[i] = descending ? ~key : key;
+    }
+    int[] positions = radixOrder(keys);
+    Object[] sorted = new Object[n];
+    for (int i = 0; i < n; i++) {
+      sorted[i] = elements[positions[i]];
+    }
+    System.arraycopy(sorted, 0, elements, offset, n);
+  }
+
+  /**
+   * Returns the positions of {@code keys} in ascending unsigned order, equal keys in their
+   * original order: one LSD pass per byte, except bytes that are the same in every key.
+   */
+  static int[] radixOrder(long[] keys) {
+    int n = keys.length;
+    int[][] counts = new int[8][257];
+    for (long key : keys) {
+      for (int b = 0; b < 8; b++) {
+        counts[b][((int) (key >>> (b * 8)) & 0xFF) + 1]++;
+      }
+    }
+    long[] k = keys.clone();
+    long[] kBuffer = new long[n];
+    int[] p = new int[n];
+    int[] pBuffer = new int[n];
+    for (int i = 0; i < n; i++) {
+      p[i] = i;
+    }
+    for (int b = 0; b < 8; b++) {
+      int[] start = counts[b];
+      int shift = b * 8;
+      if (start[((int) (k[0] >>> shift) & 0xFF) + 1] == n) {
+        continue;
+      }
+      for (int d = 0; d < 256; d++) {
+        start[d + 1] += start[d];
+      }
+      for (int i = 0; i < n; i++) {
+        int to = start[(int) (k[i] >>> shift) & 0xFF]++;
+        kBuffer[to] = k[i];
+        pBuffer[to] = p[i];
+      }
+      long[] swappedKeys = k;
+      k = kBuffer;
+      kBuffer = swappedKeys;
+      int[] swappedPositions = p;
+      p = pBuffer;
+      pBuffer = swappedPositions;
+    }
+    return p;
+  }
+
+  private static void sortStrings(Object[] elements, int n, boolean descending, int offset) {
+    String[] strings = new String[n];
+    for (int i = 0; i < n; i++) {
+      // a stable descending sort is the reverse of a stable ascending sort of the reversed input
+      strings[i] = (String) elements[descending ? n - 1 - i : i];
+    }
+    msdSort(strings, new String[n], 0, n, 0);
+    for (int i = 0; i < n; i++) {
+      elements[offset + i] = strings[descending ? n - 1 - i : i];
+    }
+  }
+
+  /**
+   * Sorts {@code a[from, to)}, whose strings share their first {@code d} bytes, one byte of UTF-16
+   * per pass, so there are 256 buckets plus one for strings that end before byte {@code d}. Only
+   * the smaller buckets are sorted recursively and the largest by the next pass of the loop, so
+   * the recursion is at most log2(n) deep however long the strings are.
+   */
+  private static void msdSort(String[] a, String[] buffer, int from, int to, int d) {
+    // allocated once the range is known to need a pass, then reused by the following ones
+    int[] start = null;
+    for (;;) {
+      if (to - from < STRING_INSERTION_THRESHOLD || d >= STRING_MAX_DEPTH) {
+        // stable, and compares like the bytes do
+        Arrays.sort(a, from, to);
+        return;
+      }
+      if (start == null) {
+        start = new int[258];
+      } else {
+        Arrays.fill(start, 0);
+      }
+      for (int i = from; i < to; i++) {
+        start[byteAt(a[i], d) + 1]++;
+      }
+      int first = byteAt(a[from], d);
+      if (start[first + 1] == to - from) {
+        if (first == 0) {
+          // all equal
+          return;
+        }
+        d++;
+        continue;
+      }
+      for (int bucket = 0; bucket < 257; bucket++) {
+        start[bucket + 1] += start[bucket];
+      }
+      for (int i = from; i < to; i++) {
+        buffer[from + start[byteAt(a[i], d)]++] = a[i];
+      }
+      System.arraycopy(buffer, from, a, from, to - from);
+      // start[bucket] is now where bucket + 1 begins; bucket 0 holds the strings that ended, and
+      // being all equal needs no sorting
+      int largest = 0;
+      for (int bucket = 1; bucket < 256; bucket++) {
+        if (start[bucket + 1] - start[bucket] > start[largest + 1] - start[largest]) {
+          largest = bucket;
+        }
+      }
+      for (int bucket = 0; bucket < 256; bucket++) {
+        if (bucket != largest && start[bucket + 1] - start[bucket] > 1) {
+          msdSort(a, buffer, from + start[bucket], from + start[bucket + 1], d + 1);
+        }
+      }
+      int largestFrom = from + start[largest];
+      to = from + start[largest + 1];
+      from = largestFrom;
+      d++;
+    }
+  }
+
+  // 0 past the end of s, otherwise 1 + byte d of its chars, high byte first
+  private static int byteAt(String s, int d) {
+    int index = d >>> 1;
+    if (index >= s.length()) {
+      return 0;
+    }
+    char c = s.charAt(index);
+    return ((d & 1) == 0 ? c >>> 8 : c & 0xFF) + 1;
+  }
+}
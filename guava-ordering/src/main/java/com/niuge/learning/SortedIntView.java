@@ -0,0 +1,196 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Ints;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A sorted {@code int[]} with O(log n) floor/ceiling/range queries, the primitive counterpart of
+ * {@link SortedView}.
+ *
+ * <p>Point queries search an Eytzinger copy of the keys: the implicit binary search tree stored
+ * in breadth-first order, so the first levels of every search share a few cache lines and the
+ * next nodes are adjacent in memory. Range queries and batched lookups use the plain sorted
+ * array. Index methods return ranks in sorted order, or -1 when there is no such element.
+ */
+public final class SortedIntView {
+  private final int[] sorted;
+  // 1-based Eytzinger layout: children of node k are 2k and 2k+1
+  private final int[] tree;
+  // rank in sorted of every tree node
+  private final int[] rank;
+
+  private SortedIntView(int[] sorted) {
+    this.sorted = sorted;
+    this.tree = new int[sorted.length + 1];
+    this.rank = new int[sorted.length + 1];
+    fill(1, 0);
+  }
+
+  /**
+   * Copies {@code sorted}, which must be in ascending order.
+   *
+   * @throws IllegalArgumentException if it is not
+   */
+  public static SortedIntView of(int... sorted) {
+    for (int i = 1; i < sorted.length; i++) {
+      Preconditions.checkArgument(sorted[i - 1] <= sorted[i], "keys are not sorted at index %s", i);
+    }
+    return new SortedIntView(sorted.clone());
+  }
+
+  public static SortedIntView sortedCopyOf(int... keys) {
+    int[] sorted = keys.clone();
+    Arrays.sort(sorted);
+    return new SortedIntView(sorted);
+  }
+
+  public static SortedIntView sortedCopyOf(Collection<? extends Number> keys) {
+    int[] sorted = Ints.toArray(keys);
+    Arrays.sort(sorted);
+    return new SortedIntView(sorted);
+  }
+
+  // in-order walk of the implicit tree assigns sorted keys to nodes; returns the next rank
+  private int fill(int node, int next) {
+    if (node < tree.length) {
+      next = fill(2 * node, next);
+      tree[node] = sorted[next];
+      rank[node] = next++;
+      next = fill(2 * node + 1, next);
+    }
+    return next;
+  }
+
+  public int size() {
+    return sorted.length;
+  }
+
+  public int get(int index) {
+    return sorted[index];
+  }
+
+  /**
+   * Rank of the first key not less than {@code key}, or {@link #size()} if there is none.
+   */
+  public int lowerBound(int key) {
+    int node = 1;
+    while (node < tree.length) {
+      node = 2 * node + (tree[node] < key ? 1 : 0);
+    }
+    // drop the trailing right turns and the last left turn: what remains is the answer node
+    node >>>= Integer.numberOfTrailingZeros(~node) + 1;
+    return node == 0 ? sorted.length : rank[node];
+  }
+
+  /**
+   * Rank of the first key greater than {@code key}, or {@link #size()} if there is none.
+   */
+  public int upperBound(int key) {
+    int node = 1;
+    while (node < tree.length) {
+      node = 2 * node + (tree[node] <= key ? 1 : 0);
+    }
+    node >>>= Integer.numberOfTrailingZeros(~node) + 1;
+    return node == 0 ? sorted.length : rank[node];
+  }
+
+  public boolean contains(int key) {
+    int index = lowerBound(key);
+    return index < sorted.length && sorted[index] == key;
+  }
+
+  public int floorIndex(int key) {
+    return upperBound(key) - 1;
+  }
+
+  public int ceilingIndex(int key) {
+    int index = lowerBound(key);
+    return index == sorted.length ? -1 : index;
+  }
+
+  /**
+   * Number of keys in {@code [from, to)}.
+   */
+  public int count(int from, int to) {
+    return Math.max(0, lowerBound(to) - lowerBound(from));
+  }
+
+  /**
+   * The keys in {@code [from, to)}.
+   */
+  public int[] range(int from, int to) {
+    int start = lowerBound(from);
+    return Arrays.copyOfRange(sorted, start, Math.max(start, lowerBound(to)));
+  }
+
+  /**
+   * {@link #ceilingIndex} for every probe, in probe order. Sorted probes are answered in one
+   * merge pass over the keys, galloping forward from the previous answer.
+   */
+  public int[] ceilingIndexes(int[] probes) {
+    int[] result = bounds(probes, false);
+    for (int i = 0; i < result.length; i++) {
+      if (result[i] == sorted.length) {
+        result[i] = -1;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * {@link #floorIndex} for every probe, in probe order.
+   */
+  public int[] floorIndexes(int[] probes) {
+    int[] result = bounds(probes, true);
+    for (int i = 0; i < result.length; i++) {
+      result[i]--;
+    }
+    return result;
+  }
+
+  private int[] bounds(final int[] probes, boolean upper) {
+    int[] order = null;
+    for (int i = 1; i < probes.length && order == null; i++) {
+      if (probes[i - 1] > probes[i]) {
+        order = IndexSort.sortedPositions(probes.length, new IndexSort.IndexComparator() {
+          @Override
+          public int compare(int a, int b) {
+            return Integer.compare(probes[a], probes[b]);
+          }
+        });
+      }
+    }
+    int[] result = new int[probes.length];
+    int from = 0;
+    for (int i = 0; i < probes.length; i++) {
+      int position = order == null ? i : order[i];
+      from = gallop(probes[position], from, upper);
+      result[position] = from;
+    }
+    return result;
+  }
+
+  private int gallop(int key, int from, boolean upper) {
+    int step = 1;
+    int low = from;
+    int high = from;
+    while (high < sorted.length && (upper ? sorted[high] <= key : sorted[high] < key)) {
+      low = high + 1;
+      high = from + step;
+      step <<= 1;
+    }
+    high = Math.min(high, sorted.length);
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (upper ? sorted[mid] <= key : sorted[mid] < key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,410 @@
+package com.niuge.learning;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Ordering;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A list kept sorted by an {@link Ordering} as elements are added and removed, instead of being
+ * re-sorted after every change. It is a treap whose nodes count their subtree, so
+ * {@link #add(Object)}, {@link #remove(int)}, {@link #get} (the k-th element) and {@link #rank}
+ * take O(log n) expected time, and {@link #leastOf}/{@link #greatestOf} O(k + log n).
+ *
+ * <pre>
+ *   SortedTreeList&lt;Integer&gt; scores = SortedTreeList.create(Ordering.natural().reverse().nullsLast());
+ *   scores.add(57);
+ *   scores.remove(Integer.valueOf(34));
+ *   List&lt;Integer&gt; top = scores.leastOf(10);
+ * </pre>
+ *
+ * <p>Like a sorted multiset, {@code add(e)} puts {@code e} where the ordering says, after any
+ * elements it ties with, rather than at the end; {@code add(index, e)} and {@code set} are not
+ * supported. Nulls are allowed if the ordering accepts them, and sit where {@code nullsFirst} or
+ * {@code nullsLast} puts them. {@code remove(Object)}, {@code indexOf} and {@code contains} find
+ * the ties of their argument by the ordering, then match among those with {@code equals}. Not
+ * thread-safe.
+ */
+public final class SortedTreeList<E> extends AbstractList<E> {
+  private final Ordering<? super E> ordering;
+  private Node<E> root;
+  private int seed = 0x2545F491;
+  // results of split()
+  private Node<E> splitLeft;
+  private Node<E> splitRight;
+
+  private static final class Node<E> {
+    final E element;
+    final int priority;
+    int size = 1;
+    Node<E> left;
+    Node<E> right;
+
+    Node(E element, int priority) {
+      this.element = element;
+      this.priority = priority;
+    }
+  }
+
+  private SortedTreeList(Ordering<? super E> ordering) {
+    this.ordering = Preconditions.checkNotNull(ordering);
+  }
+
+  public static <E> SortedTreeList<E> create(Ordering<? super E> ordering) {
+    return new SortedTreeList<E>(ordering);
+  }
+
+  /**
+   * A sorted copy of {@code elements}, built in O(n log n) with one sort.
+   */
+  public static <E> SortedTreeList<E> copyOf(Iterable<? extends E> elements, Ordering<? super E> ordering) {
+    SortedTreeList<E> list = new SortedTreeList<E>(ordering);
+    @SuppressWarnings("unchecked")
+    E[] sorted = (E[]) Iterables.toArray(elements, Object.class);
+    Arrays.sort(sorted, ordering);
+    for (E element : sorted) {
+      list.root = list.merge(list.root, list.newNode(element));
+    }
+    return list;
+  }
+
+  public Ordering<? super E> ordering() {
+    return ordering;
+  }
+
+  @Override
+  public int size() {
+    return size(root);
+  }
+
+  /**
+   * The element of rank {@code index}: the {@code index + 1}-th smallest.
+   */
+  @Override
+  public E get(int index) {
+    Preconditions.checkElementIndex(index, size());
+    Node<E> node = root;
+    for (;;) {
+      int leftSize = size(node.left);
+      if (index < leftSize) {
+        node = node.left;
+      } else if (index == leftSize) {
+        return node.element;
+      } else {
+        index -= leftSize + 1;
+        node = node.right;
+      }
+    }
+  }
+
+  /**
+   * Inserts {@code element} at its sorted position, after the elements it ties with.
+   */
+  @Override
+  public boolean add(E element) {
+    Node<E> node = newNode(element);
+    split(root, upperBound(element));
+    root = merge(merge(splitLeft, node), splitRight);
+    clearSplit();
+    modCount++;
+    return true;
+  }
+
+  @Override
+  public E remove(int index) {
+    Preconditions.checkElementIndex(index, size());
+    split(root, index);
+    Node<E> left = splitLeft;
+    split(splitRight, 1);
+    E removed = splitLeft.element;
+    root = merge(left, splitRight);
+    clearSplit();
+    modCount++;
+    return removed;
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    int index = indexOf(o);
+    if (index < 0) {
+      return false;
+    }
+    remove(index);
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    root = null;
+    modCount++;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return indexOf(o) >= 0;
+  }
+
+  /**
+   * The first index of an element that ties with {@code o} and equals it, or -1.
+   */
+  @Override
+  public int indexOf(Object o) {
+    int from;
+    int to;
+    try {
+      @SuppressWarnings("unchecked")
+      E key = (E) o;
+      from = rank(key);
+      to = upperBound(key);
+    } catch (ClassCastException e) {
+      return -1;
+    }
+    Iterator<E> ties = iteratorFrom(from);
+    for (int i = from; i < to; i++) {
+      if (Objects.equal(ties.next(), o)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public int lastIndexOf(Object o) {
+    int index = indexOf(o);
+    if (index < 0) {
+      return -1;
+    }
+    @SuppressWarnings("unchecked")
+    int to = upperBound((E) o);
+    Iterator<E> ties = iteratorFrom(index + 1);
+    for (int i = index + 1; i < to; i++) {
+      if (Objects.equal(ties.next(), o)) {
+        index = i;
+      }
+    }
+    return index;
+  }
+
+  /**
+   * The number of elements ordered strictly before {@code key}, which is also the index of its
+   * first tie if there is one.
+   */
+  public int rank(E key) {
+    int rank = 0;
+    Node<E> node = root;
+    while (node != null) {
+      if (ordering.compare(node.element, key) < 0) {
+        rank += size(node.left) + 1;
+        node = node.right;
+      } else {
+        node = node.left;
+      }
+    }
+    return rank;
+  }
+
+  /**
+   * The number of elements ordered before {@code key} or tied with it.
+   */
+  public int upperBound(E key) {
+    int rank = 0;
+    Node<E> node = root;
+    while (node != null) {
+      if (ordering.compare(node.element, key) <= 0) {
+        rank += size(node.left) + 1;
+        node = node.right;
+      } else {
+        node = node.left;
+      }
+    }
+    return rank;
+  }
+
+  /**
+   * The number of elements tied with {@code key}.
+   */
+  public int count(E key) {
+    return upperBound(key) - rank(key);
+  }
+
+  /**
+   * The {@code k} least elements in order, like {@code Ordering.leastOf}, without visiting the rest.
+   */
+  public List<E> leastOf(int k) {
+    Preconditions.checkArgument(k >= 0, "k (%s) must be >= 0", k);
+    List<E> least = new ArrayList<E>(Math.min(k, size()));
+    Iterator<E> it = iterator();
+    while (least.size() < k && it.hasNext()) {
+      least.add(it.next());
+    }
+    return least;
+  }
+
+  /**
+   * The {@code k} greatest elements, greatest first, like {@code Ordering.greatestOf}.
+   */
+  public List<E> greatestOf(int k) {
+    Preconditions.checkArgument(k >= 0, "k (%s) must be >= 0", k);
+    List<E> greatest = new ArrayList<E>(Math.min(k, size()));
+    Deque<Node<E>> stack = new ArrayDeque<Node<E>>();
+    Node<E> node = root;
+    while (greatest.size() < k && (node != null || !stack.isEmpty())) {
+      while (node != null) {
+        stack.push(node);
+        node = node.right;
+      }
+      node = stack.pop();
+      greatest.add(node.element);
+      node = node.left;
+    }
+    return greatest;
+  }
+
+  /**
+   * Walks the tree in order, O(1) amortized per element; {@code remove} is supported.
+   */
+  @Override
+  public Iterator<E> iterator() {
+    return iteratorFrom(0);
+  }
+
+  private Iterator<E> iteratorFrom(final int index) {
+    return new Iterator<E>() {
+      private final Deque<Node<E>> stack = new ArrayDeque<Node<E>>();
+      private int next = index;
+      private int last = -1;
+      private int expectedModCount = modCount;
+
+      {
+        descendTo(next);
+      }
+
+      // leaves on the stack the path to the element of rank i, and the ancestors it is left of
+      private void descendTo(int i) {
+        stack.clear();
+        Node<E> node = root;
+        while (node != null) {
+          int leftSize = size(node.left);
+          if (i < leftSize) {
+            stack.push(node);
+            node = node.left;
+          } else if (i == leftSize) {
+            stack.push(node);
+            return;
+          } else {
+            i -= leftSize + 1;
+            node = node.right;
+          }
+        }
+      }
+
+      @Override
+      public boolean hasNext() {
+        return !stack.isEmpty();
+      }
+
+      @Override
+      public E next() {
+        if (modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+        if (stack.isEmpty()) {
+          throw new NoSuchElementException();
+        }
+        Node<E> node = stack.pop();
+        for (Node<E> child = node.right; child != null; child = child.left) {
+          stack.push(child);
+        }
+        last = next++;
+        return node.element;
+      }
+
+      @Override
+      public void remove() {
+        Preconditions.checkState(last >= 0, "no element to remove");
+        if (modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+        SortedTreeList.this.remove(last);
+        next = last;
+        last = -1;
+        expectedModCount = modCount;
+        descendTo(next);
+      }
+    };
+  }
+
+  private Node<E> newNode(E element) {
+    // xorshift
+    seed ^= seed << 13;
+    seed ^= seed >>> 17;
+    seed ^= seed << 5;
+    return new Node<E>(element, seed);
+  }
+
+  private static int size(Node<?> node) {
+    return node == null ? 0 : node.size;
+  }
+
+  private static void update(Node<?> node) {
+    node.size = size(node.left) + 1 + size(node.right);
+  }
+
+  /**
+   * Splits {@code t} into its first {@code k} elements, left in {@link #splitLeft}, and the rest,
+   * left in {@link #splitRight}.
+   */
+  private void split(Node<E> t, int k) {
+    if (t == null) {
+      splitLeft = null;
+      splitRight = null;
+      return;
+    }
+    if (size(t.left) >= k) {
+      split(t.left, k);
+      t.left = splitRight;
+      update(t);
+      splitRight = t;
+    } else {
+      split(t.right, k - size(t.left) - 1);
+      t.right = splitLeft;
+      update(t);
+      splitLeft = t;
+    }
+  }
+
+  /**
+   * Joins two trees, every element of {@code a} coming before those of {@code b}.
+   */
+  private Node<E> merge(Node<E> a, Node<E> b) {
+    if (a == null) {
+      return b;
+    }
+    if (b == null) {
+      return a;
+    }
+    if (a.priority > b.priority) {
+      a.right = merge(a.right, b);
+      update(a);
+      return a;
+    }
+    b.left = merge(a, b.left);
+    update(b);
+    return b;
+  }
+
+  private void clearSplit() {
+    splitLeft = null;
+    splitRight = null;
+  }
+}
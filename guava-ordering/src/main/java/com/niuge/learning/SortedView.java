@@ -0,0 +1,242 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Ordering;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list known to be sorted by an {@link Ordering}, with O(log n) floor/ceiling/range
+ * queries. Sortedness is checked once, with {@link Ordering#isOrdered}, when the view is built,
+ * so unlike a bare {@code Ordering.binarySearch} a query can't silently run on unsorted data.
+ *
+ * <pre>
+ *   SortedView&lt;Integer&gt; view = SortedView.sortedCopyOf(numbers, Ordering.natural());
+ *   Integer atMost57 = view.floor(57);
+ *   List&lt;Integer&gt; between = view.range(10, 20);
+ * </pre>
+ *
+ * <p>Index methods return -1 when there is no such element. For primitive keys see
+ * {@link SortedIntView}.
+ */
+public final class SortedView<T> extends AbstractList<T> implements RandomAccess {
+  private final Object[] elements;
+  private final Ordering<? super T> ordering;
+
+  private SortedView(Object[] elements, Ordering<? super T> ordering) {
+    this.elements = elements;
+    this.ordering = ordering;
+  }
+
+  /**
+   * Copies {@code sorted}, which must already be ordered by {@code ordering}.
+   *
+   * @throws IllegalArgumentException if it is not
+   */
+  public static <T> SortedView<T> of(Iterable<? extends T> sorted, Ordering<? super T> ordering) {
+    Preconditions.checkNotNull(ordering);
+    Object[] elements = toArray(sorted);
+    @SuppressWarnings("unchecked")
+    List<T> asList = (List<T>) Arrays.asList(elements);
+    Preconditions.checkArgument(ordering.isOrdered(asList), "elements are not ordered by %s", ordering);
+    return new SortedView<T>(elements, ordering);
+  }
+
+  public static <T> SortedView<T> sortedCopyOf(Iterable<? extends T> elements, Ordering<? super T> ordering) {
+    Preconditions.checkNotNull(ordering);
+    Object[] array = toArray(elements);
+    @SuppressWarnings("unchecked")
+    T[] sorted = (T[]) array;
+    Arrays.sort(sorted, ordering);
+    return new SortedView<T>(array, ordering);
+  }
+
+  private static Object[] toArray(Iterable<?> elements) {
+    return elements instanceof Collection
+        ? ((Collection<?>) elements).toArray()
+        : Iterables.toArray(elements, Object.class);
+  }
+
+  public Ordering<? super T> ordering() {
+    return ordering;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T get(int index) {
+    return (T) elements[index];
+  }
+
+  @Override
+  public int size() {
+    return elements.length;
+  }
+
+  /**
+   * Index of the first element not less than {@code key}, or {@link #size()} if there is none.
+   */
+  public int lowerBound(T key) {
+    return lowerBound(key, 0, elements.length);
+  }
+
+  /**
+   * Index of the first element greater than {@code key}, or {@link #size()} if there is none.
+   */
+  public int upperBound(T key) {
+    return upperBound(key, 0, elements.length);
+  }
+
+  /**
+   * Like {@link Ordering#binarySearch}: the index of an element equal to {@code key}, or
+   * {@code -(insertion point) - 1}.
+   */
+  public int binarySearch(T key) {
+    int index = lowerBound(key);
+    return index < elements.length && compare(get(index), key) == 0 ? index : -index - 1;
+  }
+
+  /**
+   * Index of the greatest element less than or equal to {@code key}.
+   */
+  public int floorIndex(T key) {
+    return upperBound(key) - 1;
+  }
+
+  /**
+   * Index of the least element greater than or equal to {@code key}.
+   */
+  public int ceilingIndex(T key) {
+    int index = lowerBound(key);
+    return index == elements.length ? -1 : index;
+  }
+
+  /**
+   * The greatest element less than or equal to {@code key}, or null if there is none.
+   */
+  public T floor(T key) {
+    int index = floorIndex(key);
+    return index < 0 ? null : get(index);
+  }
+
+  /**
+   * The least element greater than or equal to {@code key}, or null if there is none.
+   */
+  public T ceiling(T key) {
+    int index = ceilingIndex(key);
+    return index < 0 ? null : get(index);
+  }
+
+  /**
+   * The elements in {@code [from, to)}, as a view.
+   */
+  public List<T> range(T from, T to) {
+    Preconditions.checkArgument(compare(from, to) <= 0, "from %s is greater than to %s", from, to);
+    int start = lowerBound(from);
+    return subList(start, Math.max(start, lowerBound(to)));
+  }
+
+  public List<T> rangeClosed(T from, T to) {
+    Preconditions.checkArgument(compare(from, to) <= 0, "from %s is greater than to %s", from, to);
+    int start = lowerBound(from);
+    return subList(start, Math.max(start, upperBound(to)));
+  }
+
+  /**
+   * {@link #floorIndex} for every probe, in probe order. Sorted probes are answered in one
+   * merge pass that gallops forward from the previous answer; other probes are sorted first.
+   */
+  public int[] floorIndexes(List<? extends T> probes) {
+    int[] bounds = bounds(probes, true);
+    for (int i = 0; i < bounds.length; i++) {
+      bounds[i]--;
+    }
+    return bounds;
+  }
+
+  /**
+   * {@link #ceilingIndex} for every probe, in probe order.
+   */
+  public int[] ceilingIndexes(List<? extends T> probes) {
+    int[] bounds = bounds(probes, false);
+    for (int i = 0; i < bounds.length; i++) {
+      if (bounds[i] == elements.length) {
+        bounds[i] = -1;
+      }
+    }
+    return bounds;
+  }
+
+  // upper or lower bound of every probe
+  private int[] bounds(List<? extends T> probes, boolean upper) {
+    final Object[] keys = probes.toArray();
+    int[] order;
+    if (ordering.isOrdered(probes)) {
+      order = null;
+    } else {
+      order = IndexSort.sortedPositions(keys.length, new IndexSort.IndexComparator() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public int compare(int a, int b) {
+          return ordering.compare((T) keys[a], (T) keys[b]);
+        }
+      });
+    }
+    int[] bounds = new int[keys.length];
+    int from = 0;
+    for (int i = 0; i < keys.length; i++) {
+      int position = order == null ? i : order[i];
+      @SuppressWarnings("unchecked")
+      T key = (T) keys[position];
+      from = gallop(key, from, upper);
+      bounds[position] = from;
+    }
+    return bounds;
+  }
+
+  // the bound of key, knowing it is at least from: exponential search, then binary search
+  private int gallop(T key, int from, boolean upper) {
+    int step = 1;
+    int low = from;
+    int high = from;
+    while (high < elements.length && (upper ? compare(get(high), key) <= 0 : compare(get(high), key) < 0)) {
+      low = high + 1;
+      high = from + step;
+      step <<= 1;
+    }
+    high = Math.min(high, elements.length);
+    return upper ? upperBound(key, low, high) : lowerBound(key, low, high);
+  }
+
+  private int lowerBound(T key, int low, int high) {
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (compare(get(mid), key) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private int upperBound(T key, int low, int high) {
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (compare(get(mid), key) <= 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private int compare(T a, T b) {
+    return ordering.compare(a, b);
+  }
+}
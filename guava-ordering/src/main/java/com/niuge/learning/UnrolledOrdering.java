@@ -0,0 +1,64 @@
+package com.niuge.learning;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+
+import java.util.Comparator;
+
+/**
+ * The {@link CompiledOrdering} that {@link OrderingCompiler} returns. Each compiled chain gets
+ * its own copy of this class with the first levels unrolled into separate call sites, so every
+ * site sees exactly one {@link LevelComparator} class. It must only use public types.
+ */
+final class UnrolledOrdering<T> extends CompiledOrdering<T> {
+  private final int count;
+  private final Comparator<Object> level0;
+  private final Comparator<Object> level1;
+  private final Comparator<Object> level2;
+  private final Comparator<Object> level3;
+  private final Comparator<Object> level4;
+  private final Comparator<Object> level5;
+  private final Comparator<Object>[] comparators;
+
+  UnrolledOrdering(Comparator<Object>[] comparators, ImmutableList<?> levels, String description) {
+    super(levels, description);
+    // an empty compound has no levels and ties everything
+    this.count = Math.max(comparators.length, 1);
+    this.comparators = comparators;
+    this.level0 = comparators.length > 0 ? comparators[0] : Ordering.allEqual();
+    this.level1 = count > 1 ? comparators[1] : null;
+    this.level2 = count > 2 ? comparators[2] : null;
+    this.level3 = count > 3 ? comparators[3] : null;
+    this.level4 = count > 4 ? comparators[4] : null;
+    this.level5 = count > 5 ? comparators[5] : null;
+  }
+
+  @Override
+  public int compare(T left, T right) {
+    int result = level0.compare(left, right);
+    if (result != 0 || count == 1) {
+      return result;
+    }
+    result = level1.compare(left, right);
+    if (result != 0 || count == 2) {
+      return result;
+    }
+    result = level2.compare(left, right);
+    if (result != 0 || count == 3) {
+      return result;
+    }
+    result = level3.compare(left, right);
+    if (result != 0 || count == 4) {
+      return result;
+    }
+    result = level4.compare(left, right);
+    if (result != 0 || count == 5) {
+      return result;
+    }
+    result = level5.compare(left, right);
+    for (int i = 6; result == 0 && i < count; i++) {
+      result = comparators[i].compare(left, right);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,179 @@
+package com.niuge.learning;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class TestExternalSorter {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static List<String> randomStrings(int size) {
+    Random random = new Random(42);
+    List<String> strings = Lists.newArrayListWithCapacity(size);
+    for (int i = 0; i < size; i++) {
+      strings.add(Integer.toString(random.nextInt(size), 36));
+    }
+    return strings;
+  }
+
+  @Test
+  public void givenManyRunsAndPasses_testSort_thenSameAsSortedCopy() throws Exception {
+    Ordering<String> ordering = new TestGuavaOrdering.OrderingByLength().compound(Ordering.natural());
+    List<String> toSort = randomStrings(100000);
+    File spill = folder.newFolder();
+    ExternalSorter<String> sorter = ExternalSorter.builder(ordering, Codecs.utf8())
+        .memoryBudget(64 << 10)
+        .mergeFactor(3)
+        .bufferSize(64)
+        .tempDirectory(spill.toPath())
+        .build();
+    List<String> sorted = Lists.newArrayList(sorter.sort(toSort));
+    assertThat(sorted, equalTo(ordering.sortedCopy(toSort)));
+    assertThat(spill.list(), emptyArray());
+  }
+
+  @Test
+  public void givenEqualKeys_testSort_thenStable() throws Exception {
+    // orders by the last digit only; the sort must keep input order within a digit
+    Ordering<Integer> byLastDigit = new Ordering<Integer>() {
+      @Override
+      public int compare(Integer left, Integer right) {
+        return Integer.compare(left % 10, right % 10);
+      }
+    };
+    List<Integer> toSort = Lists.newArrayList();
+    Random random = new Random(42);
+    for (int i = 0; i < 20000; i++) {
+      toSort.add(random.nextInt(1000000));
+    }
+    ExternalSorter<Integer> sorter = ExternalSorter.builder(byLastDigit, Codecs.int32())
+        .memoryBudget(10000)
+        .mergeFactor(4)
+        .tempDirectory(folder.newFolder().toPath())
+        .build();
+    List<Integer> expected = Lists.newArrayList(toSort);
+    Collections.sort(expected, byLastDigit);
+    assertThat(Lists.newArrayList(sorter.sort(toSort)), equalTo(expected));
+  }
+
+  @Test
+  public void givenFewElements_testSort_thenNothingSpilled() throws Exception {
+    File spill = folder.newFolder();
+    ExternalSorter<Integer> sorter = ExternalSorter.builder(Ordering.<Integer>natural().reverse(), Codecs.int32())
+        .tempDirectory(spill.toPath())
+        .build();
+    assertThat(Lists.newArrayList(sorter.sort(ImmutableList.of(3, 1, 2))), equalTo((List<Integer>) ImmutableList.of(3, 2, 1)));
+    assertFalse(sorter.sort(ImmutableList.<Integer>of()).hasNext());
+    assertThat(spill.list(), emptyArray());
+  }
+
+  @Test
+  public void givenClosedEarly_testSort_thenRunsDeleted() throws Exception {
+    File spill = folder.newFolder();
+    ExternalSorter<String> sorter = ExternalSorter.builder(Ordering.<String>natural(), Codecs.utf8())
+        .memoryBudget(4096)
+        .tempDirectory(spill.toPath())
+        .build();
+    try (ExternalSorter.SortedIterator<String> sorted = sorter.sort(randomStrings(10000))) {
+      assertTrue(spill.list().length > 1);
+      sorted.next();
+    }
+    assertThat(spill.list(), emptyArray());
+  }
+
+  @Test
+  public void givenOutputFile_testSortTo_thenReadBackSorted() throws Exception {
+    List<String> toSort = randomStrings(50000);
+    Path output = folder.newFile().toPath();
+    ExternalSorter<String> sorter = ExternalSorter.builder(Ordering.<String>natural(), Codecs.utf8())
+        .memoryBudget(100000)
+        .tempDirectory(folder.newFolder().toPath())
+        .build();
+    assertThat(sorter.sortTo(toSort.iterator(), output), equalTo(50000L));
+    try (ExternalSorter.SortedIterator<String> records = ExternalSorter.read(output, Codecs.utf8())) {
+      assertThat(Lists.newArrayList(records), equalTo(Ordering.<String>natural().sortedCopy(toSort)));
+    }
+  }
+
+  @Test
+  public void givenCodecFailingInMergePass_testSort_thenNoRunsLeft() throws Exception {
+    final Codec<Integer> failing = new Codec<Integer>() {
+      private int decoded;
+
+      @Override
+      public int encodedSize(Integer value) {
+        return Codecs.int32().encodedSize(value);
+      }
+
+      @Override
+      public void encode(Integer value, ByteBuffer target) {
+        Codecs.int32().encode(value, target);
+      }
+
+      @Override
+      public Integer decode(ByteBuffer source) {
+        // the first pass decodes all 20000 records, so this fails in the second
+        if (++decoded > 30000) {
+          throw new IllegalStateException("corrupt record");
+        }
+        return Codecs.int32().decode(source);
+      }
+    };
+    List<Integer> toSort = Lists.newArrayList();
+    Random random = new Random(42);
+    for (int i = 0; i < 20000; i++) {
+      toSort.add(random.nextInt());
+    }
+    File spill = folder.newFolder();
+    ExternalSorter<Integer> sorter = ExternalSorter.builder(Ordering.<Integer>natural(), failing)
+        .memoryBudget(10000)
+        .mergeFactor(2)
+        .tempDirectory(spill.toPath())
+        .build();
+    try {
+      sorter.sort(toSort);
+      fail();
+    } catch (IllegalStateException expected) {
+      assertThat(spill.list(), emptyArray());
+    }
+  }
+
+  @Test
+  public void givenSortedSources_testLoserTree_thenMerged() {
+    for (int k = 0; k <= 9; k++) {
+      List<Iterator<Integer>> sources = Lists.newArrayList();
+      List<Integer> all = Lists.newArrayList();
+      Random random = new Random(k);
+      for (int s = 0; s < k; s++) {
+        List<Integer> source = Lists.newArrayList();
+        for (int i = random.nextInt(5); i > 0; i--) {
+          source.add(random.nextInt(20));
+        }
+        Collections.sort(source);
+        all.addAll(source);
+        sources.add(source.iterator());
+      }
+      Collections.sort(all);
+      assertThat(Lists.newArrayList(new LoserTree<Integer>(sources, Ordering.<Integer>natural())), equalTo(all));
+    }
+  }
+}
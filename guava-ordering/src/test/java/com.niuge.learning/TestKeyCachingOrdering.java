@@ -0,0 +1,107 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestKeyCachingOrdering {
+  @Test
+  public void givenToStringFunction_testSort_thenOk() {
+    List<Integer> toSort = Arrays.asList(2, 1, 11, 100, 8, 14);
+    List<Integer> sortedCopy = KeyCachingOrdering.usingToString().sortedCopy(toSort);
+
+    List<Integer> expected = Lists.newArrayList(1, 100, 11, 14, 2, 8);
+    assertThat(expected, equalTo(sortedCopy));
+    assertThat(KeyCachingOrdering.usingToString().immutableSortedCopy(toSort), equalTo(expected));
+  }
+
+  @Test
+  public void givenCountingFunction_testKeyComputedOncePerElement_thenOk() {
+    final AtomicInteger calls = new AtomicInteger();
+    Function<Integer, String> toString = new Function<Integer, String>() {
+      @Override
+      public String apply(Integer input) {
+        calls.incrementAndGet();
+        return input.toString();
+      }
+    };
+    List<Integer> numbers = randomIntegers(10000);
+    List<Integer> sorted = KeyCachingOrdering.onResultOf(toString, Ordering.<String>natural()).sortedCopy(numbers);
+
+    assertThat(calls.get(), equalTo(numbers.size()));
+    assertThat(sorted, equalTo(Ordering.usingToString().sortedCopy(numbers)));
+  }
+
+  @Test
+  public void givenPrimitiveKeys_testSameAsOnResultOf_thenOk() {
+    List<Integer> numbers = randomIntegers(10000);
+    Function<Integer, Integer> mod = input -> input % 100;
+
+    assertThat(KeyCachingOrdering.<Integer>onIntKey(n -> n % 100).sortedCopy(numbers),
+        equalTo(Ordering.natural().onResultOf(mod).sortedCopy(numbers)));
+    assertThat(KeyCachingOrdering.<Integer>onIntKey(n -> n % 100).reverse().sortedCopy(numbers),
+        equalTo(Ordering.natural().onResultOf(mod).reverse().sortedCopy(numbers)));
+    assertThat(KeyCachingOrdering.<Integer>onLongKey(n -> (long) n * -7).sortedCopy(numbers),
+        equalTo(Ordering.natural().onResultOf((Integer n) -> (long) n * -7).sortedCopy(numbers)));
+    assertThat(KeyCachingOrdering.<Integer>onDoubleKey(n -> Math.sin(n)).reverse().sortedCopy(numbers),
+        equalTo(Ordering.natural().onResultOf((Integer n) -> Math.sin(n)).reverse().sortedCopy(numbers)));
+  }
+
+  @Test
+  public void givenSpecialDoubles_testSort_thenSameAsDoubleCompare() {
+    List<Double> doubles = Arrays.asList(Double.NaN, 1.5, -0.0, Double.NEGATIVE_INFINITY, 0.0, -3.0,
+        Double.POSITIVE_INFINITY, Double.MIN_VALUE);
+    assertThat(KeyCachingOrdering.<Double>onDoubleKey(d -> d).sortedCopy(doubles),
+        equalTo(Ordering.natural().sortedCopy(doubles)));
+  }
+
+  @Test
+  public void givenDoubleKey_testToString_thenNamesTheKey() {
+    ToDoubleFunction<Double> identity = new ToDoubleFunction<Double>() {
+      @Override
+      public double applyAsDouble(Double value) {
+        return value;
+      }
+
+      @Override
+      public String toString() {
+        return "identity";
+      }
+    };
+    assertThat(KeyCachingOrdering.onDoubleKey(identity).reverse().toString(),
+        equalTo("KeyCachingOrdering.onDoubleKey(identity).reverse()"));
+  }
+
+  @Test
+  public void givenList_testSortInPlace_thenOk() {
+    List<Integer> toSort = Arrays.asList(2, 1, 11, 100, 8, 14);
+    KeyCachingOrdering.onResultOf(Functions.toStringFunction(), Ordering.<String>natural()).reverse().sort(toSort);
+    assertThat(toSort, equalTo(Arrays.asList(8, 2, 14, 11, 100, 1)));
+  }
+
+  @Test
+  public void givenOrdering_testCompare_thenOk() {
+    Ordering<Object> ordering = KeyCachingOrdering.usingToString();
+    assertThat(ordering.min(Arrays.asList(2, 1, 11, 100, 8, 14)), equalTo((Object) 1));
+  }
+
+  private static List<Integer> randomIntegers(int size) {
+    Random random = new Random(42);
+    List<Integer> numbers = Lists.newArrayListWithCapacity(size);
+    for (int i = 0; i < size; i++) {
+      numbers.add(random.nextInt() / 3);
+    }
+    return numbers;
+  }
+}
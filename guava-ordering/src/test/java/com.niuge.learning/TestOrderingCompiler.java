@@ -0,0 +1,123 @@
+package com.niuge.learning;
+
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestOrderingCompiler {
+  private static final Function<String, Character> FIRST_CHAR = new Function<String, Character>() {
+    @Override
+    public Character apply(String input) {
+      return input.isEmpty() ? ' ' : input.charAt(0);
+    }
+  };
+
+  private static List<String> randomStrings(int size) {
+    Random random = new Random(42);
+    List<String> strings = Lists.newArrayListWithCapacity(size);
+    for (int i = 0; i < size; i++) {
+      if (random.nextInt(10) == 0) {
+        strings.add(null);
+        continue;
+      }
+      char[] chars = new char[random.nextInt(4)];
+      for (int j = 0; j < chars.length; j++) {
+        chars[j] = "aAbBc".charAt(random.nextInt(5));
+      }
+      strings.add(new String(chars));
+    }
+    return strings;
+  }
+
+  // every pair, including identical references and nulls
+  private static <T> void assertSameResults(Comparator<? super T> original, List<T> values) {
+    Comparator<? super T> compiled = OrderingCompiler.compile(original);
+    for (T a : values) {
+      for (T b : values) {
+        assertThat(original + " " + a + " " + b, compiled.compare(a, b), equalTo(original.compare(a, b)));
+      }
+    }
+    List<T> expected = Lists.newArrayList(values);
+    Collections.sort(expected, original);
+    List<T> actual = Lists.newArrayList(values);
+    Collections.sort(actual, compiled);
+    assertThat(actual, equalTo(expected));
+  }
+
+  @Test
+  public void givenEmptyCompound_testCompile_thenAllEqual() {
+    Ordering<String> empty = Ordering.compound(ImmutableList.<Comparator<String>>of());
+    CompiledOrdering<String> compiled = OrderingCompiler.compile(empty);
+    assertThat(compiled.levels().size(), equalTo(0));
+    assertThat(compiled.compare("a", "b"), equalTo(0));
+    assertSameResults(empty, randomStrings(50));
+    assertSameResults(compiled.compound(Ordering.<String>natural()).nullsFirst(), randomStrings(200));
+  }
+
+  @Test
+  public void givenCompound_testCompile_thenOk() {
+    Ordering<String> ordering = new TestGuavaOrdering.OrderingByLength().reverse().compound(Ordering.natural()).nullsLast();
+    assertThat(OrderingCompiler.compile(ordering).levels().size(), equalTo(2));
+    assertSameResults(ordering, randomStrings(200));
+  }
+
+  @Test
+  public void givenNullAwareOrderings_testCompile_thenOk() {
+    List<String> strings = randomStrings(200);
+    assertSameResults(Ordering.natural().nullsFirst(), strings);
+    assertSameResults(Ordering.natural().nullsLast(), strings);
+    assertSameResults(Ordering.natural().nullsLast().reverse(), strings);
+    assertSameResults(Ordering.natural().reverse().nullsFirst().reverse(), strings);
+    assertSameResults(Ordering.natural().nullsFirst().reverse().reverse(), strings);
+  }
+
+  @Test
+  public void givenDeepCompound_testCompile_thenOk() {
+    Ordering<String> ordering = Ordering.natural().onResultOf(FIRST_CHAR)
+        .compound(new TestGuavaOrdering.OrderingByLength().reverse())
+        .compound(Ordering.from(String.CASE_INSENSITIVE_ORDER))
+        .compound(Ordering.natural().reverse())
+        .compound(Ordering.usingToString())
+        .reverse()
+        .nullsFirst();
+    assertThat(OrderingCompiler.compile(ordering).levels().size(), equalTo(5));
+    assertSameResults(ordering, randomStrings(200));
+  }
+
+  @Test
+  public void givenFunctionAroundCompound_testCompile_thenOk() {
+    Ordering<String> byString = new TestGuavaOrdering.OrderingByLength().compound(Ordering.natural()).nullsFirst();
+    Ordering<Integer> ordering = byString.onResultOf(Functions.toStringFunction()).reverse();
+    List<Integer> numbers = Arrays.asList(2, 1, 11, 100, 8, 14, -3, 0, 11);
+    assertSameResults(ordering, numbers);
+    assertSameResults(Ordering.usingToString(), numbers);
+    assertSameResults(Ordering.natural().onResultOf(Functions.toStringFunction()), numbers);
+  }
+
+  @Test
+  public void givenUnknownComparator_testKeptAsLeaf_thenOk() {
+    Comparator<String> lambda = (a, b) -> Character.compare(a.charAt(a.length() - 1), b.charAt(b.length() - 1));
+    Ordering<String> ordering = Ordering.from(lambda).compound(Comparator.<String>naturalOrder()).nullsLast();
+    List<String> strings = Arrays.asList("ab", null, "cb", "aa", "b", null, "zz");
+    assertThat(OrderingCompiler.compile(ordering).levels().size(), equalTo(2));
+    assertSameResults(ordering, strings);
+    assertSameResults(Collections.<String>reverseOrder(), Arrays.asList("ab", "cb", "aa"));
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void givenNaturalWithNull_testCompare_thenException() {
+    OrderingCompiler.compile(Ordering.<String>natural()).compare("a", null);
+  }
+}
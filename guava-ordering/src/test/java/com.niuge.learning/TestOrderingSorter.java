@@ -0,0 +1,99 @@
+package com.niuge.learning;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class TestOrderingSorter {
+  private static List<String> randomStrings(int size) {
+    Random random = new Random(42);
+    List<String> strings = Lists.newArrayListWithCapacity(size);
+    for (int i = 0; i < size; i++) {
+      strings.add(random.nextInt(20) == 0 ? null : Integer.toString(random.nextInt(size), 36));
+    }
+    return strings;
+  }
+
+  @Test
+  public void givenNullsFirst_testParallelSort_thenOk() {
+    List<Integer> toSort = Arrays.asList(3, 5, 4, null, 1, 2);
+    OrderingSorter.parallelSort(toSort, Ordering.natural().nullsFirst());
+    assertThat(toSort.get(0), nullValue());
+    assertTrue(Ordering.natural().nullsFirst().isOrdered(toSort));
+  }
+
+  @Test
+  public void givenCompound_testParallelSort_thenOk() {
+    Ordering<String> ordering =
+        new TestGuavaOrdering.OrderingByLength().reverse().compound(Ordering.natural()).nullsLast();
+    List<String> toSort = randomStrings(100000);
+    List<String> expected = ordering.sortedCopy(toSort);
+
+    OrderingSorter.parallelSort(toSort, ordering);
+    assertThat(toSort, equalTo(expected));
+    assertThat(OrderingSorter.parallelSortedCopy(randomStrings(100000), ordering), equalTo(expected));
+  }
+
+  @Test
+  public void givenLeastOf_testParallelLeastOf_thenOk() {
+    List<Integer> toSort = Arrays.asList(2, 1, 11, 100, 8, 14);
+    assertThat(OrderingSorter.parallelLeastOf(toSort, 3, Ordering.natural()), equalTo(Arrays.asList(1, 2, 8)));
+    assertThat(OrderingSorter.parallelGreatestOf(toSort, 2, Ordering.natural()), equalTo(Arrays.asList(100, 14)));
+    assertThat(OrderingSorter.parallelLeastOf(toSort, 0, Ordering.natural()), empty());
+    assertThat(OrderingSorter.parallelLeastOf(toSort, 10, Ordering.natural()),
+        equalTo(Ordering.natural().sortedCopy(toSort)));
+  }
+
+  @Test
+  public void givenLargeList_testParallelTopK_thenSameAsOrdering() {
+    Ordering<String> ordering = Ordering.natural().nullsLast();
+    List<String> strings = randomStrings(200000);
+    for (int k : new int[]{1, 10, 1000}) {
+      assertThat(OrderingSorter.parallelLeastOf(strings, k, ordering), equalTo(ordering.leastOf(strings, k)));
+      assertThat(OrderingSorter.parallelGreatestOf(strings, k, ordering), equalTo(ordering.greatestOf(strings, k)));
+    }
+  }
+
+  @Test
+  public void givenIterator_testStreamingTopK_thenOk() {
+    Ordering<String> ordering = Ordering.natural().nullsFirst();
+    List<String> strings = randomStrings(50000);
+    assertThat(OrderingSorter.leastOf(strings.iterator(), 5, ordering), equalTo(ordering.leastOf(strings, 5)));
+    assertThat(OrderingSorter.greatestOf(strings.iterator(), 5, ordering), equalTo(ordering.greatestOf(strings, 5)));
+    assertThat(OrderingSorter.leastOf(Collections.<String>emptyIterator(), 5, ordering), empty());
+  }
+
+  @Test
+  public void givenHugeK_testLeastOf_thenAllocatesForElementsOnly() {
+    List<String> strings = randomStrings(50000);
+    Ordering<String> ordering = Ordering.natural().nullsFirst();
+    assertThat(OrderingSorter.leastOf(strings.iterator(), Integer.MAX_VALUE, ordering),
+        equalTo(ordering.sortedCopy(strings)));
+    assertThat(OrderingSorter.parallelLeastOf(strings, Integer.MAX_VALUE, ordering),
+        equalTo(ordering.sortedCopy(strings)));
+    assertThat(OrderingSorter.parallelGreatestOf(Arrays.asList(2, 1, 3), Integer.MAX_VALUE, Ordering.natural()),
+        equalTo(Arrays.asList(3, 2, 1)));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void givenTopK_testModify_thenException() {
+    List<String> least = OrderingSorter.parallelLeastOf(randomStrings(200000), 10, Ordering.natural().nullsLast());
+    least.set(0, "x");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenNegativeK_testLeastOf_thenException() {
+    OrderingSorter.leastOf(Arrays.asList(1, 2).iterator(), -1, Ordering.natural());
+  }
+}
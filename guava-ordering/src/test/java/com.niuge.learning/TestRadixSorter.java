@@ -0,0 +1,140 @@
+package com.niuge.learning;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestRadixSorter {
+  private static final List<Ordering<Comparable<?>>> ORDERINGS = Arrays.<Ordering<Comparable<?>>>asList(
+      Ordering.natural().nullsFirst(),
+      Ordering.natural().nullsLast(),
+      Ordering.natural().reverse().nullsFirst(),
+      Ordering.natural().reverse().nullsLast(),
+      Ordering.natural().nullsFirst().reverse(),
+      Ordering.natural().nullsLast().reverse(),
+      Ordering.natural().nullsLast().reverse().reverse());
+
+  private static List<Integer> randomIntegers(int size) {
+    Random random = new Random(42);
+    List<Integer> numbers = Lists.newArrayListWithCapacity(size);
+    for (int i = 0; i < size; i++) {
+      // small values with many ties, and values using all 32 bits
+      int value = random.nextBoolean() ? random.nextInt(1000) - 500 : random.nextInt();
+      numbers.add(random.nextInt(20) == 0 ? null : value);
+    }
+    return numbers;
+  }
+
+  private static List<String> randomStrings(int size) {
+    Random random = new Random(42);
+    List<String> strings = Lists.newArrayListWithCapacity(size);
+    for (int i = 0; i < size; i++) {
+      char[] chars = new char[random.nextInt(12)];
+      for (int j = 0; j < chars.length; j++) {
+        // mostly a common prefix, some characters outside Latin-1
+        if (j < 3) {
+          chars[j] = 'x';
+        } else {
+          chars[j] = (char) (random.nextInt(10) == 0 ? 0x3000 + random.nextInt(300) : 'a' + random.nextInt(4));
+        }
+      }
+      strings.add(random.nextInt(20) == 0 ? null : new String(chars));
+    }
+    return strings;
+  }
+
+  @Test
+  public void givenIntegers_testSort_thenSameAsCollectionsSort() {
+    for (Ordering<Comparable<?>> ordering : ORDERINGS) {
+      List<Integer> toSort = randomIntegers(10000);
+      List<Integer> expected = Lists.newArrayList(toSort);
+      Collections.sort(expected, ordering);
+      RadixSorter.sort(toSort, ordering);
+      assertThat(ordering.toString(), toSort, equalTo(expected));
+    }
+  }
+
+  @Test
+  public void givenLongs_testSort_thenSameAsCollectionsSort() {
+    Random random = new Random(42);
+    List<Long> toSort = Lists.newArrayList();
+    for (int i = 0; i < 10000; i++) {
+      toSort.add(i % 50 == 0 ? null : random.nextBoolean() ? random.nextLong() : random.nextInt(100) - 50L);
+    }
+    for (Ordering<Comparable<?>> ordering : ORDERINGS) {
+      assertThat(ordering.toString(), RadixSorter.sortedCopy(toSort, ordering), equalTo(ordering.sortedCopy(toSort)));
+    }
+    List<Long> noNulls = Lists.newArrayList(Long.MAX_VALUE, Long.MIN_VALUE, 0L, -1L, 1L);
+    noNulls.addAll(Collections.nCopies(100, 7L));
+    assertThat(RadixSorter.sortedCopy(noNulls, Ordering.natural()), equalTo(Ordering.natural().sortedCopy(noNulls)));
+    assertThat(RadixSorter.sortedCopy(noNulls, Collections.reverseOrder()),
+        equalTo(Ordering.natural().reverse().sortedCopy(noNulls)));
+  }
+
+  @Test
+  public void givenStrings_testSort_thenSameAsCollectionsSort() {
+    for (Ordering<Comparable<?>> ordering : ORDERINGS) {
+      List<String> toSort = randomStrings(10000);
+      List<String> expected = Lists.newArrayList(toSort);
+      Collections.sort(expected, ordering);
+      RadixSorter.sort(toSort, ordering);
+      assertThat(ordering.toString(), toSort, equalTo(expected));
+    }
+  }
+
+  @Test
+  public void givenEqualElements_testSort_thenStable() {
+    List<Integer> toSort = Lists.newArrayList();
+    for (int i = 0; i < 1000; i++) {
+      // above the Integer cache, so equal values are distinct instances
+      toSort.add(Integer.valueOf(1000 + i % 10));
+    }
+    List<Integer> expected = Lists.newArrayList(toSort);
+    Collections.sort(expected, Ordering.natural().reverse());
+    RadixSorter.sort(toSort, Ordering.natural().reverse());
+    for (int i = 0; i < toSort.size(); i++) {
+      assertThat(toSort.get(i), sameInstance(expected.get(i)));
+    }
+  }
+
+  @Test
+  public void givenStringsPrefixingEachOther_testSort_thenNoStackOverflow() {
+    List<String> toSort = Lists.newArrayList();
+    StringBuilder prefix = new StringBuilder();
+    for (int i = 0; i < 20000; i++) {
+      toSort.add(prefix.append('a').toString());
+    }
+    Collections.shuffle(toSort, new Random(42));
+    List<String> expected = Ordering.natural().sortedCopy(toSort);
+    RadixSorter.sort(toSort, Ordering.natural());
+    assertThat(toSort, equalTo(expected));
+  }
+
+  @Test
+  public void givenCustomOrdering_testSort_thenFallsBack() {
+    Ordering<String> ordering = new TestGuavaOrdering.OrderingByLength().compound(Ordering.natural()).nullsLast();
+    List<String> toSort = randomStrings(1000);
+    assertThat(RadixSorter.sortedCopy(toSort, ordering), equalTo(ordering.sortedCopy(toSort)));
+
+    List<Double> doubles = Lists.newArrayList();
+    for (int i = 0; i < 1000; i++) {
+      doubles.add((double) (i * 7919 % 1000));
+    }
+    assertThat(RadixSorter.sortedCopy(doubles, Ordering.natural()), equalTo(Ordering.natural().sortedCopy(doubles)));
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void givenNullsUnderNatural_testSort_thenException() {
+    List<Integer> toSort = randomIntegers(1000);
+    RadixSorter.sort(toSort, Ordering.natural());
+  }
+}
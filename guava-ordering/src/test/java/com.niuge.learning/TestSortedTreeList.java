@@ -0,0 +1,91 @@
+package com.niuge.learning;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertFalse;
+
+public class TestSortedTreeList {
+  @Test
+  public void givenRandomUpdates_testSortedTreeList_thenSameAsResorting() {
+    Ordering<Integer> ordering = Ordering.<Integer>natural().nullsFirst();
+    SortedTreeList<Integer> tree = SortedTreeList.create(ordering);
+    List<Integer> expected = Lists.newArrayList();
+    Random random = new Random(42);
+    for (int i = 0; i < 5000; i++) {
+      if (random.nextInt(3) == 0 && !expected.isEmpty()) {
+        Integer removed = expected.remove(random.nextInt(expected.size()));
+        assertTrue(tree.remove(removed));
+      } else {
+        Integer added = random.nextInt(20) == 0 ? null : random.nextInt(1000);
+        expected.add(added);
+        tree.add(added);
+      }
+      if (i % 500 == 0) {
+        List<Integer> sorted = ordering.sortedCopy(expected);
+        assertThat(tree, equalTo(sorted));
+        assertTrue(ordering.isOrdered(tree));
+      }
+    }
+    List<Integer> sorted = ordering.sortedCopy(expected);
+    for (int k = 0; k < sorted.size(); k += 37) {
+      assertThat(tree.get(k), equalTo(sorted.get(k)));
+      Integer key = sorted.get(k);
+      assertThat(tree.rank(key), equalTo(sorted.indexOf(key)));
+      assertThat(tree.upperBound(key), equalTo(sorted.lastIndexOf(key) + 1));
+      assertThat(tree.indexOf(key), equalTo(sorted.indexOf(key)));
+      assertThat(tree.lastIndexOf(key), equalTo(sorted.lastIndexOf(key)));
+    }
+  }
+
+  @Test
+  public void givenNullsLast_testLeastOfGreatestOf_thenSameAsOrdering() {
+    Ordering<Integer> ordering = Ordering.<Integer>natural().reverse().nullsLast();
+    List<Integer> numbers = Arrays.asList(3, null, 5, 4, 1, null, 2, 5);
+    SortedTreeList<Integer> tree = SortedTreeList.copyOf(numbers, ordering);
+    assertThat(tree.get(tree.size() - 1), nullValue());
+    assertThat(tree.leastOf(3), equalTo(ordering.leastOf(numbers, 3)));
+    assertThat(tree.greatestOf(3), equalTo(ordering.greatestOf(numbers, 3)));
+    assertThat(tree.leastOf(100), equalTo(ordering.sortedCopy(numbers)));
+    assertThat(tree.count(5), equalTo(2));
+  }
+
+  @Test
+  public void givenOrderingByLength_testAdd_thenTiesInInsertionOrder() {
+    SortedTreeList<String> tree = SortedTreeList.create(new TestGuavaOrdering.OrderingByLength());
+    for (String s : Arrays.asList("ccc", "bb", "a", "dd", "e", "fff")) {
+      tree.add(s);
+    }
+    assertThat(tree, equalTo((List<String>) Arrays.asList("a", "e", "bb", "dd", "ccc", "fff")));
+    assertFalse(tree.remove("xx"));
+    assertTrue(tree.remove("dd"));
+    assertFalse(tree.contains(42));
+    assertThat(tree, equalTo((List<String>) Arrays.asList("a", "e", "bb", "ccc", "fff")));
+  }
+
+  @Test
+  public void givenIterator_testRemove_thenOk() {
+    SortedTreeList<Integer> tree = SortedTreeList.copyOf(Arrays.asList(6, 1, 5, 2, 4, 3), Ordering.<Integer>natural());
+    for (Iterator<Integer> it = tree.iterator(); it.hasNext(); ) {
+      if (it.next() % 2 == 0) {
+        it.remove();
+      }
+    }
+    assertThat(tree, equalTo((List<Integer>) Arrays.asList(1, 3, 5)));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void givenIndex_testAdd_thenUnsupported() {
+    SortedTreeList.create(Ordering.<Integer>natural()).add(0, 1);
+  }
+}
@@ -0,0 +1,124 @@
+package com.niuge.learning;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import com.google.common.primitives.Ints;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertFalse;
+
+public class TestSortedView {
+  @Test
+  public void givenBinarySearch_testSortedView_thenOk() {
+    SortedView<Integer> view = SortedView.sortedCopyOf(Arrays.asList(11, 2, 1), Ordering.usingToString());
+    assertThat(view, contains(1, 11, 2));
+    assertThat(view.binarySearch(2), equalTo(Collections.binarySearch(view, 2, Ordering.usingToString())));
+    assertThat(view.binarySearch(3), equalTo(Collections.binarySearch(view, 3, Ordering.usingToString())));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenUnsortedList_testOf_thenException() {
+    SortedView.of(Arrays.asList(1, 2, 6, 3), Ordering.natural());
+  }
+
+  @Test
+  public void givenSortedView_testFloorCeilingRange_thenOk() {
+    SortedView<Integer> view = SortedView.of(Arrays.asList(2, 6, 10, 10, 34), Ordering.natural());
+    assertThat(view.floor(9), equalTo(6));
+    assertThat(view.floor(10), equalTo(10));
+    assertThat(view.floor(1), nullValue());
+    assertThat(view.ceiling(7), equalTo(10));
+    assertThat(view.ceiling(35), nullValue());
+    assertThat(view.floorIndex(10), equalTo(3));
+    assertThat(view.ceilingIndex(10), equalTo(2));
+    assertThat(view.range(6, 34), contains(6, 10, 10));
+    assertThat(view.rangeClosed(6, 34), contains(6, 10, 10, 34));
+    assertThat(view.range(11, 12), empty());
+  }
+
+  @Test
+  public void givenNullsFirst_testSortedView_thenOk() {
+    SortedView<Integer> view = SortedView.sortedCopyOf(Arrays.asList(3, 5, null, 1), Ordering.natural().nullsFirst());
+    assertThat(view.get(0), nullValue());
+    assertThat(view.floor(2), equalTo(1));
+    assertThat(view.ceilingIndex(null), equalTo(0));
+  }
+
+  @Test
+  public void givenProbes_testBatchedLookups_thenSameAsSingle() {
+    Random random = new Random(42);
+    List<Integer> keys = Lists.newArrayList();
+    for (int i = 0; i < 1000; i++) {
+      keys.add(random.nextInt(5000));
+    }
+    SortedView<Integer> view = SortedView.sortedCopyOf(keys, Ordering.natural());
+    List<Integer> probes = Lists.newArrayList();
+    for (int i = 0; i < 300; i++) {
+      probes.add(random.nextInt(6000) - 500);
+    }
+    List<Integer> sortedProbes = Ordering.natural().sortedCopy(probes);
+    for (List<Integer> p : Arrays.asList(probes, sortedProbes)) {
+      int[] floors = view.floorIndexes(p);
+      int[] ceilings = view.ceilingIndexes(p);
+      for (int i = 0; i < p.size(); i++) {
+        assertThat(floors[i], equalTo(view.floorIndex(p.get(i))));
+        assertThat(ceilings[i], equalTo(view.ceilingIndex(p.get(i))));
+      }
+    }
+  }
+
+  @Test
+  public void givenIntKeys_testEytzingerSameAsBinarySearch_thenOk() {
+    Random random = new Random(42);
+    for (int size : new int[]{0, 1, 2, 3, 7, 8, 100, 1023, 1024, 1025}) {
+      int[] keys = new int[size];
+      for (int i = 0; i < size; i++) {
+        keys[i] = random.nextInt(3 * size + 1) - size;
+      }
+      SortedIntView view = SortedIntView.sortedCopyOf(keys);
+      List<Integer> boxed = Ordering.natural().sortedCopy(Ints.asList(keys));
+      SortedView<Integer> reference = SortedView.of(boxed, Ordering.natural());
+      int[] probes = new int[200];
+      for (int i = 0; i < probes.length; i++) {
+        probes[i] = random.nextInt(5 * size + 3) - 2 * size - 1;
+        assertThat(view.lowerBound(probes[i]), equalTo(reference.lowerBound(probes[i])));
+        assertThat(view.upperBound(probes[i]), equalTo(reference.upperBound(probes[i])));
+        assertThat(view.floorIndex(probes[i]), equalTo(reference.floorIndex(probes[i])));
+        assertThat(view.ceilingIndex(probes[i]), equalTo(reference.ceilingIndex(probes[i])));
+        assertThat(view.contains(probes[i]), equalTo(Collections.binarySearch(boxed, probes[i]) >= 0));
+      }
+      int[] floors = view.floorIndexes(probes);
+      int[] ceilings = view.ceilingIndexes(probes);
+      for (int i = 0; i < probes.length; i++) {
+        assertThat(floors[i], equalTo(view.floorIndex(probes[i])));
+        assertThat(ceilings[i], equalTo(view.ceilingIndex(probes[i])));
+      }
+    }
+  }
+
+  @Test
+  public void givenIntKeys_testRange_thenOk() {
+    SortedIntView view = SortedIntView.of(2, 6, 10, 10, 34);
+    assertThat(view.range(6, 34), equalTo(new int[]{6, 10, 10}));
+    assertThat(view.count(0, 100), equalTo(5));
+    assertThat(view.count(11, 12), equalTo(0));
+    assertTrue(view.contains(34));
+    assertFalse(view.contains(35));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenUnsortedInts_testOf_thenException() {
+    SortedIntView.of(3, 1, 2);
+  }
+}
@@ -0,0 +1,226 @@
+package com.niuge.learning;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Sets;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeDiagnosingMatcher;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Drop-in replacements for the Hamcrest collection matchers that stay fast on collections of
+ * millions of elements. {@code Matchers.containsInAnyOrder} tries every expected matcher against
+ * every item, O(n·m); these compare items by {@code equals}/{@code hashCode} through a hash
+ * multiset in O(n + m). {@link #everyItem} checks items in parallel and stops at the first
+ * mismatch.
+ *
+ * <pre>
+ *   assertThat(actual, LargeCollectionMatchers.containsInAnyOrder(expected));
+ *   assertThat(actual, LargeCollectionMatchers.everyItem(greaterThan(0)));
+ * </pre>
+ *
+ * <p>Descriptions list at most {@value #REPORTED_ITEMS} items of each kind, with a count of the
+ * rest, instead of printing whole collections.
+ */
+public final class LargeCollectionMatchers {
+  static final int REPORTED_ITEMS = 10;
+  // below this everyItem doesn't fork
+  static final int PARALLEL_THRESHOLD = 1 << 16;
+
+  private LargeCollectionMatchers() {
+  }
+
+  /**
+   * Matches an iterable with the same items as {@code expected}, counting duplicates, in any order.
+   */
+  public static <E> Matcher<Iterable<? extends E>> containsInAnyOrder(Collection<? extends E> expected) {
+    return new ContainsInAnyOrder<E>(HashMultiset.<E>create(expected));
+  }
+
+  @SafeVarargs
+  public static <E> Matcher<Iterable<? extends E>> containsInAnyOrder(E... expected) {
+    return containsInAnyOrder(Arrays.asList(expected));
+  }
+
+  /**
+   * Matches an iterable that contains every one of {@code expected}, reading it only until the last
+   * one is found.
+   */
+  public static <E> Matcher<Iterable<? extends E>> hasItems(Collection<? extends E> expected) {
+    return new HasItems<E>(Sets.<E>newHashSet(expected));
+  }
+
+  @SafeVarargs
+  public static <E> Matcher<Iterable<? extends E>> hasItems(E... expected) {
+    return hasItems(Arrays.asList(expected));
+  }
+
+  /**
+   * Matches an iterable containing {@code expected}; a {@link Collection} is asked with
+   * {@code contains}, which is O(1) for hash sets.
+   */
+  public static <E> Matcher<Iterable<? extends E>> hasItem(final E expected) {
+    return new TypeSafeDiagnosingMatcher<Iterable<? extends E>>() {
+      @Override
+      protected boolean matchesSafely(Iterable<? extends E> actual, Description mismatchDescription) {
+        boolean found = actual instanceof Collection
+            ? ((Collection<?>) actual).contains(expected)
+            : Iterables.contains(actual, expected);
+        if (!found) {
+          mismatchDescription.appendText("had no ").appendValue(expected);
+        }
+        return found;
+      }
+
+      @Override
+      public void describeTo(Description description) {
+        description.appendText("an iterable containing ").appendValue(expected);
+      }
+    };
+  }
+
+  /**
+   * Matches an iterable whose items all satisfy {@code itemMatcher}. Collections of
+   * {@value #PARALLEL_THRESHOLD} items or more are checked with a parallel stream when there is more
+   * than one processor, so the matcher must be thread-safe, as Hamcrest's own matchers are.
+   */
+  public static <E> Matcher<Iterable<? extends E>> everyItem(final Matcher<? super E> itemMatcher) {
+    Preconditions.checkNotNull(itemMatcher);
+    return new TypeSafeDiagnosingMatcher<Iterable<? extends E>>() {
+      @Override
+      protected boolean matchesSafely(Iterable<? extends E> actual, Description mismatchDescription) {
+        boolean allMatch = true;
+        if (actual instanceof Collection && ((Collection<?>) actual).size() >= PARALLEL_THRESHOLD
+            && Runtime.getRuntime().availableProcessors() > 1) {
+          allMatch = ((Collection<?>) actual).parallelStream().allMatch(itemMatcher::matches);
+        } else {
+          for (Object item : actual) {
+            if (!itemMatcher.matches(item)) {
+              allMatch = false;
+              break;
+            }
+          }
+        }
+        if (!allMatch) {
+          describeFailures(actual, itemMatcher, mismatchDescription);
+        }
+        return allMatch;
+      }
+
+      @Override
+      public void describeTo(Description description) {
+        description.appendText("every item is ").appendDescriptionOf(itemMatcher);
+      }
+    };
+  }
+
+  private static void describeFailures(Iterable<?> items, Matcher<?> itemMatcher, Description mismatchDescription) {
+    int failures = 0;
+    int index = 0;
+    for (Object item : items) {
+      if (!itemMatcher.matches(item)) {
+        if (failures < REPORTED_ITEMS) {
+          mismatchDescription.appendText(failures == 0 ? "item " : ", item ").appendValue(index).appendText(" ");
+          itemMatcher.describeMismatch(item, mismatchDescription);
+        }
+        failures++;
+      }
+      index++;
+    }
+    if (failures > REPORTED_ITEMS) {
+      mismatchDescription.appendText(" and " + (failures - REPORTED_ITEMS) + " more items failed");
+    }
+  }
+
+  /**
+   * Appends up to {@value #REPORTED_ITEMS} of {@code items}, then how many were left out.
+   */
+  static void appendBounded(Description description, Iterable<?> items, int size) {
+    List<Object> reported = Lists.newArrayList(Iterables.limit(items, REPORTED_ITEMS));
+    description.appendValueList("[", ", ", "]", reported);
+    if (size > reported.size()) {
+      description.appendText(" and " + (size - reported.size()) + " more");
+    }
+  }
+
+  private static final class ContainsInAnyOrder<E> extends TypeSafeDiagnosingMatcher<Iterable<? extends E>> {
+    private final Multiset<E> expected;
+
+    ContainsInAnyOrder(Multiset<E> expected) {
+      this.expected = expected;
+    }
+
+    @Override
+    protected boolean matchesSafely(Iterable<? extends E> actual, Description mismatchDescription) {
+      Multiset<Object> missing = HashMultiset.<Object>create(expected);
+      List<Object> unexpected = Lists.newArrayList();
+      int unexpectedCount = 0;
+      for (Object item : actual) {
+        if (!missing.remove(item)) {
+          if (unexpected.size() < REPORTED_ITEMS) {
+            unexpected.add(item);
+          }
+          unexpectedCount++;
+        }
+      }
+      if (unexpectedCount == 0 && missing.isEmpty()) {
+        return true;
+      }
+      if (unexpectedCount > 0) {
+        mismatchDescription.appendText("had " + unexpectedCount + " unexpected items ");
+        appendBounded(mismatchDescription, unexpected, unexpectedCount);
+      }
+      if (!missing.isEmpty()) {
+        mismatchDescription.appendText(unexpectedCount > 0 ? " and " : "")
+            .appendText("was missing " + missing.size() + " items ");
+        appendBounded(mismatchDescription, missing, missing.size());
+      }
+      return false;
+    }
+
+    @Override
+    public void describeTo(Description description) {
+      description.appendText("an iterable of these " + expected.size() + " items in any order: ");
+      appendBounded(description, expected, expected.size());
+    }
+  }
+
+  private static final class HasItems<E> extends TypeSafeDiagnosingMatcher<Iterable<? extends E>> {
+    private final Set<E> expected;
+
+    HasItems(Set<E> expected) {
+      this.expected = expected;
+    }
+
+    @Override
+    protected boolean matchesSafely(Iterable<? extends E> actual, Description mismatchDescription) {
+      Set<Object> missing = Sets.<Object>newHashSet(expected);
+      for (Object item : actual) {
+        if (missing.isEmpty()) {
+          break;
+        }
+        missing.remove(item);
+      }
+      if (missing.isEmpty()) {
+        return true;
+      }
+      mismatchDescription.appendText("was missing " + missing.size() + " items ");
+      appendBounded(mismatchDescription, missing, missing.size());
+      return false;
+    }
+
+    @Override
+    public void describeTo(Description description) {
+      description.appendText("an iterable containing these " + expected.size() + " items: ");
+      appendBounded(description, expected, expected.size());
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.niuge.learning.learning;
+
+import com.google.common.collect.ContiguousSet;
+import com.google.common.collect.DiscreteDomain;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
+import com.niuge.learning.LargeCollectionMatchers;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+
+// Same checks as HamcrestCollectionsTest, through the hash-based matchers, plus collections large
+// enough that the O(n·m) Hamcrest versions would not finish.
+public class LargeCollectionMatchersTest {
+  private static String mismatch(Matcher<?> matcher, Object actual) {
+    StringDescription description = new StringDescription();
+    matcher.describeMismatch(actual, description);
+    return description.toString();
+  }
+
+  @Test
+  public void givenCollection_whenHasItem_thenOk() {
+    List<String> collection = Lists.newArrayList("ab", "cd", "ef");
+    assertThat(collection, LargeCollectionMatchers.hasItem("cd"));
+    assertThat(collection, not(LargeCollectionMatchers.hasItem("zz")));
+  }
+
+  @Test
+  public void givenCollection_whenHasItems_thenOk() {
+    List<String> collection = Lists.newArrayList("ab", "cd", "ef");
+    assertThat(collection, LargeCollectionMatchers.hasItems("ab", "cd"));
+    assertThat(collection, not(LargeCollectionMatchers.hasItems("zz", "ab")));
+  }
+
+  @Test
+  public void givenCollection_whenContainsInAnyOrder_thenOk() {
+    List<String> collection = Lists.newArrayList("ab", "cd", "ef", "cd");
+    assertThat(collection, LargeCollectionMatchers.containsInAnyOrder("cd", "ab", "cd", "ef"));
+    assertThat(collection, not(LargeCollectionMatchers.containsInAnyOrder("cd", "ab", "ef")));
+    assertThat(collection, not(LargeCollectionMatchers.containsInAnyOrder("cd", "ab", "ef", "ef")));
+  }
+
+  @Test
+  public void givenMillionItems_whenContainsInAnyOrder_thenOk() {
+    List<Integer> expected = Lists.newArrayList(ContiguousSet.create(Range.closedOpen(0, 1000000), DiscreteDomain.integers()));
+    List<Integer> actual = Lists.newArrayList(expected);
+    Collections.reverse(actual);
+    assertThat(actual, LargeCollectionMatchers.containsInAnyOrder(expected));
+    assertThat(actual, LargeCollectionMatchers.hasItems(expected));
+    assertThat(actual, LargeCollectionMatchers.everyItem(lessThan(1000000)));
+  }
+
+  @Test
+  public void givenManyDifferences_whenContainsInAnyOrder_thenMismatchBounded() {
+    List<Integer> expected = Lists.newArrayList(ContiguousSet.create(Range.closedOpen(0, 100000), DiscreteDomain.integers()));
+    List<Integer> actual = Lists.newArrayList(ContiguousSet.create(Range.closedOpen(50000, 150000), DiscreteDomain.integers()));
+    Matcher<Iterable<? extends Integer>> matcher = LargeCollectionMatchers.containsInAnyOrder(expected);
+    assertThat(actual, not(matcher));
+    String mismatch = mismatch(matcher, actual);
+    assertThat(mismatch, containsString("had 50000 unexpected items"));
+    assertThat(mismatch, containsString("was missing 50000 items"));
+    assertThat(mismatch, containsString("and 49990 more"));
+    assertThat(mismatch.length(), lessThan(1000));
+  }
+
+  @Test
+  public void givenFailingItems_whenEveryItem_thenMismatchBounded() {
+    List<Integer> actual = Lists.newArrayList(ContiguousSet.create(Range.closedOpen(-100, 100000), DiscreteDomain.integers()));
+    Matcher<Iterable<? extends Integer>> matcher = LargeCollectionMatchers.everyItem(greaterThanOrEqualTo(0));
+    assertThat(actual, not(matcher));
+    String mismatch = mismatch(matcher, actual);
+    assertThat(mismatch, containsString("item <0> <-100> was less than <0>"));
+    assertThat(mismatch, containsString("and 90 more items failed"));
+  }
+}